@@ -43,6 +43,22 @@ BEGIN
     END IF;
 END$$
 
+-- Bump the version of a mapping whenever its fields change, so the cached mappings are reloaded
+CREATE TRIGGER mapping_fields_after_insert
+    AFTER INSERT ON MAPPING_FIELDS
+    FOR EACH ROW
+    UPDATE MAPPING SET VERSION = VERSION + 1 WHERE IDEN = NEW.MAPPINGFK$$
+
+CREATE TRIGGER mapping_fields_after_update
+    AFTER UPDATE ON MAPPING_FIELDS
+    FOR EACH ROW
+    UPDATE MAPPING SET VERSION = VERSION + 1 WHERE IDEN IN (OLD.MAPPINGFK, NEW.MAPPINGFK)$$
+
+CREATE TRIGGER mapping_fields_after_delete
+    AFTER DELETE ON MAPPING_FIELDS
+    FOR EACH ROW
+    UPDATE MAPPING SET VERSION = VERSION + 1 WHERE IDEN = OLD.MAPPINGFK$$
+
 DELIMITER ;
 
 -- ====================
@@ -1,8 +1,9 @@
 USE cod;
 
 
+-- Identifiers are generated, so the staging job can create rows (GENERATED BY DEFAULT AS IDENTITY on Oracle)
 CREATE TABLE WORK_STATUS (
-                                 WST_IDEN INT NOT NULL,
+                                 WST_IDEN INT NOT NULL AUTO_INCREMENT,
                                  WST_WORK_IDEN VARCHAR(40),
                                  WST_FILE_IDEN VARCHAR(60) NOT NULL,
                                  WST_STAT_CODE INT NOT NULL,
@@ -10,13 +11,20 @@ CREATE TABLE WORK_STATUS (
                                  WST_BEGI_DATE DATETIME,
                                  WST_ENDX_DATE DATETIME,
                                  WST_ERRO_TEXT VARCHAR(255),
+                                 WST_NODE_IDEN VARCHAR(100),
+                                 WST_LEAS_DATE DATETIME,
                                  PRIMARY KEY (WST_IDEN)
 );
 
+-- Supports claiming pending rows in order and finding expired leases
+CREATE INDEX IX_WORK_STATUS_STAT ON WORK_STATUS (WST_STAT_CODE, WST_IDEN);
+
 CREATE TABLE MAPPING (
                              ID VARCHAR(100),
                              MAPPING_TYPE VARCHAR(100),
                              IDEN INT(12) NOT NULL,
+                             -- Incremented on every change to the mapping fields, so cached mappings are reloaded
+                             VERSION INT NOT NULL DEFAULT 1,
                              PRIMARY KEY (IDEN),
                              UNIQUE KEY UQ_ID_MAPPING_TYPE (ID, MAPPING_TYPE)
 );
@@ -28,6 +36,8 @@ CREATE TABLE WORK (
                           WORKCLASSNAME VARCHAR(100),
                           DESCRIPTION VARCHAR(100),
                           IS_ACTIVE VARCHAR(1) NOT NULL DEFAULT 'Y',
+                          -- Mapping of the lines for this work, or NULL for the default mapping of its job
+                          MAPPING_ID VARCHAR(100),
                           IDEN INT NOT NULL,
                           PRIMARY KEY (IDEN),
                           CHECK (IS_ACTIVE IN ('Y', 'N'))
@@ -61,7 +71,7 @@ CREATE TABLE DUMMY (
 );
 
 CREATE TABLE IMPORT_LINE (
-                                 IML_IDEN INT NOT NULL,
+                                 IML_IDEN INT NOT NULL AUTO_INCREMENT,
                                  WST_IDEN INT NOT NULL,
                                  IML_NUMB INT NOT NULL,
                                  IML_TEXT VARCHAR(2000),
@@ -70,6 +80,9 @@ CREATE TABLE IMPORT_LINE (
                                  FOREIGN KEY (WST_IDEN) REFERENCES WORK_STATUS(WST_IDEN)
 );
 
+-- Supports keyset paging of a file's lines: WHERE WST_IDEN = ? AND IML_NUMB > ? ORDER BY IML_NUMB
+CREATE UNIQUE INDEX UQ_IMPORT_LINE_WST_NUMB ON IMPORT_LINE (WST_IDEN, IML_NUMB);
+
 
 -- Grant read-only (SELECT) permissions to reader_user
 GRANT SELECT ON cod.IMPORT_LINE TO 'reader_user'@'%';
@@ -1,30 +1,190 @@
 package com.barebonebatch.common.config;
 
 import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.partition.ImportLineRangePartitioner;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.service.SharedScanService;
+import com.barebonebatch.common.reader.KeysetImportLineReader;
 import org.apache.ibatis.session.SqlSessionFactory;
-import org.mybatis.spring.batch.MyBatisPagingItemReader;
+import org.mybatis.spring.batch.builder.MyBatisCursorItemReaderBuilder;
 import org.mybatis.spring.batch.builder.MyBatisPagingItemReaderBuilder;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.configuration.annotation.StepScope;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableBatchProcessing
 public class BatchConfig {
 
+    public static final String READER_MODE_KEYSET = "keyset";
+    public static final String READER_MODE_PAGING = "paging";
+    public static final String READER_MODE_CURSOR = "cursor";
+
+    @Value("${batch.reader.mode:keyset}")
+    private String readerMode;
+
+    @Value("${batch.reader.page-size:100}")
+    private int pageSize;
+
+    @Value("${batch.partition.pool-size:4}")
+    private int partitionPoolSize;
+
+    @Value("${batch.partition.queue-capacity:16}")
+    private int partitionQueueCapacity;
+
+    @Value("${batch.scheduler.pool-size:4}")
+    private int schedulerPoolSize;
+
+    @Value("${batch.chunk.adaptive:true}")
+    private boolean adaptiveChunkSize;
+
+    @Value("${batch.chunk.initial-size:100}")
+    private int initialChunkSize;
+
+    @Value("${batch.chunk.min-size:10}")
+    private int minChunkSize;
+
+    @Value("${batch.chunk.max-size:5000}")
+    private int maxChunkSize;
+
+    @Value("${batch.chunk.target-transaction-ms:1000}")
+    private long targetTransactionMillis;
+
+    /**
+     * Reads the import lines of the WORK_STATUS given by the {@code wstIden} job parameter.
+     * <p>
+     * The {@code batch.reader.mode} property selects the implementation:
+     * <ul>
+     *     <li><b>keyset</b> (default): {@link KeysetImportLineReader}, seeking on {@code IML_NUMB}.</li>
+     *     <li><b>paging</b>: {@code MyBatisPagingItemReader}, paging with LIMIT/OFFSET.</li>
+     *     <li><b>cursor</b>: {@code MyBatisCursorItemReader}, one query streamed with the fetch size of the
+     *     database profile, so memory stays flat however many lines the file has. A restart re-reads and
+     *     discards the lines before the last commit.</li>
+     * </ul>
+     * The return type is an {@link ItemStreamReader} so the step-scoped proxy is registered as a stream and
+     * the reader position is saved on every commit.
+     * <p>
+     * A job launched as a consumer of a shared scan, with the {@link SharedScanService#CONSUMER} job parameter,
+     * reads the lines handed over by the scan instead, whatever the reader mode.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<ImportLine> databaseReader(SqlSessionFactory sqlSessionFactory, SharedScanService sharedScanService,
+                                                       @Value("#{jobParameters['wstIden']}") Long wstIden,
+                                                       @Value("#{jobParameters['" + SharedScanService.CONSUMER + "']}") String sharedScanConsumer) {
+        if (sharedScanConsumer != null) {
+            return sharedScanService.readerFor(sharedScanConsumer);
+        }
+        if (READER_MODE_PAGING.equalsIgnoreCase(readerMode)) {
+            return new MyBatisPagingItemReaderBuilder<ImportLine>()
+                    .sqlSessionFactory(sqlSessionFactory)
+                    .queryId("com.barebonebatch.common.dao.JobDao.getLinesByWstIden")
+                    .parameterValues(Map.of("wstIden", wstIden))
+                    .pageSize(pageSize)
+                    .build();
+        }
+        if (READER_MODE_CURSOR.equalsIgnoreCase(readerMode)) {
+            return new MyBatisCursorItemReaderBuilder<ImportLine>()
+                    .sqlSessionFactory(sqlSessionFactory)
+                    .queryId("com.barebonebatch.common.dao.JobDao.getLinesByWstIdenCursor")
+                    .parameterValues(Map.of("wstIden", wstIden))
+                    .build();
+        }
+
+        KeysetImportLineReader reader = new KeysetImportLineReader();
+        reader.setSqlSessionFactory(sqlSessionFactory);
+        reader.setWstIden(wstIden);
+        reader.setPageSize(pageSize);
+        return reader;
+    }
+
+    /**
+     * Reads one partition of the import lines of the WORK_STATUS given by the {@code wstIden} job parameter.
+     * The inclusive {@code IML_NUMB} bounds come from the step execution context filled by
+     * {@link ImportLineRangePartitioner}. Partitions always use keyset paging, whatever {@code batch.reader.mode}
+     * says, because the bounds are applied on the {@code (WST_IDEN, IML_NUMB)} index.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<ImportLine> partitionReader(SqlSessionFactory sqlSessionFactory,
+                                                        @Value("#{jobParameters['wstIden']}") Long wstIden,
+                                                        @Value("#{stepExecutionContext['" + ImportLineRangePartitioner.MIN_IML_NUMB + "']}") Integer minImlNumb,
+                                                        @Value("#{stepExecutionContext['" + ImportLineRangePartitioner.MAX_IML_NUMB + "']}") Integer maxImlNumb) {
+        KeysetImportLineReader reader = new KeysetImportLineReader();
+        reader.setSqlSessionFactory(sqlSessionFactory);
+        reader.setWstIden(wstIden);
+        reader.setPageSize(pageSize);
+        reader.setMinImlNumb(minImlNumb);
+        reader.setMaxImlNumb(maxImlNumb);
+        return reader;
+    }
+
+    /**
+     * Runs the worker steps of partitioned steps. The pool is bounded by {@code batch.partition.pool-size}, so
+     * the number of partitions running at once, and the number of database connections they hold, stays
+     * fixed whatever the grid size. Partitions that do not fit in the queue run on the manager step's thread
+     * instead of being rejected.
+     */
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(partitionPoolSize);
+        executor.setMaxPoolSize(partitionPoolSize);
+        executor.setQueueCapacity(partitionQueueCapacity);
+        executor.setThreadNamePrefix("partition-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Runs the jobs dispatched by {@link com.barebonebatch.common.scheduler.JobScheduler}, one WORK_STATUS per
+     * thread. The scheduler never has more WORK_STATUS rows in flight than {@code batch.scheduler.pool-size},
+     * so the queue only has to absorb the hand-over between a finishing job and the next one.
+     */
+    @Bean
+    public TaskExecutor jobLauncherTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(schedulerPoolSize);
+        executor.setMaxPoolSize(schedulerPoolSize);
+        executor.setQueueCapacity(schedulerPoolSize);
+        executor.setThreadNamePrefix("job-launcher-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Runs the jobs fed by a shared scan of {@link com.barebonebatch.common.scheduler.JobScheduler}, one thread
+     * per job. The threads are not pooled: a job left waiting for a thread would leave the scan waiting for it,
+     * and the number of jobs of a file is small and bounded by the WORK table.
+     */
+    @Bean
+    public TaskExecutor sharedScanTaskExecutor() {
+        return new SimpleAsyncTaskExecutor("shared-scan-");
+    }
+
+    /**
+     * The commit interval of chunk-oriented steps, starting at {@code batch.chunk.initial-size} and adapted after
+     * every chunk towards {@code batch.chunk.target-transaction-ms} within {@code batch.chunk.min-size} and
+     * {@code batch.chunk.max-size}. With {@code batch.chunk.adaptive=false} it stays at the initial size.
+     * <p>
+     * Step-scoped, so every step execution, including each partition, adapts on its own. Register it with
+     * {@code chunk(policy, transactionManager)} and {@code listener(policy)}.
+     */
     @Bean
     @StepScope
-    public ItemReader<ImportLine> databaseReader(SqlSessionFactory sqlSessionFactory, @Value("#{jobParameters['wstIden']}") Long wstIden) {
-        return new MyBatisPagingItemReaderBuilder<ImportLine>()
-                .sqlSessionFactory(sqlSessionFactory)
-                .queryId("com.barebonebatch.common.dao.JobDao.getLinesByWstIden")
-                .parameterValues(Map.of("wstIden", wstIden))
-                .pageSize(100)
-                .build();
+    public AdaptiveChunkSizePolicy adaptiveChunkSizePolicy(BaseBatchMetricsService metricsService) {
+        return new AdaptiveChunkSizePolicy(initialChunkSize, minChunkSize, maxChunkSize, targetTransactionMillis,
+                adaptiveChunkSize, metricsService);
     }
 }
@@ -7,6 +7,9 @@ import java.lang.annotation.*;
 /**
  * A custom annotation to identify a specific Spring Batch job.
  * This can be used for descriptive purposes or to be processed by other components.
+ * <p>
+ * {@link com.barebonebatch.common.scheduler.JobRouter} routes the {@code WORK.WORKCLASSNAME} equal to the
+ * identifier of the running environment to the annotated job, in addition to its bean name.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
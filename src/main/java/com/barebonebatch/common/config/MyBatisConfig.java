@@ -0,0 +1,29 @@
+package com.barebonebatch.common.config;
+
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+/**
+ * MyBatis configuration shared by every job.
+ */
+@Configuration
+public class MyBatisConfig {
+
+    /**
+     * Exposes the database vendor to the mappers as {@code _databaseId} ({@code mysql} or {@code oracle}),
+     * so statements can carry vendor-specific SQL with {@code databaseId} or {@code <if test="_databaseId == ...">}.
+     */
+    @Bean
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("Oracle", "oracle");
+        VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+        provider.setProperties(properties);
+        return provider;
+    }
+}
@@ -1,28 +1,52 @@
 package com.barebonebatch.common.dao;
 
 import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.domain.ImportLineRange;
 import com.barebonebatch.common.domain.Mapping;
 import com.barebonebatch.common.domain.Work;
 import com.barebonebatch.common.domain.WorkStatus;
 import com.barebonebatch.dbprocessing.Dummy;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.session.RowBounds;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Mapper
 public interface JobDao {
     WorkStatus getNextWorkStatusPending();
+    List<WorkStatus> lockWorkStatusesPending(int limit, int candidates, RowBounds rowBounds);
     Optional<WorkStatus> getWorkStatusByWstIden(Long wstIden);
     List<ImportLine> getLinesByWstIden(Long wstIden);
+    List<ImportLine> getLinesByWstIdenAfter(Long wstIden, Integer lastImlNumb, Integer maxImlNumb, int pageSize);
+    ImportLineRange getImportLineRange(Long wstIden);
     List<Work> getWorkByFileIden(String fileIden);
 
     Mapping getMappingById(String id);
 
-    void updateWorkStatus(WorkStatus jobRequest);
+    List<Mapping> getMappingVersions(Collection<String> ids);
 
-    void updateWorkStatusEnd(WorkStatus jobRequest);
+    int updateWorkStatus(WorkStatus jobRequest);
+
+    int insertWorkStatus(WorkStatus workStatus);
+
+    int updateWorkStatusStatCode(Integer wstIden, Integer fromStatCode, Integer toStatCode);
+
+    int claimWorkStatus(Integer wstIden, String nodeIden, int leaseSeconds);
+
+    int renewLeases(String nodeIden, Collection<Integer> wstIdens, int leaseSeconds);
+
+    int releaseExpiredLeases();
+
+    int updateWorkStatusEnd(WorkStatus jobRequest);
     void dummyinsert(Dummy dummy);
 
     void updateImportLineWithError(ImportLine item);
+
+    int updateImportLinesWithError(List<ImportLine> items, boolean append);
+
+    int clearImportLineErrors(Long wstIden);
+
+    void insertImportLine(ImportLine item);
 }
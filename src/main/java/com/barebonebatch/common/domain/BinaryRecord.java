@@ -0,0 +1,10 @@
+package com.barebonebatch.common.domain;
+
+/**
+ * A fixed-length binary record read from a file, with its 1-based record number.
+ *
+ * @param number The 1-based number of the record in the file.
+ * @param bytes  The bytes of the record.
+ */
+public record BinaryRecord(int number, byte[] bytes) {
+}
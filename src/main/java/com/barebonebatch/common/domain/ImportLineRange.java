@@ -0,0 +1,10 @@
+package com.barebonebatch.common.domain;
+
+import lombok.Data;
+
+@Data
+public class ImportLineRange {
+    private Integer minImlNumb;
+    private Integer maxImlNumb;
+    private Long lineCount;
+}
@@ -12,5 +12,6 @@ public class Mapping {
     private Integer iden;
     private String id;
     private String mappingType;
+    private Integer version;
     private List<MappingFields> fields;
 }
@@ -12,5 +12,6 @@ public class Work {
     private String workClassName;
     private String description;
     private String isActive;
+    private String mappingId;
     private Integer iden;
 }
@@ -21,6 +21,8 @@ public class WorkStatus {
     private LocalDateTime wstBegiDate;
     private LocalDateTime wstEndxDate;
     private String wstErrorText;
+    private String wstNodeIden;
+    private LocalDateTime wstLeasDate;
     private List<ImportLine> importLines;
     private Integer countLinesErrors;
 
@@ -0,0 +1,7 @@
+package com.barebonebatch.common.exception;
+
+public class RejectionLimitExceededException extends RuntimeException {
+    public RejectionLimitExceededException(String message) {
+        super(message);
+    }
+}
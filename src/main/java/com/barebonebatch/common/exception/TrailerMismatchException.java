@@ -0,0 +1,7 @@
+package com.barebonebatch.common.exception;
+
+public class TrailerMismatchException extends RuntimeException {
+    public TrailerMismatchException(String message) {
+        super(message);
+    }
+}
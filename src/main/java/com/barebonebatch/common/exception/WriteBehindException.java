@@ -0,0 +1,7 @@
+package com.barebonebatch.common.exception;
+
+public class WriteBehindException extends RuntimeException {
+    public WriteBehindException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
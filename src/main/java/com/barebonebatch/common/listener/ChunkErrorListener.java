@@ -1,31 +1,31 @@
 package com.barebonebatch.common.listener;
 
+import com.barebonebatch.common.domain.BinaryRecord;
 import com.barebonebatch.common.domain.ImportLine;
-import lombok.Getter;
+import com.barebonebatch.common.service.SkippedItemStore;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.batch.core.ExitStatus;
-import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.SkipListener;
-import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A listener that captures items skipped during a chunk-oriented step.
- * It implements both {@link SkipListener} to catch skipped items and
- * {@link StepExecutionListener} to save the collected items into the
- * StepExecutionContext before the step completes.
+ * Skipped items are added to the {@link com.barebonebatch.common.service.SkippedItemSink} of the running job
+ * instance, which keeps memory bounded by spilling to disk, and are read back by
+ * {@link com.barebonebatch.common.reader.SkippedItemsReader} in a later step.
+ * <p>
+ * Lines read from a file have no IMPORT_LINE row to record their error in, so they are only logged, with their
+ * line number, as are the {@link BinaryRecord}s, with their record number.
  */
-@Getter
 @Component
 @Log4j2
-public class ChunkErrorListener implements SkipListener<ImportLine, Object> {
+public class ChunkErrorListener implements SkipListener<Object, Object> {
+
+    private final SkippedItemStore skippedItemStore;
 
-    private final List<ImportLine> skippedItems = new ArrayList<>();
+    public ChunkErrorListener(SkippedItemStore skippedItemStore) {
+        this.skippedItemStore = skippedItemStore;
+    }
 
     @Override
     public void onSkipInRead(Throwable t) {
@@ -33,18 +33,38 @@ public class ChunkErrorListener implements SkipListener<ImportLine, Object> {
     }
 
     @Override
-    public void onSkipInProcess(ImportLine item, Throwable t) {
-        log.warn("Skipping item {} during processing due to: {}", item.getImlIden(), t.getMessage());
-        item.setImlErroText(StringUtils.truncate(t.getMessage(), 1000));
-        skippedItems.add(item);
+    public void onSkipInProcess(Object item, Throwable t) {
+        if (item instanceof ImportLine line) {
+            log.warn("Skipping line {} ({}) during processing due to: {}", line.getImlNumb(), line.getImlIden(), t.getMessage());
+            line.setImlErroText(StringUtils.truncate(t.getMessage(), 1000));
+            if (line.getImlIden() != null) {
+                skippedItemStore.currentSink().add(line);
+            }
+        } else if (item instanceof BinaryRecord record) {
+            log.warn("Skipping record {} during processing due to: {}", record.number(), t.getMessage());
+        }
     }
 
     @Override
     public void onSkipInWrite(Object item, Throwable t) {
-        if (item instanceof ImportLine) {
-            log.warn("Skipping item {} during write due to: {}", ((ImportLine) item).getImlIden(), t.getMessage());
-            ((ImportLine) item).setImlErroText(StringUtils.truncate(t.getMessage(), 1000));
-            skippedItems.add((ImportLine) item);
+        if (item instanceof ImportLine line) {
+            log.warn("Skipping line {} ({}) during write due to: {}", line.getImlNumb(), line.getImlIden(), t.getMessage());
+            line.setImlErroText(StringUtils.truncate(t.getMessage(), 1000));
+            if (line.getImlIden() != null) {
+                skippedItemStore.currentSink().add(line);
+            }
+        }
+    }
+
+    /**
+     * Records a line whose output failed to be written outside the step thread, e.g. by a
+     * {@link com.barebonebatch.common.writer.WriteBehindPipeline}, where the running step is not known.
+     */
+    public void onSkipInWrite(Long jobInstanceId, ImportLine item, Throwable t) {
+        log.warn("Skipping line {} ({}) during write-behind due to: {}", item.getImlNumb(), item.getImlIden(), t.getMessage());
+        item.setImlErroText(StringUtils.truncate(t.getMessage(), 1000));
+        if (item.getImlIden() != null) {
+            skippedItemStore.sinkFor(jobInstanceId).add(item);
         }
     }
 
@@ -0,0 +1,94 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterChunk;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the serialized size of the execution contexts of a step, as written to
+ * {@code BATCH_STEP_EXECUTION_CONTEXT} after every chunk and to {@code BATCH_JOB_EXECUTION_CONTEXT} when the step
+ * ends, so a context growing with the data processed shows up before it slows down every commit.
+ * <p>
+ * Measuring a context serializes it once more, so the step context is only measured when the step ends, and
+ * every {@code batch.metrics.context-size-interval} committed chunks if that is set above 0.
+ * <p>
+ * The contexts are serialized with the {@link ExecutionContextSerializer} of the job repository into a counting
+ * stream, so nothing is buffered. Its callbacks are annotated rather than implemented, so it is registered with a
+ * single {@code .listener(executionContextSizeListener)} call.
+ */
+@Component
+@Log4j2
+public class ExecutionContextSizeListener {
+
+    private final BaseBatchMetricsService metricsService;
+    private final ExecutionContextSerializer serializer;
+    private final int chunkInterval;
+
+    public ExecutionContextSizeListener(BaseBatchMetricsService metricsService,
+                                        ObjectProvider<ExecutionContextSerializer> serializer,
+                                        @Value("${batch.metrics.context-size-interval:0}") int chunkInterval) {
+        this.metricsService = metricsService;
+        this.serializer = serializer.getIfAvailable(DefaultExecutionContextSerializer::new);
+        this.chunkInterval = chunkInterval;
+    }
+
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        if (chunkInterval > 0 && stepExecution.getCommitCount() % chunkInterval == 0) {
+            metricsService.recordExecutionContextSize(stepExecution.getStepName(), "step",
+                    serializedSize(stepExecution.getExecutionContext()));
+        }
+    }
+
+    @AfterStep
+    public void afterStep(StepExecution stepExecution) {
+        long stepSize = serializedSize(stepExecution.getExecutionContext());
+        metricsService.recordExecutionContextSize(stepExecution.getStepName(), "step", stepSize);
+        long jobSize = serializedSize(stepExecution.getJobExecution().getExecutionContext());
+        metricsService.recordExecutionContextSize(stepExecution.getStepName(), "job", jobSize);
+        log.info("Step {} ended with a step execution context of {} bytes and a job execution context of {} bytes",
+                stepExecution.getStepName(), stepSize, jobSize);
+    }
+
+    /**
+     * @return The number of bytes the context serializes to, or -1 if it cannot be serialized.
+     */
+    long serializedSize(ExecutionContext executionContext) {
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            serializer.serialize(executionContext.toMap(), out);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not measure the execution context: {}", e.getMessage());
+            return -1;
+        }
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
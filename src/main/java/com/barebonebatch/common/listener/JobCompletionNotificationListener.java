@@ -2,8 +2,11 @@ package com.barebonebatch.common.listener;
 
 import com.barebonebatch.common.dao.JobDao;
 import com.barebonebatch.common.domain.WorkStatus;
+import com.barebonebatch.common.service.SharedScanService;
+import com.barebonebatch.common.service.SkippedItemStore;
 import com.barebonebatch.common.util.Constants;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionListener;
 import org.springframework.stereotype.Component;
@@ -15,34 +18,61 @@ import java.util.Optional;
  * A listener that handles actions before and after a job execution.
  * It is responsible for updating the overall status of the {@link WorkStatus} entity in the database.
  * This provides the final, summary outcome of the entire job.
+ * <p>
+ * The jobs reading from a shared scan, launched with the {@link SharedScanService#CONSUMER} job parameter, run
+ * together for the same WORK_STATUS, so they leave it alone: the scheduler records their combined outcome once
+ * they have all ended.
  */
 @Component
 @Log4j2
 public class JobCompletionNotificationListener implements JobExecutionListener {
 
+    /**
+     * The outcome of a job execution for its WORK_STATUS.
+     *
+     * @param status  The WORK_STATUS status code.
+     * @param message The error text, empty when the job succeeded without skips.
+     */
+    public record Outcome(Integer status, String message) {
+    }
+
     private final JobDao jobDao;
+    private final SkippedItemStore skippedItemStore;
 
-    public JobCompletionNotificationListener(JobDao jobDao) {
+    public JobCompletionNotificationListener(JobDao jobDao, SkippedItemStore skippedItemStore) {
         this.jobDao = jobDao;
+        this.skippedItemStore = skippedItemStore;
     }
 
     /**
      * Executes before the job starts.
      * This implementation logs the job's start and updates the corresponding {@link WorkStatus}
      * record to the 'PROCESSING' state.
+     * <p>
+     * The record is only updated while it is owned by the node of the {@code nodeIden} job parameter, which the
+     * scheduler sets. If another node reclaimed it after this node's lease expired, the job fails before
+     * processing anything.
      *
      * @param jobExecution The context of the current job execution.
+     * @throws IllegalStateException if the lease of the record was lost.
      */
     @Override
     public void beforeJob(JobExecution jobExecution) {
         Long wstIden = jobExecution.getJobParameters().getLong(Constants.WST_IDEN);
         log.info("Job started: {} with id: {}", jobExecution.getJobInstance().getJobName(), wstIden);
+        if (isSharedScanConsumer(jobExecution)) {
+            return;
+        }
         Optional<WorkStatus> optionalWorkStatus = jobDao.getWorkStatusByWstIden(wstIden);
         if (optionalWorkStatus.isPresent()) {
             WorkStatus workStatus = optionalWorkStatus.get();
             workStatus.setWstBegiDate(jobExecution.getStartTime());
             workStatus.setWstStatCode(Constants.PROCESSING);
-            jobDao.updateWorkStatus(workStatus);
+            workStatus.setWstNodeIden(jobExecution.getJobParameters().getString(Constants.NODE_IDEN));
+            if (jobDao.updateWorkStatus(workStatus) == 0) {
+                throw new IllegalStateException("WORK_STATUS " + wstIden + " is no longer owned by node "
+                        + workStatus.getWstNodeIden() + ": its lease was lost.");
+            }
         }
     }
 
@@ -52,41 +82,69 @@ public class JobCompletionNotificationListener implements JobExecutionListener {
      * This method is responsible for setting the final status on the {@link WorkStatus} record.
      * It determines the outcome based on the job's exit status and whether any items were skipped.
      * <ul>
-     *     <li><b>COMPLETED:</b> The job finished successfully. If skips occurred in any step, the status is set to 'SUCCESS_WITH_ERRORS'.</li>
+     *     <li><b>COMPLETED:</b> The job finished successfully. If skips occurred in any step, or lines were rejected by a
+     *     validating processor (see {@link RejectedLineListener}), the status is set to 'SUCCESS_WITH_ERRORS'.</li>
      *     <li><b>FAILED:</b> The job failed. The status is set to 'ERROR', and the exception message is recorded.</li>
      * </ul>
      * Note: The detailed error messages for each skipped line are persisted by the 'logSkippedItemsStep', not by this listener.
+     * As in {@link #beforeJob(JobExecution)}, a record whose lease was lost is left to the node that reclaimed it.
+     * The skipped items collected for this job instance are discarded here once it completed, and kept for its
+     * restart otherwise.
      *
      * @param jobExecution The context of the completed job execution.
      */
     @Override
     public void afterJob(JobExecution jobExecution) {
+        skippedItemStore.release(jobExecution.getJobId(), jobExecution.getStatus() == BatchStatus.COMPLETED);
         Long wstIden = jobExecution.getJobParameters().getLong(Constants.WST_IDEN);
         log.info("Job finished with status: {} with id: {} and status: {}", jobExecution.getJobInstance().getJobName(), wstIden, jobExecution.getStatus().name());
+        if (isSharedScanConsumer(jobExecution)) {
+            return;
+        }
         Optional<WorkStatus> optionalWorkStatus = jobDao.getWorkStatusByWstIden(wstIden);
         if (optionalWorkStatus.isPresent()) {
             WorkStatus workStatus = optionalWorkStatus.get();
             workStatus.setWstEndxDate(LocalDateTime.now());
+            Outcome outcome = outcomeOf(jobExecution);
+            workStatus.setWstStatCode(outcome.status());
+            workStatus.setWstErrorText(outcome.message());
+            workStatus.setWstNodeIden(jobExecution.getJobParameters().getString(Constants.NODE_IDEN));
+            if (jobDao.updateWorkStatus(workStatus) == 0) {
+                log.warn("WORK_STATUS {} is no longer owned by node {}: its lease was lost, the outcome of job {} is not recorded",
+                        wstIden, workStatus.getWstNodeIden(), jobExecution.getJobInstance().getJobName());
+            }
+        }
+    }
+
+    private static boolean isSharedScanConsumer(JobExecution jobExecution) {
+        return jobExecution.getJobParameters().getString(SharedScanService.CONSUMER) != null;
+    }
 
-            String exitMessage = "";
-            Integer status = Constants.SUCCESS;
-            if (!jobExecution.getExitStatus().getExitCode().equals("COMPLETED")) {
-                status = Constants.ERROR;
-                if (!jobExecution.getFailureExceptions().isEmpty()) {
-                    exitMessage = "Job failed with exception: " + jobExecution.getFailureExceptions().get(0).getMessage();
-                } else {
-                    exitMessage = "Job finished with status: " + jobExecution.getExitStatus().getExitCode();
-                }
+    /**
+     * Determines the WORK_STATUS outcome of a job execution, as described in {@link #afterJob(JobExecution)}.
+     */
+    public static Outcome outcomeOf(JobExecution jobExecution) {
+        String exitMessage = "";
+        Integer status = Constants.SUCCESS;
+        if (!jobExecution.getExitStatus().getExitCode().equals("COMPLETED")) {
+            status = Constants.ERROR;
+            if (!jobExecution.getFailureExceptions().isEmpty()) {
+                exitMessage = "Job failed with exception: " + jobExecution.getFailureExceptions().get(0).getMessage();
             } else {
-                // Check if any step in the job had skipped items.
-                if (jobExecution.getStepExecutions().stream().anyMatch(step -> step.getSkipCount() > 0)) {
-                    status = Constants.SUCCESS_WITH_ERRORS;
-                    exitMessage = "Job completed with one or more skipped items.";
-                }
+                exitMessage = "Job finished with status: " + jobExecution.getExitStatus().getExitCode();
+            }
+        } else {
+            // Check if any step in the job had skipped items or rejected lines.
+            if (jobExecution.getStepExecutions().stream().anyMatch(step -> step.getSkipCount() > 0)) {
+                status = Constants.SUCCESS_WITH_ERRORS;
+                exitMessage = "Job completed with one or more skipped items.";
+            }
+            long rejected = jobExecution.getStepExecutions().stream().mapToLong(RejectedLineListener::rejectedCount).sum();
+            if (rejected > 0) {
+                status = Constants.SUCCESS_WITH_ERRORS;
+                exitMessage = (exitMessage.isEmpty() ? "Job completed with " : exitMessage + " ") + rejected + " rejected lines.";
             }
-            workStatus.setWstStatCode(status);
-            workStatus.setWstErrorText(exitMessage);
-            jobDao.updateWorkStatus(workStatus);
         }
+        return new Outcome(status, exitMessage);
     }
 }
@@ -0,0 +1,77 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Records the read throughput of a step, tagged with the configured {@code batch.reader.mode}, so the paging,
+ * keyset and cursor readers can be compared on the same file.
+ * <p>
+ * With {@code batch.reader.profile-heap}, off by default, it also records the heap high-water mark of the step.
+ * The heap peak is a JVM-wide figure, reset when the step starts and read when it ends, so it is only attributable
+ * to the step, and the reset of one step does not wipe the peak of another, when no other step runs at the same
+ * time: it is meant for profiling runs of a single job, not for production, where jobs run concurrently.
+ */
+@Component
+@Log4j2
+public class ReadThroughputListener implements StepExecutionListener {
+
+    private final BaseBatchMetricsService metricsService;
+
+    private final String readerMode;
+
+    private final boolean profileHeap;
+
+    public ReadThroughputListener(BaseBatchMetricsService metricsService, @Value("${batch.reader.mode:keyset}") String readerMode,
+                                  @Value("${batch.reader.profile-heap:false}") boolean profileHeap) {
+        this.metricsService = metricsService;
+        this.readerMode = readerMode;
+        this.profileHeap = profileHeap;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (!profileHeap) {
+            return;
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        LocalDateTime startTime = stepExecution.getStartTime();
+        long elapsedMillis = startTime == null ? 0 : Math.max(1, Duration.between(startTime, LocalDateTime.now()).toMillis());
+        double itemsPerSecond = elapsedMillis == 0 ? 0 : stepExecution.getReadCount() * 1000.0 / elapsedMillis;
+
+        metricsService.recordReadThroughput(stepExecution.getStepName(), readerMode, itemsPerSecond);
+        log.info("Step {} read {} items in {} ms ({} items/s) with reader mode '{}'",
+                stepExecution.getStepName(), stepExecution.getReadCount(), elapsedMillis, Math.round(itemsPerSecond), readerMode);
+
+        if (profileHeap) {
+            long heapPeak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPeak += pool.getPeakUsage().getUsed();
+                }
+            }
+            metricsService.recordReadHeapPeak(stepExecution.getStepName(), readerMode, heapPeak);
+            log.info("Step {} heap high-water mark {} MB", stepExecution.getStepName(), heapPeak / 1024 / 1024);
+        }
+        return stepExecution.getExitStatus();
+    }
+}
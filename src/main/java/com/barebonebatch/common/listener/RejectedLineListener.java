@@ -0,0 +1,122 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.exception.RejectionLimitExceededException;
+import com.barebonebatch.common.policy.PartitionedSkipLimitPolicy;
+import com.barebonebatch.common.service.SkippedItemStore;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterChunk;
+import org.springframework.batch.core.annotation.AfterChunkError;
+import org.springframework.batch.core.annotation.AfterProcess;
+import org.springframework.batch.core.annotation.BeforeChunk;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Captures the lines rejected by a validating {@link com.barebonebatch.common.processor.ImportLineProcessor}: lines
+ * filtered out with an error text. They are added to the same
+ * {@link com.barebonebatch.common.service.SkippedItemSink} as the skipped lines, so the error is recorded on the
+ * import line by the same later step, but they do not count against the skip limit. Lines read from a file have no
+ * import line to record their error in, so they are only logged.
+ * <p>
+ * The rejected lines of a step are counted in its execution context, so that the job completes with errors like a
+ * job with skips. A step fails once its rejected lines, summed over all its partitions, exceed
+ * {@code batch.processor.rejection-limit}, as the skip limit would fail it.
+ * <p>
+ * The count is updated as lines are rejected, before the chunk commits, so it is saved with the execution context
+ * of its chunk and a restarted step starts from it. A chunk that rolls back is processed again, so its lines are
+ * then taken off the count, and they are only logged and added to the sink once the chunk commits. The pending
+ * lines are kept per thread, so the worker steps of a partitioned step can share the listener. Its callbacks are annotated rather than implemented, so it is registered with a single
+ * {@code .listener(rejectedLineListener)} call.
+ */
+@Component
+@Log4j2
+public class RejectedLineListener {
+
+    /**
+     * The execution context key of the number of lines rejected by a step.
+     */
+    public static final String REJECTED_COUNT = "rejectedLines.count";
+
+    private final SkippedItemStore skippedItemStore;
+    private final long rejectionLimit;
+    private final ThreadLocal<List<ImportLine>> pending = ThreadLocal.withInitial(ArrayList::new);
+    private final ThreadLocal<StepExecution> currentStep = new ThreadLocal<>();
+
+    public RejectedLineListener(SkippedItemStore skippedItemStore,
+                                @Value("${batch.processor.rejection-limit:1000}") long rejectionLimit) {
+        this.skippedItemStore = skippedItemStore;
+        this.rejectionLimit = rejectionLimit;
+    }
+
+    /**
+     * @return The number of lines rejected by a step, as counted in its execution context.
+     */
+    public static long rejectedCount(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getLong(REJECTED_COUNT, 0L);
+    }
+
+    @BeforeChunk
+    public void beforeChunk(ChunkContext context) {
+        pending.get().clear();
+        currentStep.set(context.getStepContext().getStepExecution());
+    }
+
+    @AfterProcess
+    public void afterProcess(ImportLine item, Object result) {
+        if (result == null && item.getImlErroText() != null) {
+            pending.get().add(item);
+            addRejected(currentStep.get(), 1);
+        }
+    }
+
+    /**
+     * Records the lines rejected in the committed chunk, already counted, and fails the step once the rejection
+     * limit is exceeded.
+     *
+     * @throws RejectionLimitExceededException if the step rejected more than {@code batch.processor.rejection-limit} lines.
+     */
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+        currentStep.remove();
+        List<ImportLine> lines = pending.get();
+        if (lines.isEmpty()) {
+            return;
+        }
+        for (ImportLine line : lines) {
+            log.warn("Rejecting line {} ({}) due to: {}", line.getImlNumb(), line.getImlIden(), line.getImlErroText());
+            if (line.getImlIden() != null) {
+                skippedItemStore.currentSink().add(line);
+            }
+        }
+        lines.clear();
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+
+        long rejected = PartitionedSkipLimitPolicy.partitionsOf(stepExecution).mapToLong(RejectedLineListener::rejectedCount).sum();
+        if (rejected > rejectionLimit) {
+            throw new RejectionLimitExceededException("Step " + stepExecution.getStepName() + " rejected " + rejected
+                    + " lines, more than the rejection limit of " + rejectionLimit + ".");
+        }
+    }
+
+    @AfterChunkError
+    public void afterChunkError(ChunkContext context) {
+        currentStep.remove();
+        List<ImportLine> lines = pending.get();
+        addRejected(context.getStepContext().getStepExecution(), -lines.size());
+        lines.clear();
+    }
+
+    private static void addRejected(StepExecution stepExecution, long count) {
+        if (count != 0) {
+            ExecutionContext executionContext = stepExecution.getExecutionContext();
+            executionContext.putLong(REJECTED_COUNT, rejectedCount(stepExecution) + count);
+        }
+    }
+}
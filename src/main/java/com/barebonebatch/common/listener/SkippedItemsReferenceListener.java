@@ -0,0 +1,43 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.service.SkippedItemSink;
+import com.barebonebatch.common.service.SkippedItemStore;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saves a reference to the skipped lines of the job instance in the job {@link ExecutionContext} when a step that
+ * skips lines ends: their number and the spill file of their {@link SkippedItemSink}, never the lines
+ * themselves, so the context written to {@code BATCH_JOB_EXECUTION_CONTEXT} stays a few bytes long however many
+ * lines are skipped. {@link com.barebonebatch.common.reader.SkippedItemsReader} checks its sink against it.
+ * <p>
+ * The worker steps of a partitioned step share the sink, so each of them saves the total of the job instance.
+ */
+@Component
+@Log4j2
+public class SkippedItemsReferenceListener implements StepExecutionListener {
+
+    public static final String COUNT = "skippedItems.count";
+    public static final String SPILL_FILE = "skippedItems.spillFile";
+
+    private final SkippedItemStore skippedItemStore;
+
+    public SkippedItemsReferenceListener(SkippedItemStore skippedItemStore) {
+        this.skippedItemStore = skippedItemStore;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        SkippedItemSink sink = skippedItemStore.sinkFor(stepExecution.getJobExecution().getJobId());
+        ExecutionContext jobContext = stepExecution.getJobExecution().getExecutionContext();
+        jobContext.putLong(COUNT, sink.size());
+        jobContext.putString(SPILL_FILE, sink.getSpillFile().toString());
+        log.debug("Step {} ended with {} skipped lines in job instance {}", stepExecution.getStepName(), sink.size(),
+                stepExecution.getJobExecution().getJobId());
+        return null;
+    }
+}
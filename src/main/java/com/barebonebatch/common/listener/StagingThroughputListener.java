@@ -0,0 +1,39 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Records the lines per second staged into IMPORT_LINE by a step. On a partitioned step, the write count is
+ * the sum over all partitions, so the figure is the throughput of the whole load.
+ */
+@Component
+@Log4j2
+public class StagingThroughputListener implements StepExecutionListener {
+
+    private final BaseBatchMetricsService metricsService;
+
+    public StagingThroughputListener(BaseBatchMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        LocalDateTime startTime = stepExecution.getStartTime();
+        long elapsedMillis = startTime == null ? 0 : Math.max(1, Duration.between(startTime, LocalDateTime.now()).toMillis());
+        long lines = stepExecution.getWriteCount();
+        double linesPerSecond = elapsedMillis == 0 ? 0 : lines * 1000.0 / elapsedMillis;
+
+        metricsService.recordStagingThroughput(stepExecution.getStepName(), lines, linesPerSecond);
+        log.info("Step {} staged {} lines in {} ms ({} lines/s)",
+                stepExecution.getStepName(), lines, elapsedMillis, Math.round(linesPerSecond));
+        return stepExecution.getExitStatus();
+    }
+}
@@ -0,0 +1,145 @@
+package com.barebonebatch.common.partition;
+
+import com.barebonebatch.common.reader.GzipImportLineReader;
+import com.barebonebatch.common.util.NewLineScanner;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a file into contiguous byte ranges of about the same size, one per partition, each starting at the
+ * beginning of a line.
+ * <p>
+ * Each partition gets its range in its step execution context under {@link #START_OFFSET} and {@link #END_OFFSET}
+ * (exclusive), and the number of its first line under {@link #FIRST_LINE_NUMBER}, so lines are numbered as in the
+ * whole file whichever partition reads them. To number them, the partitioner counts the line feeds of every
+ * range before the partitions start: a sequential scan of the memory-mapped file, much faster than the load
+ * itself, which also leaves the file in the page cache for the partitions.
+ * <p>
+ * Fewer partitions than the grid size are created when lines are longer than a range, and a single empty
+ * partition is created for an empty file, so the step still completes normally. A gzip-compressed file cannot be
+ * entered in the middle, so it gets a single partition covering the whole file ({@link #END_OFFSET} {@code -1}).
+ */
+@Log4j2
+public class FileRangePartitioner implements Partitioner {
+
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+    public static final String FIRST_LINE_NUMBER = "firstLineNumber";
+
+    private static final String PARTITION_PREFIX = "partition";
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Path file;
+
+    public FileRangePartitioner(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        try {
+            if (GzipImportLineReader.isGzip(file)) {
+                log.info("{} is gzip-compressed and can only be read from its start, creating a single partition", file);
+                return wholeFile();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return partition(channel, Math.max(1, gridSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot split " + file, e);
+        }
+    }
+
+    private Map<String, ExecutionContext> partition(FileChannel channel, int gridSize) throws IOException {
+        long size = channel.size();
+        long rangeSize = Math.max(1, (size + gridSize - 1) / gridSize);
+
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        while (starts.get(starts.size() - 1) + rangeSize < size) {
+            long next = lineStartAtOrAfter(channel, starts.get(starts.size() - 1) + rangeSize, size);
+            if (next >= size) {
+                break;
+            }
+            starts.add(next);
+        }
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        long firstLineNumber = 1;
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            long end = i + 1 < starts.size() ? starts.get(i + 1) : size;
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_OFFSET, start);
+            context.putLong(END_OFFSET, end);
+            context.putInt(FIRST_LINE_NUMBER, Math.toIntExact(firstLineNumber));
+            partitions.put(PARTITION_PREFIX + i, context);
+            firstLineNumber += countLines(channel, start, end, size);
+        }
+        log.info("Split {} ({} bytes, {} lines) into {} ranges of about {} bytes",
+                file, size, firstLineNumber - 1, partitions.size(), rangeSize);
+        return partitions;
+    }
+
+    private static Map<String, ExecutionContext> wholeFile() {
+        ExecutionContext context = new ExecutionContext();
+        context.putLong(START_OFFSET, 0L);
+        context.putLong(END_OFFSET, -1L);
+        context.putInt(FIRST_LINE_NUMBER, 1);
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        partitions.put(PARTITION_PREFIX + 0, context);
+        return partitions;
+    }
+
+    /**
+     * @return The offset of the first line starting at or after {@code offset}, or {@code size} if there is none.
+     */
+    private static long lineStartAtOrAfter(FileChannel channel, long offset, long size) throws IOException {
+        // A line starts at offset when the byte before it ends a line
+        for (long windowStart = offset - 1; windowStart < size; windowStart += WINDOW_SIZE) {
+            MappedByteBuffer window = map(channel, windowStart, size);
+            int index = NewLineScanner.indexOf(window, 0, window.limit());
+            if (index >= 0) {
+                return windowStart + index + 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return The number of lines in {@code [start, end)}, counting a last line without line feed at the end of
+     * the file.
+     */
+    private static long countLines(FileChannel channel, long start, long end, long size) throws IOException {
+        long lines = 0;
+        for (long windowStart = start; windowStart < end; windowStart += WINDOW_SIZE) {
+            MappedByteBuffer window = map(channel, windowStart, end);
+            lines += NewLineScanner.count(window, 0, window.limit());
+        }
+        if (end == size && end > start && map(channel, end - 1, end).get(0) != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long limit) throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, limit - start));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        return window;
+    }
+}
@@ -0,0 +1,68 @@
+package com.barebonebatch.common.partition;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLineRange;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits the import lines of one WORK_STATUS into contiguous, non-overlapping {@code IML_NUMB} ranges, one per
+ * partition.
+ * <p>
+ * Each partition gets its inclusive bounds in its step execution context under {@link #MIN_IML_NUMB} and
+ * {@link #MAX_IML_NUMB}. The split is done on {@code IML_NUMB} values rather than on row counts, because line
+ * numbers are dense within a file and a single {@code min/max} query is enough to find the bounds.
+ * <p>
+ * Fewer partitions than the grid size are created when there are fewer lines than partitions, and a single
+ * unbounded partition is created when the WORK_STATUS has no lines, so the step still completes normally.
+ */
+@Log4j2
+public class ImportLineRangePartitioner implements Partitioner {
+
+    public static final String MIN_IML_NUMB = "minImlNumb";
+    public static final String MAX_IML_NUMB = "maxImlNumb";
+
+    private static final String PARTITION_PREFIX = "partition";
+
+    private final JobDao jobDao;
+    private final Long wstIden;
+
+    public ImportLineRangePartitioner(JobDao jobDao, Long wstIden) {
+        this.jobDao = jobDao;
+        this.wstIden = wstIden;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        ImportLineRange range = jobDao.getImportLineRange(wstIden);
+        if (range == null || range.getMinImlNumb() == null) {
+            log.info("No import lines for WORK_STATUS {}, creating a single empty partition", wstIden);
+            partitions.put(PARTITION_PREFIX + 0, new ExecutionContext());
+            return partitions;
+        }
+
+        long min = range.getMinImlNumb();
+        long max = range.getMaxImlNumb();
+        long span = max - min + 1;
+        int partitionCount = (int) Math.max(1, Math.min(gridSize, span));
+        long rangeSize = (span + partitionCount - 1) / partitionCount;
+
+        long start = min;
+        for (int i = 0; start <= max; i++) {
+            long end = Math.min(start + rangeSize - 1, max);
+            ExecutionContext context = new ExecutionContext();
+            context.putInt(MIN_IML_NUMB, (int) start);
+            context.putInt(MAX_IML_NUMB, (int) end);
+            partitions.put(PARTITION_PREFIX + i, context);
+            start = end + 1;
+        }
+        log.info("Split {} import lines of WORK_STATUS {} into {} partitions of up to {} lines",
+                range.getLineCount(), wstIden, partitions.size(), rangeSize);
+        return partitions;
+    }
+}
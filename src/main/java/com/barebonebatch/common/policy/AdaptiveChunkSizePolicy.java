@@ -0,0 +1,87 @@
+package com.barebonebatch.common.policy;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
+
+/**
+ * A commit interval that adapts to the measured cost of each chunk.
+ * <p>
+ * Each chunk is timed from {@link #beforeChunk} to {@link #afterChunk}, which Spring Batch calls after the commit,
+ * so the time covers reading, processing, writing and committing. From the items read per second the policy
+ * computes the chunk size that would take {@code targetTransactionMillis} and moves halfway towards it, never
+ * more than doubling or halving at once and always within {@code [minSize, maxSize]}. Narrow records therefore
+ * get larger chunks, and a contended table gets smaller ones.
+ * <p>
+ * Each step execution needs its own instance, registered both as the step's completion policy and as a chunk
+ * listener. The current size is published as the {@code batch.chunk.size} gauge of the step.
+ */
+@Log4j2
+public class AdaptiveChunkSizePolicy extends SimpleCompletionPolicy implements ChunkListener {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetNanos;
+    private final boolean adaptive;
+    private final BaseBatchMetricsService metricsService;
+
+    private long chunkStart;
+    private long readCountAtStart;
+
+    public AdaptiveChunkSizePolicy(int initialSize, int minSize, int maxSize, long targetTransactionMillis,
+                                   boolean adaptive, BaseBatchMetricsService metricsService) {
+        super(initialSize);
+        if (minSize <= 0 || minSize > maxSize || initialSize < minSize || initialSize > maxSize) {
+            throw new IllegalArgumentException("Chunk sizes must satisfy 0 < min <= initial <= max, got "
+                    + minSize + " <= " + initialSize + " <= " + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = targetTransactionMillis * NANOS_PER_MILLI;
+        this.adaptive = adaptive;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart = System.nanoTime();
+        readCountAtStart = context.getStepContext().getStepExecution().getReadCount();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long items = stepExecution.getReadCount() - readCountAtStart;
+        long elapsed = System.nanoTime() - chunkStart;
+        if (adaptive && items > 0) {
+            int size = nextSize(getChunkSize(), items, elapsed);
+            if (size != getChunkSize()) {
+                log.debug("Step {}: {} items in {} ms, chunk size {} -> {}", stepExecution.getStepName(),
+                        items, elapsed / NANOS_PER_MILLI, getChunkSize(), size);
+                setChunkSize(size);
+            }
+        }
+        if (metricsService != null) {
+            metricsService.recordChunkSize(stepExecution.getStepName(), getChunkSize());
+        }
+    }
+
+    /**
+     * @param current The current chunk size.
+     * @param items   The items read by the last chunk.
+     * @param elapsed The duration of the last chunk, in nanoseconds.
+     * @return The chunk size for the next chunk.
+     */
+    int nextSize(int current, long items, long elapsed) {
+        double nanosPerItem = (double) Math.max(elapsed, 1) / items;
+        double ideal = targetNanos / nanosPerItem;
+        double next = current + (ideal - current) / 2;
+        next = Math.max(current / 2.0, Math.min(current * 2.0, next));
+        return (int) Math.max(minSize, Math.min(maxSize, Math.round(next)));
+    }
+}
@@ -0,0 +1,74 @@
+package com.barebonebatch.common.policy;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+import org.springframework.batch.core.step.skip.SkipPolicy;
+
+import java.util.stream.Stream;
+
+/**
+ * A skip policy whose limit applies to all the partitions of a partitioned step together, instead of to each of
+ * them as {@code skipLimit} does.
+ * <p>
+ * Any {@link Exception} is skippable. The skips of a worker step are added to the skips already made by the other
+ * partitions of the same step in the same job execution, which share its name up to the {@code :partition}
+ * suffix; the step fails once the total reaches {@code skipLimit}. The other partitions' counts are read from
+ * their step executions, which are updated as their chunks commit, so no state is kept between job executions.
+ * A restart runs in a new job execution, so, as with {@code skipLimit}, only the skips of the partitions that run
+ * again are counted.
+ */
+public class PartitionedSkipLimitPolicy implements SkipPolicy {
+
+    private final long skipLimit;
+
+    public PartitionedSkipLimitPolicy(long skipLimit) {
+        if (skipLimit < 0) {
+            throw new IllegalArgumentException("The skip limit must not be negative.");
+        }
+        this.skipLimit = skipLimit;
+    }
+
+    @Override
+    public boolean shouldSkip(Throwable t, long skipCount) throws SkipLimitExceededException {
+        if (!(t instanceof Exception)) {
+            return false;
+        }
+        if (skipCount + otherPartitionsSkipCount() < skipLimit) {
+            return true;
+        }
+        throw new SkipLimitExceededException(skipLimit, t);
+    }
+
+    /**
+     * @return The step executions of the partitions of the partitioned step of {@code current} in its job execution,
+     *         {@code current} included, or only {@code current} if it is not a partition.
+     */
+    public static Stream<StepExecution> partitionsOf(StepExecution current) {
+        if (!current.getStepName().contains(":")) {
+            return Stream.of(current);
+        }
+        String stepName = partitionedStepName(current.getStepName());
+        return current.getJobExecution().getStepExecutions().stream()
+                .filter(execution -> execution.getStepName().contains(":")
+                        && partitionedStepName(execution.getStepName()).equals(stepName));
+    }
+
+    private static long otherPartitionsSkipCount() {
+        StepContext context = StepSynchronizationManager.getContext();
+        if (context == null) {
+            return 0;
+        }
+        StepExecution current = context.getStepExecution();
+        return partitionsOf(current)
+                .filter(execution -> execution != current)
+                .mapToLong(StepExecution::getSkipCount)
+                .sum();
+    }
+
+    private static String partitionedStepName(String stepName) {
+        int separator = stepName.indexOf(':');
+        return separator < 0 ? stepName : stepName.substring(0, separator);
+    }
+}
@@ -0,0 +1,193 @@
+package com.barebonebatch.common.processor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes fields straight from a byte range of a fixed-length binary record, as produced by mainframe feeds.
+ * <p>
+ * The byte counterpart of {@link FixedWidthDecoder}: packed (COMP-3) and zoned decimals are decoded nibble by
+ * nibble into a {@code long} and binary integers are assembled big-endian, so no {@link String} is created for
+ * numbers, except for the rare decimals of more than 18 digits. EBCDIC strings are decoded through a 256-entry
+ * table built once per code page by {@link #table(Charset)}.
+ * <p>
+ * Ranges are {@code [start, end)}. A range is blank when it only holds EBCDIC spaces ({@code 0x40}) or
+ * {@code 0x00}, the way unset fields of a mainframe record are filled.
+ */
+public final class ByteFieldDecoder {
+
+    private static final int EBCDIC_SPACE = 0x40;
+
+    /** Largest number of digits that always fits in a {@code long}. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private ByteFieldDecoder() {
+        // no comment
+    }
+
+    /**
+     * @return The character of each of the 256 byte values in the single-byte {@code charset}, unmappable bytes
+     * becoming {@code U+FFFD}.
+     */
+    public static char[] table(Charset charset) {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        char[] table = new char[256];
+        CharBuffer chars = CharBuffer.wrap(table);
+        decoder.decode(ByteBuffer.wrap(bytes), chars, true);
+        if (chars.position() != table.length) {
+            throw new IllegalArgumentException(charset + " is not a single-byte charset");
+        }
+        return table;
+    }
+
+    public static boolean isBlank(byte[] record, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (record[i] != EBCDIC_SPACE && record[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The content of the range decoded with {@code table}, trimmed like {@link String#trim()}.
+     */
+    public static String readString(byte[] record, int start, int end, char[] table) {
+        while (start < end && table[record[start] & 0xFF] <= ' ') {
+            start++;
+        }
+        while (end > start && table[record[end - 1] & 0xFF] <= ' ') {
+            end--;
+        }
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = table[record[start + i] & 0xFF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Reads a packed decimal (COMP-3): two digits per byte, the last nibble holding the sign ({@code 0xD} or
+     * {@code 0xB} for negative, {@code 0xA}, {@code 0xC}, {@code 0xE} or {@code 0xF} for positive).
+     *
+     * @param scale The number of implied decimal places.
+     * @return The decoded value, or {@code null} if the range is blank.
+     */
+    public static BigDecimal readPacked(byte[] record, int start, int end, int scale) {
+        if (isBlank(record, start, end)) {
+            return null;
+        }
+        int digits = 2 * (end - start) - 1;
+        if (digits > MAX_LONG_DIGITS) {
+            return readPackedSlowly(record, start, end, scale);
+        }
+        long unscaled = 0;
+        for (int i = start; i < end; i++) {
+            int high = (record[i] >> 4) & 0x0F;
+            unscaled = unscaled * 10 + digit(high, record, start, end);
+            if (i < end - 1) {
+                unscaled = unscaled * 10 + digit(record[i] & 0x0F, record, start, end);
+            }
+        }
+        return BigDecimal.valueOf(isNegative(record[end - 1] & 0x0F, record, start, end) ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Reads a zoned decimal: one EBCDIC digit ({@code 0xF0} to {@code 0xF9}) per byte, the zone of the last byte
+     * holding the sign as in {@link #readPacked}.
+     *
+     * @param scale The number of implied decimal places.
+     * @return The decoded value, or {@code null} if the range is blank.
+     */
+    public static BigDecimal readZoned(byte[] record, int start, int end, int scale) {
+        if (isBlank(record, start, end)) {
+            return null;
+        }
+        if (end - start > MAX_LONG_DIGITS) {
+            return readZonedSlowly(record, start, end, scale);
+        }
+        long unscaled = 0;
+        for (int i = start; i < end; i++) {
+            int zone = (record[i] >> 4) & 0x0F;
+            if (i < end - 1 && zone != 0x0F) {
+                throw unparseable(record, start, end);
+            }
+            unscaled = unscaled * 10 + digit(record[i] & 0x0F, record, start, end);
+        }
+        return BigDecimal.valueOf(isNegative((record[end - 1] >> 4) & 0x0F, record, start, end) ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Reads a big-endian two's complement integer (COMP / COMP-4) of 1 to 8 bytes.
+     */
+    public static long readBinary(byte[] record, int start, int end) {
+        if (end - start < 1 || end - start > Long.BYTES) {
+            throw new NumberFormatException("Binary integers are 1 to 8 bytes long, not " + (end - start));
+        }
+        // The first byte is sign-extended, the others are unsigned.
+        long value = record[start];
+        for (int i = start + 1; i < end; i++) {
+            value = (value << 8) | (record[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static BigDecimal readPackedSlowly(byte[] record, int start, int end, int scale) {
+        char[] digits = new char[2 * (end - start) - 1];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            digits[count++] = (char) ('0' + digit((record[i] >> 4) & 0x0F, record, start, end));
+            if (i < end - 1) {
+                digits[count++] = (char) ('0' + digit(record[i] & 0x0F, record, start, end));
+            }
+        }
+        BigInteger unscaled = new BigInteger(new String(digits));
+        return new BigDecimal(isNegative(record[end - 1] & 0x0F, record, start, end) ? unscaled.negate() : unscaled, scale);
+    }
+
+    private static BigDecimal readZonedSlowly(byte[] record, int start, int end, int scale) {
+        char[] digits = new char[end - start];
+        for (int i = start; i < end; i++) {
+            if (i < end - 1 && ((record[i] >> 4) & 0x0F) != 0x0F) {
+                throw unparseable(record, start, end);
+            }
+            digits[i - start] = (char) ('0' + digit(record[i] & 0x0F, record, start, end));
+        }
+        BigInteger unscaled = new BigInteger(new String(digits));
+        return new BigDecimal(isNegative((record[end - 1] >> 4) & 0x0F, record, start, end) ? unscaled.negate() : unscaled, scale);
+    }
+
+    private static int digit(int nibble, byte[] record, int start, int end) {
+        if (nibble > 9) {
+            throw unparseable(record, start, end);
+        }
+        return nibble;
+    }
+
+    private static boolean isNegative(int sign, byte[] record, int start, int end) {
+        return switch (sign) {
+            case 0x0B, 0x0D -> true;
+            case 0x0A, 0x0C, 0x0E, 0x0F -> false;
+            default -> throw unparseable(record, start, end);
+        };
+    }
+
+    private static NumberFormatException unparseable(byte[] record, int start, int end) {
+        StringBuilder hex = new StringBuilder(2 * (end - start));
+        for (int i = start; i < end; i++) {
+            hex.append(Character.forDigit((record[i] >> 4) & 0x0F, 16)).append(Character.forDigit(record[i] & 0x0F, 16));
+        }
+        return new NumberFormatException("Unparseable number: x'" + hex.toString().toUpperCase() + "'");
+    }
+}
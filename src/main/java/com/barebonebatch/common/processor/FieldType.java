@@ -0,0 +1,71 @@
+package com.barebonebatch.common.processor;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * The field types supported by a {@link com.barebonebatch.common.domain.MappingFields#getType() mapping field}.
+ * <p>
+ * Resolving the type string once, when a mapping is compiled, lets the per-line path switch on an enum
+ * instead of upper-casing and comparing strings for every field of every line.
+ * <p>
+ * The byte-level types ({@link #isByteLevel()}) are decoded by {@link ByteFieldDecoder} from binary records,
+ * such as EBCDIC mainframe feeds, and cannot be read from a text line. The {@code pattern} of a
+ * {@link #PACKED} or {@link #ZONED} field is its number of implied decimal places (none if blank).
+ */
+public enum FieldType {
+    STRING(String.class),
+    BIGDECIMAL(BigDecimal.class),
+    DATE(Date.class),
+    INT(int.class),
+    LONG(long.class),
+    DOUBLE(double.class),
+    PACKED(BigDecimal.class, true),
+    ZONED(BigDecimal.class, true),
+    EBCDIC_STRING(String.class, true),
+    BINARY_INT(long.class, true);
+
+    private final Class<?> javaType;
+    private final boolean byteLevel;
+
+    FieldType(Class<?> javaType) {
+        this(javaType, false);
+    }
+
+    FieldType(Class<?> javaType, boolean byteLevel) {
+        this.javaType = javaType;
+        this.byteLevel = byteLevel;
+    }
+
+    /**
+     * @return The parameter type expected by the setter of a property mapped with this type.
+     */
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+
+    /**
+     * @return Whether fields of this type are decoded from the bytes of a binary record.
+     */
+    public boolean isByteLevel() {
+        return byteLevel;
+    }
+
+    /**
+     * Resolves a type string from the mapping (case-insensitive) to a {@link FieldType}.
+     *
+     * @param type The type as a string (e.g., "STRING", "bigdecimal").
+     * @return The corresponding {@link FieldType}.
+     * @throws IllegalArgumentException if the type string is not supported.
+     */
+    public static FieldType of(String type) {
+        if (type != null) {
+            for (FieldType fieldType : values()) {
+                if (fieldType.name().equalsIgnoreCase(type)) {
+                    return fieldType;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported field type in mapping: " + type);
+    }
+}
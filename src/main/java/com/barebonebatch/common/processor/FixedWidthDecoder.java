@@ -0,0 +1,290 @@
+package com.barebonebatch.common.processor;
+
+import java.math.BigDecimal;
+
+/**
+ * Decodes fields straight from a character range of a fixed-width record.
+ * <p>
+ * Unlike {@link org.springframework.batch.item.file.transform.FixedLengthTokenizer}, which creates a
+ * {@link org.springframework.batch.item.file.transform.FieldSet}, a {@code String[]} and one substring per
+ * column before the values are parsed again, these methods trim by moving indexes and parse numbers
+ * digit by digit. A {@link String} is only created for string fields, and for the rare numbers that do not
+ * fit the fast paths (more than 18 digits, exponents).
+ * <p>
+ * Ranges are {@code [start, end)}. Whitespace is anything up to and including {@code ' '}, as in
+ * {@link String#trim()}. Numbers accept an optional sign and {@code ','} grouping separators, like the
+ * US-locale parsing of {@link org.springframework.batch.item.file.transform.DefaultFieldSet}, but trailing
+ * garbage is rejected instead of being silently ignored.
+ */
+public final class FixedWidthDecoder {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Largest number of digits that always fits in a {@code long}. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Largest integer a {@code double} represents exactly is 2^53; 15 digits always stay below it. */
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    private FixedWidthDecoder() {
+        // no comment
+    }
+
+    public static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    public static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    public static boolean isBlank(CharSequence text, int start, int end) {
+        return trimStart(text, start, end) == end;
+    }
+
+    /**
+     * @return The trimmed content of the range; the only method of this class that always allocates.
+     */
+    public static String readString(CharSequence text, int start, int end) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        return text.subSequence(from, to).toString();
+    }
+
+    public static int readInt(CharSequence text, int start, int end) {
+        long value = readLong(text, start, end);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw unparseable(text, start, end);
+        }
+        return (int) value;
+    }
+
+    public static long readLong(CharSequence text, int start, int end) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        if (from == to) {
+            throw unparseable(text, start, end);
+        }
+
+        boolean negative = false;
+        char first = text.charAt(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+        }
+
+        // Accumulate negatively so Long.MIN_VALUE can be represented.
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ',') {
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw unparseable(text, start, end);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw unparseable(text, start, end);
+            }
+            result -= digit;
+            digits++;
+        }
+        if (digits == 0) {
+            throw unparseable(text, start, end);
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * @return The decoded value, or {@code null} if the range is blank (as {@code FieldSet.readBigDecimal} does).
+     */
+    public static BigDecimal readBigDecimal(CharSequence text, int start, int end) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        if (from == to) {
+            return null;
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = false;
+        int i = from;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ',' && scale < 0) {
+                continue;
+            }
+            if (c == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9 || digits == MAX_LONG_DIGITS) {
+                return parseBigDecimalSlowly(text, start, end, from, to);
+            }
+            unscaled = unscaled * 10 + digit;
+            digits++;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw unparseable(text, start, end);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    public static double readDouble(CharSequence text, int start, int end) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        if (from == to) {
+            throw unparseable(text, start, end);
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        boolean negative = false;
+        int i = from;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == ',' && scale < 0) {
+                continue;
+            }
+            if (c == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9 || digits == MAX_EXACT_DOUBLE_DIGITS) {
+                return parseDoubleSlowly(text, start, end, from, to);
+            }
+            unscaled = unscaled * 10 + digit;
+            digits++;
+            if (scale >= 0) {
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            throw unparseable(text, start, end);
+        }
+        // Both operands are exact doubles, so the division is correctly rounded.
+        double value = scale > 0 ? unscaled / POWERS_OF_TEN[scale] : unscaled;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks the syntax {@link #readInt} and {@link #readLong} accept, without parsing: an optional sign, then
+     * digits and {@code ','} separators. Values out of range pass the check and fail when read.
+     */
+    public static boolean isInteger(CharSequence text, int start, int end) {
+        return isNumber(text, start, end, false);
+    }
+
+    /**
+     * Checks the syntax {@link #readBigDecimal} and {@link #readDouble} accept, without parsing: an optional sign,
+     * digits and {@code ','} separators, an optional fraction and an optional exponent.
+     */
+    public static boolean isDecimal(CharSequence text, int start, int end) {
+        return isNumber(text, start, end, true);
+    }
+
+    private static boolean isNumber(CharSequence text, int start, int end, boolean decimal) {
+        int from = trimStart(text, start, end);
+        int to = trimEnd(text, from, end);
+        int i = from;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == ',') {
+                continue;
+            } else if (c == '.' && decimal && !fraction) {
+                fraction = true;
+            } else if ((c == 'e' || c == 'E') && decimal && digits > 0) {
+                return isExponent(text, i + 1, to);
+            } else {
+                return false;
+            }
+        }
+        return digits > 0;
+    }
+
+    private static boolean isExponent(CharSequence text, int from, int to) {
+        int i = from;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BigDecimal parseBigDecimalSlowly(CharSequence text, int start, int end, int from, int to) {
+        try {
+            return new BigDecimal(withoutGrouping(text, from, to));
+        } catch (NumberFormatException e) {
+            throw unparseable(text, start, end);
+        }
+    }
+
+    private static double parseDoubleSlowly(CharSequence text, int start, int end, int from, int to) {
+        try {
+            return Double.parseDouble(withoutGrouping(text, from, to));
+        } catch (NumberFormatException e) {
+            throw unparseable(text, start, end);
+        }
+    }
+
+    private static String withoutGrouping(CharSequence text, int from, int to) {
+        StringBuilder builder = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c != ',') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static NumberFormatException unparseable(CharSequence text, int start, int end) {
+        return new NumberFormatException("Unparseable number: " + text.subSequence(start, end).toString().trim());
+    }
+}
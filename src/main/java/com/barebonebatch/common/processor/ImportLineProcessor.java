@@ -7,17 +7,28 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.file.transform.FieldSet;
 import org.springframework.batch.item.file.transform.FixedLengthTokenizer;
+import org.springframework.batch.item.file.transform.IncorrectLineLengthException;
 import org.springframework.batch.item.file.transform.Range;
 import org.springframework.beans.factory.InitializingBean;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ClassUtils;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A generic Spring Batch {@link ItemProcessor} that converts an {@link ImportLine}
@@ -28,6 +39,25 @@ import java.util.List;
  * <p>
  * For performance, it caches reflection metadata (like setter methods) during initialization
  * to avoid expensive reflection calls for each item processed.
+ * <p>
+ * By default the mapping is compiled into a plan when the processor is initialized: each field type is
+ * resolved to a {@link FieldType}, each setter is bound to a {@link BiConsumer} generated through
+ * {@link LambdaMetafactory} and the target constructor to a {@link Supplier}. The per-line path is then a
+ * plain loop over an array, with no reflection and no string switches, and fields are decoded straight from
+ * the line by {@link FixedWidthDecoder} instead of going through a {@link FixedLengthTokenizer}. The reflective path is kept behind
+ * {@link #setCompiledPlan(boolean)} so both can be compared on the same mapping.
+ * <p>
+ * A mapping made of byte-level field types ({@link FieldType#isByteLevel()}) maps binary records instead, through
+ * {@link #processRecord(byte[])}: packed, zoned and binary numbers are decoded from the bytes by
+ * {@link ByteFieldDecoder} and EBCDIC strings with the {@link #setEbcdicCharset(Charset) EBCDIC code page}, so
+ * the record is never converted to a {@link String} first. Such a mapping requires the compiled plan, and cannot
+ * be mixed with text field types.
+ * <p>
+ * In {@link #setValidating(boolean) validating} mode, the length of each line, its mandatory fields and the
+ * syntax of its numeric fields are checked before it is mapped. A line failing a check is not mapped: the
+ * failure is set as its {@code imlErroText} and the line is filtered out ({@code null} is returned) instead of
+ * an exception being thrown, so a fault-tolerant step does not roll its chunk back and process it again to skip
+ * the line. Failures the checks cannot foresee, such as an invalid date or a number out of range, still throw.
  *
  * @param <T> The target type to which the import line will be converted.
  */
@@ -37,15 +67,34 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
      * A private static inner class to hold cached reflection metadata.
      * This avoids expensive lookups during the process() method.
      */
-    private record CachedField(String propertyName, String fieldType, String pattern, Method setter, boolean mandatory, String transformer,
+    private record CachedField(String propertyName, String fieldType, String pattern, Method setter, boolean mandatory, SpelTransformer transformer,
                                boolean enable) {
     }
 
+    /**
+     * A compiled mapping field: the type is pre-resolved, the setter is bound and the column range
+     * {@code [start, end)} is fixed. Only enabled fields are compiled.
+     */
+    private record CompiledField(int start, int end, String propertyName, FieldType type,
+                                 ThreadLocal<SimpleDateFormat> dateFormat, int scale,
+                                 BiConsumer<Object, Object> setter, boolean mandatory, SpelTransformer transformer) {
+    }
+
     private FixedLengthTokenizer tokenizer;
     private final List<MappingFields> mappingFields;
     private final Class<T> targetType;
     private List<CachedField> cachedFields;
 
+    private boolean compiledPlan = true;
+    private boolean validating;
+    private Supplier<T> targetFactory;
+    private CompiledField[] compiledFields;
+    private int recordLength;
+    private Charset ebcdicCharset = Charset.forName("IBM037");
+    private char[] ebcdicTable;
+
+    private final ThreadLocal<StandardEvaluationContext> evaluationContext = ThreadLocal.withInitial(StandardEvaluationContext::new);
+
     /**
      * Constructs a new {@code ImportLineProcessor}.
      *
@@ -57,6 +106,44 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
         this.targetType = targetType;
     }
 
+    /**
+     * Selects between the compiled mapping plan (the default) and the reflective path.
+     * Must be called before {@link #afterPropertiesSet()}.
+     *
+     * @param compiledPlan {@code true} to use the compiled plan, {@code false} to use reflection.
+     */
+    public void setCompiledPlan(boolean compiledPlan) {
+        this.compiledPlan = compiledPlan;
+    }
+
+    /**
+     * Selects the validating mode, where invalid lines are filtered out with their error text instead of
+     * failing. Requires the compiled plan. Must be called before {@link #afterPropertiesSet()}.
+     *
+     * @param validating {@code true} to check lines before mapping them.
+     */
+    public void setValidating(boolean validating) {
+        this.validating = validating;
+    }
+
+    /**
+     * Sets the code page of the {@link FieldType#EBCDIC_STRING} fields, IBM037 (EBCDIC US/Canada) by default.
+     * Must be called before {@link #afterPropertiesSet()}.
+     *
+     * @param ebcdicCharset A single-byte charset.
+     */
+    public void setEbcdicCharset(Charset ebcdicCharset) {
+        this.ebcdicCharset = ebcdicCharset;
+    }
+
+    /**
+     * @return The length of the lines or records of the mapping: the end of its last field, enabled or not.
+     *         Known once {@link #afterPropertiesSet()} has compiled the mapping.
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
     /**
      * Processes an {@link ImportLine} by tokenizing its text content based on the provided mapping.
      * It converts each field to the specified type, applies any defined transformers, and populates
@@ -71,6 +158,16 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
         if (input == null || input.getImlText() == null) {
             return null;
         }
+        if (compiledPlan) {
+            if (validating) {
+                String error = validate(input.getImlText());
+                if (error != null) {
+                    input.setImlErroText(error);
+                    return null;
+                }
+            }
+            return processCompiled(input.getImlText());
+        }
 
         T targetInstance = targetType.getDeclaredConstructor().newInstance();
         FieldSet fieldSet = tokenizer.tokenize(input.getImlText());
@@ -94,7 +191,7 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
                 };
 
                 // Apply transformer if present
-                if (StringUtils.isNotBlank(field.transformer())) {
+                if (field.transformer() != null) {
                     value = applyTransformer(field.transformer(), value);
                 }
 
@@ -108,23 +205,168 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
     }
 
     /**
-     * Applies a transformation to the given value using a Spring SpEL expression.
+     * Maps a line through the compiled plan.
+     *
+     * @param line The fixed-length text to map.
+     * @return A new, populated instance of the target object.
+     */
+    private T processCompiled(String line) {
+        if (line.length() != recordLength) {
+            String message = line.length() < recordLength ? "Line is shorter than max range " : "Line is longer than max range ";
+            throw new IncorrectLineLengthException(message + recordLength, recordLength, line.length(), line);
+        }
+
+        T targetInstance = targetFactory.get();
+
+        // Fields are decoded straight from the line: no FieldSet, no String[] and no substring per numeric column.
+        for (CompiledField field : compiledFields) {
+            int start = field.start;
+            int end = field.end;
+            if (field.mandatory && FixedWidthDecoder.isBlank(line, start, end)) {
+                throw new IllegalArgumentException("Mandatory field '" + field.propertyName + "' (" + field.type + ") is blank.");
+            }
+
+            Object value = switch (field.type) {
+                case STRING -> FixedWidthDecoder.readString(line, start, end);
+                case BIGDECIMAL -> FixedWidthDecoder.readBigDecimal(line, start, end);
+                case DATE -> readDate(field, line);
+                case INT -> FixedWidthDecoder.readInt(line, start, end);
+                case LONG -> FixedWidthDecoder.readLong(line, start, end);
+                case DOUBLE -> FixedWidthDecoder.readDouble(line, start, end);
+                case PACKED, ZONED, EBCDIC_STRING, BINARY_INT -> throw new IllegalStateException(
+                        "Field '" + field.propertyName + "' (" + field.type + ") cannot be read from a text line, use processRecord.");
+            };
+
+            if (field.transformer != null) {
+                value = applyTransformer(field.transformer, value);
+            }
+
+            field.setter.accept(targetInstance, value);
+        }
+
+        return targetInstance;
+    }
+
+    /**
+     * Checks a line against the compiled plan without mapping it.
+     *
+     * @param line The fixed-length text to check.
+     * @return The reason the line cannot be mapped, or {@code null} if it passes the checks.
+     */
+    private String validate(String line) {
+        if (line.length() != recordLength) {
+            return (line.length() < recordLength ? "Line is shorter than max range " : "Line is longer than max range ") + recordLength;
+        }
+        for (CompiledField field : compiledFields) {
+            int start = field.start;
+            int end = field.end;
+            boolean blank = FixedWidthDecoder.isBlank(line, start, end);
+            if (field.mandatory && blank) {
+                return "Mandatory field '" + field.propertyName + "' (" + field.type + ") is blank.";
+            }
+            boolean valid = switch (field.type) {
+                case INT, LONG -> FixedWidthDecoder.isInteger(line, start, end);
+                case BIGDECIMAL -> blank || FixedWidthDecoder.isDecimal(line, start, end);
+                case DOUBLE -> FixedWidthDecoder.isDecimal(line, start, end);
+                default -> true;
+            };
+            if (!valid) {
+                return "Unparseable number in field '" + field.propertyName + "' (" + field.type + "): "
+                        + FixedWidthDecoder.readString(line, start, end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps a fixed-length binary record through the compiled plan of a mapping of byte-level field types.
+     *
+     * @param record The bytes of the record.
+     * @return A new, populated instance of the target object, or {@code null} if the record is null.
+     */
+    public T processRecord(byte[] record) {
+        if (record == null) {
+            return null;
+        }
+        if (record.length != recordLength) {
+            String message = record.length < recordLength ? "Record is shorter than max range " : "Record is longer than max range ";
+            throw new IncorrectLineLengthException(message + recordLength, recordLength, record.length);
+        }
+
+        T targetInstance = targetFactory.get();
+
+        for (CompiledField field : compiledFields) {
+            int start = field.start;
+            int end = field.end;
+            if (field.mandatory && field.type != FieldType.BINARY_INT && ByteFieldDecoder.isBlank(record, start, end)) {
+                throw new IllegalArgumentException("Mandatory field '" + field.propertyName + "' (" + field.type + ") is blank.");
+            }
+
+            Object value = switch (field.type) {
+                case PACKED -> ByteFieldDecoder.readPacked(record, start, end, field.scale);
+                case ZONED -> ByteFieldDecoder.readZoned(record, start, end, field.scale);
+                case EBCDIC_STRING -> ByteFieldDecoder.readString(record, start, end, ebcdicTable);
+                case BINARY_INT -> ByteFieldDecoder.readBinary(record, start, end);
+                case STRING, BIGDECIMAL, DATE, INT, LONG, DOUBLE -> throw new IllegalStateException(
+                        "Field '" + field.propertyName + "' (" + field.type + ") cannot be read from a binary record, use process.");
+            };
+
+            if (field.transformer != null) {
+                value = applyTransformer(field.transformer, value);
+            }
+
+            field.setter.accept(targetInstance, value);
+        }
+
+        return targetInstance;
+    }
+
+    private static Date readDate(CompiledField field, String line) {
+        String candidate = FixedWidthDecoder.readString(line, field.start, field.end);
+        try {
+            return field.dateFormat.get().parse(candidate);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e.getMessage() + ", format: [" + field.dateFormat.get().toPattern() + "]");
+        }
+    }
+
+    /**
+     * Applies a transformation to the given value using its pre-parsed Spring SpEL expression.
+     * The evaluation context is reused per thread.
      *
-     * @param transformer the SpEL expression representing the transformer class and method to invoke
+     * @param transformer the parsed SpEL expression representing the transformer class and method to invoke
      * @param value the value to be transformed and passed to the transformer
      * @return the transformed value as returned by the transformer
      */
-    private Object applyTransformer(String transformer, Object value) {
-        ExpressionParser parser = new SpelExpressionParser();
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        context.setVariable("value", value);
-        // Example transformer: "com.example.TransformerClass.transform(#value)"
-        return parser.parseExpression(transformer).getValue(context);
+    private Object applyTransformer(SpelTransformer transformer, Object value) {
+        // Example transformer: "T(com.example.TransformerClass).transform(#value)"
+        return transformer.apply(evaluationContext.get(), value);
+    }
+
+    /**
+     * @return The number of transformer expressions of this mapping that run compiled.
+     */
+    public int getCompiledTransformerCount() {
+        return (int) transformers().filter(SpelTransformer::isCompiled).count();
+    }
+
+    /**
+     * @return The number of transformer expressions of this mapping that run interpreted, either because they
+     * have not been evaluated yet or because they cannot be compiled.
+     */
+    public int getInterpretedTransformerCount() {
+        return (int) transformers().count() - getCompiledTransformerCount();
+    }
+
+    private Stream<SpelTransformer> transformers() {
+        List<CachedField> fields = cachedFields;
+        return fields == null ? Stream.empty() : fields.stream().map(CachedField::transformer).filter(Objects::nonNull);
     }
 
     /**
      * Configures the {@link FixedLengthTokenizer} with the field names and column ranges.
-     * This method also triggers the caching of reflection metadata for performance optimization.
+     * This method also triggers the caching of reflection metadata for performance optimization
+     * and parses every transformer expression once.
      * It is called by Spring after all bean properties have been set.
      *
      * @throws IllegalStateException if mappingFields are not provided.
@@ -149,29 +391,134 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
         tokenizer.setColumns(ranges);
 
         // --- OPTIMIZATION: Cache reflection metadata here ---
-        this.cachedFields = new ArrayList<>();
+        // Published once complete, so running this again never changes the fields the transformer gauges read
+        List<CachedField> fields = new ArrayList<>();
         for (MappingFields field : this.mappingFields) {
-            cacheField(field);
+            fields.add(cacheField(field));
+        }
+        this.cachedFields = List.copyOf(fields);
+
+        if (compiledPlan) {
+            compilePlan();
+        } else if (mappingFields.stream().anyMatch(field -> FieldType.of(field.getType()).isByteLevel())) {
+            throw new IllegalStateException("Byte-level field types require the compiled plan.");
+        } else if (validating) {
+            throw new IllegalStateException("The validating mode requires the compiled plan.");
         }
     }
 
     /**
-     * Helper method to convert a type string from the mapping to a {@link Class} object.
+     * Compiles the mapping into a plan: one {@link CompiledField} per enabled field and a
+     * constructor bound to a {@link Supplier}.
      *
-     * @param type The type as a string (e.g., "STRING", "BIGDECIMAL").
-     * @return The corresponding {@link Class} object.
-     * @throws IllegalArgumentException if the type string is not supported.
+     * @throws NoSuchMethodException if the target type has no public no-arg constructor or a setter is missing.
      */
-    private Class<?> getClassForType(String type) {
-        return switch (type.toUpperCase()) {
-            case "STRING" -> String.class;
-            case "BIGDECIMAL" -> BigDecimal.class;
-            case "DATE" -> Date.class;
-            case "INT" -> int.class;
-            case "LONG" -> long.class;
-            case "DOUBLE" -> double.class;
-            default -> throw new IllegalArgumentException("Unsupported class type in mapping: " + type);
-        };
+    private void compilePlan() throws NoSuchMethodException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.targetFactory = compileConstructor(lookup);
+
+        List<CompiledField> fields = new ArrayList<>();
+        int maxEnd = 0;
+        boolean byteLevel = false;
+        boolean textLevel = false;
+        for (int i = 0; i < cachedFields.size(); i++) {
+            CachedField field = cachedFields.get(i);
+            MappingFields mappingField = mappingFields.get(i);
+            int start = mappingField.getOffset();
+            int end = start + mappingField.getLength();
+            // Like the tokenizer, the expected record length covers disabled fields too.
+            maxEnd = Math.max(maxEnd, end);
+            if (field.enable) {
+                FieldType type = FieldType.of(field.fieldType);
+                byteLevel |= type.isByteLevel();
+                textLevel |= !type.isByteLevel();
+                fields.add(new CompiledField(start, end, field.propertyName, type, dateFormat(type, field.pattern),
+                        scale(type, field.pattern), compileSetter(lookup, field.setter), field.mandatory, field.transformer));
+            }
+        }
+        if (byteLevel && textLevel) {
+            throw new IllegalStateException("A mapping cannot mix byte-level and text field types.");
+        }
+        if (byteLevel) {
+            this.ebcdicTable = ByteFieldDecoder.table(ebcdicCharset);
+        }
+        this.compiledFields = fields.toArray(new CompiledField[0]);
+        this.recordLength = maxEnd;
+    }
+
+    private static ThreadLocal<SimpleDateFormat> dateFormat(FieldType type, String pattern) {
+        if (type != FieldType.DATE) {
+            return null;
+        }
+        return ThreadLocal.withInitial(() -> {
+            SimpleDateFormat format = new SimpleDateFormat(pattern);
+            format.setLenient(false);
+            return format;
+        });
+    }
+
+    private static int scale(FieldType type, String pattern) {
+        if ((type != FieldType.PACKED && type != FieldType.ZONED) || StringUtils.isBlank(pattern)) {
+            return 0;
+        }
+        return Integer.parseInt(pattern.trim());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<T> compileConstructor(MethodHandles.Lookup lookup) throws NoSuchMethodException {
+        MethodHandle constructor;
+        try {
+            constructor = lookup.unreflectConstructor(targetType.getConstructor());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Constructor of " + targetType.getName() + " is not accessible.", e);
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    constructor,
+                    MethodType.methodType(targetType));
+            return (Supplier<T>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // The target type is not visible from this class loader: fall back to the plain method handle.
+            MethodHandle generic = constructor.asType(MethodType.methodType(Object.class));
+            return () -> {
+                try {
+                    return (T) generic.invokeExact();
+                } catch (Throwable ex) {
+                    throw new IllegalStateException("Could not instantiate " + targetType.getName(), ex);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private BiConsumer<Object, Object> compileSetter(MethodHandles.Lookup lookup, Method setter) {
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(setter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Setter " + setter + " is not accessible.", e);
+        }
+        Class<?> paramType = ClassUtils.resolvePrimitiveIfNecessary(setter.getParameterTypes()[0]);
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(), paramType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // The target type is not visible from this class loader: fall back to the plain method handle.
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    generic.invokeExact(target, value);
+                } catch (Throwable ex) {
+                    throw new IllegalStateException("Could not invoke " + setter, ex);
+                }
+            };
+        }
     }
 
     /**
@@ -180,15 +527,21 @@ public class ImportLineProcessor<T> implements ItemProcessor<ImportLine, T>, Ini
      * along with other relevant details, for later use in the {@link #process} method.
      *
      * @param field The {@link MappingFields} to cache metadata for.
+     * @return The cached metadata of the field.
      * @throws NoSuchMethodException if the corresponding setter method is not found on the target class.
      */
-    private void cacheField(MappingFields field) throws NoSuchMethodException {
+    private CachedField cacheField(MappingFields field) throws NoSuchMethodException {
         String propertyName = field.getProperty();
         String fieldType = field.getType();
         String setterName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-        Class<?> paramType = getClassForType(fieldType);
+        Class<?> paramType = FieldType.of(fieldType).getJavaType();
         Method setter = targetType.getMethod(setterName, paramType);
 
-        this.cachedFields.add(new CachedField(propertyName, fieldType, field.getPattern(), setter, Constants.YES.equals(field.getMandatory()), field.getTransformer(), Constants.YES.equals(field.getEnable())));
+        SpelTransformer transformer = null;
+        if (StringUtils.isNotBlank(field.getTransformer())) {
+            transformer = new SpelTransformer(field.getTransformer(), targetType.getClassLoader());
+        }
+
+        return new CachedField(propertyName, fieldType, field.getPattern(), setter, Constants.YES.equals(field.getMandatory()), transformer, Constants.YES.equals(field.getEnable()));
     }
 }
@@ -0,0 +1,262 @@
+package com.barebonebatch.common.processor;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.exception.TrailerMismatchException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * An {@link ItemProcessor} mapping files that mix several record types, such as header, detail and trailer
+ * records, in a single pass.
+ * <p>
+ * Each record type is identified by a discriminator: a prefix of the line at {@code discriminatorOffset}. Each
+ * line is routed to the {@link ImportLineProcessor} of its type, which maps it with its own layout to its own
+ * target type, so the output items are of several types. The discriminators are compiled into a table indexed by
+ * the first character of the discriminator, holding the candidates longest first, so routing a line compares a
+ * few characters in place, without creating a substring. A line of an unknown type fails with an
+ * {@link IllegalArgumentException}, and can be skipped like any unmappable line.
+ * <p>
+ * With {@link #setTrailerCheck}, the detail records are counted, and optionally summed, as they are mapped; each
+ * trailer record is checked against these totals, which then start again for the next section of the file. A
+ * trailer disagreeing with the totals fails with a {@link TrailerMismatchException}, which the step should not
+ * skip, and the step exits with {@code FAILED} if detail records follow the last trailer. Totals only include
+ * committed chunks and are saved in the step execution context for restarts; they cover the lines of one step
+ * execution, so a file with a trailer must not be split into partitions.
+ * <p>
+ * Step-scoped: it is a {@link ItemStream}, {@link ChunkListener} and {@link StepExecutionListener} of its step,
+ * registered automatically as the processor of a chunk step.
+ */
+@Log4j2
+public class MultiRecordImportLineProcessor implements ItemProcessor<ImportLine, Object>, ItemStream, ChunkListener,
+        StepExecutionListener, InitializingBean {
+
+    private static final String DETAIL_COUNT = "multiRecord.detailCount";
+    private static final String DETAIL_SUM = "multiRecord.detailSum";
+    private static final String TRAILERS = "multiRecord.trailers";
+
+    private record RecordType(String discriminator, ImportLineProcessor<?> processor) {
+    }
+
+    private final int discriminatorOffset;
+    private final Map<String, ImportLineProcessor<?>> processors = new LinkedHashMap<>();
+    private RecordType[][] lookup;
+
+    private String detailType;
+    private String trailerType;
+    private Function<Object, BigDecimal> detailAmount;
+    private ToLongFunction<Object> expectedCount;
+    private Function<Object, BigDecimal> expectedSum;
+
+    private long pendingCount;
+    private BigDecimal pendingSum = BigDecimal.ZERO;
+    private long pendingTrailers;
+    private long detailCount;
+    private BigDecimal detailSum = BigDecimal.ZERO;
+    private long trailers;
+
+    /**
+     * @param discriminatorOffset The 0-based offset of the record type discriminator in each line.
+     */
+    public MultiRecordImportLineProcessor(int discriminatorOffset) {
+        this.discriminatorOffset = discriminatorOffset;
+    }
+
+    /**
+     * Adds a record type. Its processor is initialized by {@link #afterPropertiesSet()}.
+     *
+     * @param discriminator The prefix identifying the lines of this type at the discriminator offset.
+     * @param processor     The processor mapping the lines of this type.
+     */
+    public void addRecordType(String discriminator, ImportLineProcessor<?> processor) {
+        if (discriminator == null || discriminator.isEmpty()) {
+            throw new IllegalArgumentException("A record type discriminator cannot be empty.");
+        }
+        if (processors.putIfAbsent(discriminator, processor) != null) {
+            throw new IllegalArgumentException("Duplicate record type discriminator: " + discriminator);
+        }
+    }
+
+    /**
+     * Checks each trailer record against the detail records before it.
+     *
+     * @param detailType    The discriminator of the detail records.
+     * @param detailAmount  The amount of a mapped detail record, or {@code null} to only count them.
+     * @param trailerType   The discriminator of the trailer records.
+     * @param expectedCount The number of detail records declared by a mapped trailer record.
+     * @param expectedSum   The sum of the detail amounts declared by a mapped trailer record, or {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public <D, T> void setTrailerCheck(String detailType, Function<D, BigDecimal> detailAmount, String trailerType,
+                                       ToLongFunction<T> expectedCount, Function<T, BigDecimal> expectedSum) {
+        this.detailType = detailType;
+        this.detailAmount = (Function<Object, BigDecimal>) detailAmount;
+        this.trailerType = trailerType;
+        this.expectedCount = (ToLongFunction<Object>) expectedCount;
+        this.expectedSum = (Function<Object, BigDecimal>) expectedSum;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (processors.isEmpty()) {
+            throw new IllegalStateException("At least one record type is required.");
+        }
+        if (trailerType != null && (!processors.containsKey(detailType) || !processors.containsKey(trailerType))) {
+            throw new IllegalStateException("The trailer check refers to an unknown record type: " + detailType + ", " + trailerType);
+        }
+
+        List<List<RecordType>> buckets = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, ImportLineProcessor<?>> entry : processors.entrySet()) {
+            entry.getValue().afterPropertiesSet();
+            buckets.get(bucket(entry.getKey().charAt(0))).add(new RecordType(entry.getKey(), entry.getValue()));
+        }
+        lookup = new RecordType[256][];
+        for (int i = 0; i < lookup.length; i++) {
+            // Longest first, so a discriminator that is a prefix of another one only matches what the other does not.
+            lookup[i] = buckets.get(i).stream()
+                    .sorted(Comparator.comparingInt((RecordType type) -> type.discriminator.length()).reversed())
+                    .toArray(RecordType[]::new);
+        }
+    }
+
+    @Override
+    public Object process(ImportLine input) throws Exception {
+        if (input == null || input.getImlText() == null) {
+            return null;
+        }
+        String line = input.getImlText();
+        RecordType type = route(line);
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown record type at offset " + discriminatorOffset + " of line " + input.getImlNumb());
+        }
+
+        Object item = type.processor.process(input);
+        if (trailerType != null && item != null) {
+            if (type.discriminator.equals(detailType)) {
+                pendingCount++;
+                if (detailAmount != null) {
+                    BigDecimal amount = detailAmount.apply(item);
+                    pendingSum = amount == null ? pendingSum : pendingSum.add(amount);
+                }
+            } else if (type.discriminator.equals(trailerType)) {
+                checkTrailer(item, input.getImlNumb());
+            }
+        }
+        return item;
+    }
+
+    private RecordType route(String line) {
+        if (line.length() <= discriminatorOffset) {
+            return null;
+        }
+        for (RecordType candidate : lookup[bucket(line.charAt(discriminatorOffset))]) {
+            if (line.startsWith(candidate.discriminator, discriminatorOffset)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static int bucket(char c) {
+        return c & 0xFF;
+    }
+
+    private void checkTrailer(Object trailer, Integer lineNumber) {
+        long count = detailCount + pendingCount;
+        BigDecimal sum = detailSum.add(pendingSum);
+        long declaredCount = expectedCount.applyAsLong(trailer);
+        if (declaredCount != count) {
+            throw new TrailerMismatchException("Trailer at line " + lineNumber + " declares " + declaredCount
+                    + " detail records, " + count + " were read.");
+        }
+        if (detailAmount != null && expectedSum != null) {
+            BigDecimal declaredSum = expectedSum.apply(trailer);
+            if (declaredSum == null || declaredSum.compareTo(sum) != 0) {
+                throw new TrailerMismatchException("Trailer at line " + lineNumber + " declares a total of " + declaredSum
+                        + ", the detail records sum up to " + sum + ".");
+            }
+        }
+        // The next section of the file starts from zero.
+        pendingCount = -detailCount;
+        pendingSum = detailSum.negate();
+        pendingTrailers++;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        detailCount = executionContext.getLong(DETAIL_COUNT, 0L);
+        detailSum = executionContext.containsKey(DETAIL_SUM) ? new BigDecimal(executionContext.getString(DETAIL_SUM)) : BigDecimal.ZERO;
+        trailers = executionContext.getLong(TRAILERS, 0L);
+        resetPending();
+    }
+
+    /**
+     * Called before the chunk is committed: the totals saved include the chunk being committed.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (trailerType != null) {
+            executionContext.putLong(DETAIL_COUNT, detailCount + pendingCount);
+            executionContext.putString(DETAIL_SUM, detailSum.add(pendingSum).toPlainString());
+            executionContext.putLong(TRAILERS, trailers + pendingTrailers);
+        }
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        resetPending();
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        detailCount += pendingCount;
+        detailSum = detailSum.add(pendingSum);
+        trailers += pendingTrailers;
+        resetPending();
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        resetPending();
+    }
+
+    private void resetPending() {
+        pendingCount = 0;
+        pendingSum = BigDecimal.ZERO;
+        pendingTrailers = 0;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (trailerType == null || stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        if (detailCount > 0 || trailers == 0) {
+            log.error("{} detail records are not covered by a trailer record ({} trailers read)", detailCount, trailers);
+            return ExitStatus.FAILED.addExitDescription("Missing trailer record: " + detailCount + " detail records after the last trailer.");
+        }
+        log.info("{} trailer records matched their detail records", trailers);
+        return null;
+    }
+}
@@ -0,0 +1,108 @@
+package com.barebonebatch.common.processor;
+
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * A {@link com.barebonebatch.common.domain.MappingFields#getTransformer() transformer} expression that is
+ * parsed once and run through the SpEL compiler.
+ * <p>
+ * SpEL can only compile an expression after it has been evaluated at least once, because the compiler needs
+ * the runtime types. The first evaluations are therefore interpreted and compilation is attempted after each
+ * of them, up to {@link #MAX_COMPILE_ATTEMPTS} times. An expression that cannot be compiled, or whose
+ * compiled form fails at runtime, falls back for good to an interpreted copy parsed with the compiler off.
+ * <p>
+ * Instances are thread-safe; the evaluation context is supplied by the caller so it can be reused per thread.
+ * The value being transformed is exposed to the expression as {@code #value}, e.g.
+ * {@code T(com.example.TransformerClass).transform(#value)}.
+ */
+public final class SpelTransformer {
+
+    static final int MAX_COMPILE_ATTEMPTS = 3;
+
+    private static final String VALUE_VARIABLE = "value";
+
+    private final String expressionString;
+    private final SpelExpression compilable;
+    private volatile SpelExpression interpreted;
+    private volatile boolean compiled;
+    private int compileAttempts;
+
+    /**
+     * Parses the expression. Parse errors surface here, when the mapping is set up, rather than on the first line.
+     *
+     * @param expressionString The SpEL expression.
+     * @param classLoader      The class loader used by the SpEL compiler to load the classes it references.
+     */
+    public SpelTransformer(String expressionString, ClassLoader classLoader) {
+        this.expressionString = expressionString;
+        SpelExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, classLoader));
+        this.compilable = (SpelExpression) parser.parseExpression(expressionString);
+    }
+
+    /**
+     * Evaluates the expression against {@code value}.
+     *
+     * @param context A reusable evaluation context; its {@code #value} variable is overwritten.
+     * @param value   The value to transform.
+     * @return The transformed value.
+     */
+    public Object apply(StandardEvaluationContext context, Object value) {
+        context.setVariable(VALUE_VARIABLE, value);
+
+        SpelExpression fallback = this.interpreted;
+        if (fallback != null) {
+            return fallback.getValue(context);
+        }
+
+        Object result;
+        try {
+            result = compilable.getValue(context);
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw e;
+            }
+            return fallBackToInterpreted().getValue(context);
+        }
+
+        if (!compiled) {
+            tryCompile();
+        }
+        return result;
+    }
+
+    /**
+     * @return {@code true} if the expression runs compiled.
+     */
+    public boolean isCompiled() {
+        return compiled && interpreted == null;
+    }
+
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    private synchronized void tryCompile() {
+        if (compiled || interpreted != null) {
+            return;
+        }
+        if (compilable.compileExpression()) {
+            compiled = true;
+        } else if (++compileAttempts >= MAX_COMPILE_ATTEMPTS) {
+            fallBackToInterpreted();
+        }
+    }
+
+    private synchronized SpelExpression fallBackToInterpreted() {
+        if (interpreted == null) {
+            compilable.revertToInterpreted();
+            interpreted = (SpelExpression) new SpelExpressionParser().parseExpression(expressionString);
+        }
+        return interpreted;
+    }
+}
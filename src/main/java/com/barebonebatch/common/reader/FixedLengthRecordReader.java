@@ -0,0 +1,104 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.BinaryRecord;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file of fixed-length binary records, such as a mainframe extract of packed and zoned decimals, as
+ * {@link BinaryRecord}s, to be mapped by {@link com.barebonebatch.common.processor.ImportLineProcessor#processRecord(byte[])}.
+ * <p>
+ * Records have no separator: the file is cut every {@code recordLength} bytes, and a file whose size is not a
+ * multiple of it is rejected when opened. As every record has the same length, a restart seeks straight to the
+ * record after the last committed one.
+ */
+public class FixedLengthRecordReader extends AbstractItemCountingItemStreamItemReader<BinaryRecord> implements InitializingBean {
+
+    private Path file;
+    private int recordLength;
+    private int bufferSize = 1024 * 1024;
+
+    private FileChannel channel;
+    private InputStream input;
+
+    public FixedLengthRecordReader() {
+        setName("fixedLengthRecordReader");
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param recordLength The length of every record, in bytes.
+     */
+    public void setRecordLength(int recordLength) {
+        this.recordLength = recordLength;
+    }
+
+    /**
+     * @param bufferSize The bytes read from the file at once (1 MB by default).
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(file, "A file is required.");
+        Assert.isTrue(recordLength > 0, "The record length must be greater than zero.");
+        Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero.");
+    }
+
+    @Override
+    protected void doOpen() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size % recordLength != 0) {
+            throw new IllegalStateException("The size of " + file + " (" + size + " bytes) is not a multiple of the record length "
+                    + recordLength + ": the last record is incomplete");
+        }
+        input = new BufferedInputStream(Channels.newInputStream(channel), bufferSize);
+    }
+
+    @Override
+    protected BinaryRecord doRead() throws IOException {
+        byte[] bytes = input.readNBytes(recordLength);
+        if (bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < recordLength) {
+            // The file was truncated after it was opened
+            throw new IllegalStateException("Record " + getCurrentItemCount() + " of " + file + " is only " + bytes.length
+                    + " bytes long instead of " + recordLength);
+        }
+        return new BinaryRecord(getCurrentItemCount(), bytes);
+    }
+
+    /**
+     * Seeks to the record at {@code itemIndex}, dropping the bytes buffered from the start of the file.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) throws IOException {
+        channel.position((long) itemIndex * recordLength);
+        input = new BufferedInputStream(Channels.newInputStream(channel), bufferSize);
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        input = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
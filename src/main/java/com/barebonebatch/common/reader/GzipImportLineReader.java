@@ -0,0 +1,203 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.util.NewLineScanner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the lines of a gzip-compressed file as {@link ImportLine}s, decompressing it as a stream, never to disk.
+ * <p>
+ * The decompressed bytes are read into a buffer of {@code bufferSize} bytes, where line ends are found with the
+ * {@link NewLineScanner} and lines are decoded in place, as {@link MappedFileImportLineReader} does on a mapped
+ * file. Lines end with {@code \n} or {@code \r\n}; the last one may have no line end. Files made of several
+ * concatenated gzip members are read as one.
+ * <p>
+ * Each line becomes an {@link ImportLine} with its 1-based line number as {@code imlNumb}. A gzip stream cannot be
+ * entered in the middle, so on restart the file is decompressed again from the start, and the decompressed bytes
+ * before the saved offset of the next line are discarded without being split into lines.
+ */
+public class GzipImportLineReader extends AbstractItemCountingItemStreamItemReader<ImportLine> implements InitializingBean {
+
+    private static final String POSITION = "position";
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    private Path file;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int bufferSize = 1024 * 1024;
+    private Integer wstIden;
+
+    private InputStream input;
+    private byte[] buffer;
+    private ByteBuffer view;
+    private int start;
+    private int scanned;
+    private int end;
+    private boolean endOfInput;
+    private long position;
+
+    public GzipImportLineReader() {
+        setName("gzipImportLineReader");
+    }
+
+    /**
+     * @return Whether the file starts with the gzip magic number, whatever its name.
+     */
+    public static boolean isGzip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == GZIP_MAGIC_FIRST && in.read() == GZIP_MAGIC_SECOND;
+        }
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @param bufferSize The decompressed bytes buffered at once (1 MB by default); grown for longer lines.
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param wstIden The WORK_STATUS the lines read belong to, or {@code null} (default).
+     */
+    public void setWstIden(Integer wstIden) {
+        this.wstIden = wstIden;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(file, "A file is required.");
+        Assert.notNull(charset, "A charset is required.");
+        Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero.");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        position = executionContext.getLong(getExecutionContextKey(POSITION), 0L);
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(POSITION), position);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws IOException {
+        input = new GZIPInputStream(Files.newInputStream(file), INFLATER_BUFFER_SIZE);
+        buffer = new byte[bufferSize];
+        view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        start = 0;
+        scanned = 0;
+        end = 0;
+        endOfInput = false;
+        discard(position);
+    }
+
+    @Override
+    protected ImportLine doRead() throws IOException {
+        while (true) {
+            int lineEnd = NewLineScanner.indexOf(view, scanned, end);
+            if (lineEnd >= 0) {
+                return line(lineEnd, lineEnd + 1);
+            }
+            scanned = end;
+            if (endOfInput) {
+                return start < end ? line(end, end) : null;
+            }
+            fill();
+        }
+    }
+
+    /**
+     * The position is restored by discarding the decompressed bytes before the saved offset when the file is
+     * opened, so there is nothing to skip here.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // position already points to the line after the last committed one
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        buffer = null;
+        view = null;
+        if (input != null) {
+            input.close();
+            input = null;
+        }
+    }
+
+    private ImportLine line(int lineEnd, int next) {
+        int textEnd = lineEnd > start && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        ImportLine line = new ImportLine();
+        line.setWstIden(wstIden);
+        line.setImlNumb(getCurrentItemCount());
+        line.setImlText(new String(buffer, start, textEnd - start, charset));
+        position += next - start;
+        start = next;
+        scanned = next;
+        return line;
+    }
+
+    /**
+     * Moves the pending bytes to the front of the buffer, growing it if a line fills it, and reads more.
+     */
+    private void fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            scanned -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            byte[] larger = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, larger, 0, end);
+            buffer = larger;
+            view = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int read = input.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            end += read;
+        }
+    }
+
+    private void discard(long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            int read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new IllegalStateException("Cannot restart " + file + " at byte " + bytes
+                        + ": the decompressed file is only " + (bytes - remaining) + " bytes long");
+            }
+            remaining -= read;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@link ImportLine} rows of one WORK_STATUS in {@code IML_NUMB} order, one page at a time,
+ * seeking past the last line read instead of using LIMIT/OFFSET.
+ * <p>
+ * Offset paging makes the database scan and discard every earlier row for each page, which turns a large
+ * file into a quadratic read. Here each page is a range scan of the {@code (WST_IDEN, IML_NUMB)} index that
+ * starts right after the last {@code IML_NUMB} returned, so every page costs the same.
+ * <p>
+ * The last {@code IML_NUMB} returned is saved in the step {@link ExecutionContext} on every commit. A restarted
+ * step seeks directly to the line after the last committed one instead of re-reading the lines before it.
+ * Keyset paging relies on {@code IML_NUMB} being unique within a WORK_STATUS.
+ * <p>
+ * The read can be limited to an inclusive {@code IML_NUMB} range with {@link #setMinImlNumb(Integer)} and
+ * {@link #setMaxImlNumb(Integer)}, which is how each partition of a partitioned step reads its own slice.
+ */
+public class KeysetImportLineReader extends AbstractItemCountingItemStreamItemReader<ImportLine> implements InitializingBean {
+
+    private static final String LAST_IML_NUMB = "last.imlNumb";
+
+    private SqlSessionFactory sqlSessionFactory;
+    private SqlSessionTemplate sqlSessionTemplate;
+    private String queryId = "com.barebonebatch.common.dao.JobDao.getLinesByWstIdenAfter";
+    private Long wstIden;
+    private int pageSize = 100;
+    private Integer minImlNumb;
+    private Integer maxImlNumb;
+
+    private Integer lastImlNumb;
+    private List<ImportLine> page;
+    private int current;
+    private boolean lastPage;
+
+    public KeysetImportLineReader() {
+        setName("keysetImportLineReader");
+    }
+
+    public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
+
+    public void setWstIden(Long wstIden) {
+        this.wstIden = wstIden;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param minImlNumb The first {@code IML_NUMB} to read (inclusive), or {@code null} to start at the first line.
+     */
+    public void setMinImlNumb(Integer minImlNumb) {
+        this.minImlNumb = minImlNumb;
+    }
+
+    /**
+     * @param maxImlNumb The last {@code IML_NUMB} to read (inclusive), or {@code null} to read to the last line.
+     */
+    public void setMaxImlNumb(Integer maxImlNumb) {
+        this.maxImlNumb = maxImlNumb;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(sqlSessionFactory, "A SqlSessionFactory is required.");
+        Assert.notNull(wstIden, "A wstIden is required.");
+        Assert.isTrue(pageSize > 0, "The page size must be greater than zero.");
+        Assert.isTrue(minImlNumb == null || maxImlNumb == null || minImlNumb <= maxImlNumb,
+                "The minimum IML_NUMB must not be greater than the maximum.");
+        // Same executor type as MyBatisBatchItemWriter: pages are read inside the chunk transaction, and MyBatis
+        // does not allow two executor types in one transaction
+        sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = getExecutionContextKey(LAST_IML_NUMB);
+        if (executionContext.containsKey(key)) {
+            lastImlNumb = executionContext.getInt(key);
+        } else if (minImlNumb != null) {
+            lastImlNumb = minImlNumb - 1;
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState() && lastImlNumb != null) {
+            executionContext.putInt(getExecutionContextKey(LAST_IML_NUMB), lastImlNumb);
+        }
+    }
+
+    @Override
+    protected ImportLine doRead() {
+        if (page == null || current >= page.size()) {
+            if (lastPage) {
+                return null;
+            }
+            fetchNextPage();
+            if (page.isEmpty()) {
+                return null;
+            }
+        }
+        ImportLine line = page.get(current++);
+        lastImlNumb = line.getImlNumb();
+        return line;
+    }
+
+    private void fetchNextPage() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("wstIden", wstIden);
+        parameters.put("lastImlNumb", lastImlNumb);
+        parameters.put("maxImlNumb", maxImlNumb);
+        parameters.put("pageSize", pageSize);
+        page = sqlSessionTemplate.selectList(queryId, parameters);
+        current = 0;
+        lastPage = page.size() < pageSize;
+    }
+
+    /**
+     * The position is restored from the saved {@code IML_NUMB}, so there is nothing to skip on restart.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // lastImlNumb already points past the last committed line
+    }
+
+    @Override
+    protected void doOpen() {
+        page = null;
+        current = 0;
+        lastPage = false;
+    }
+
+    @Override
+    protected void doClose() {
+        page = null;
+        lastImlNumb = null;
+    }
+}
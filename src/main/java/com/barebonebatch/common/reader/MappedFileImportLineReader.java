@@ -0,0 +1,192 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.util.NewLineScanner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the lines of a file as {@link ImportLine}s, straight from a memory-mapped view of the file, so a file can
+ * be mapped by an {@link com.barebonebatch.common.processor.ImportLineProcessor} without being staged into
+ * IMPORT_LINE first.
+ * <p>
+ * The file is mapped in windows of {@code windowSize} bytes with {@link FileChannel#map}. Line ends are found by
+ * scanning the mapped bytes eight at a time, and each line is copied once from the mapping into the scratch
+ * array it is decoded from, instead of going through the {@code char[]} buffer and line builder of a
+ * {@code BufferedReader}. Lines end with {@code \n} or {@code \r\n}; the last one may have no line end.
+ * <p>
+ * Each line becomes an {@link ImportLine} with its 1-based line number as {@code imlNumb} and no {@code imlIden}.
+ * The read can be limited to a byte range of the file with {@link #setRange(long, long, int)}, which is how each
+ * partition of a staging load reads its own slice.
+ * The byte offset of the next line is saved in the step {@link ExecutionContext} on every commit, so a restarted
+ * step maps the file from there instead of reading the lines before it again.
+ */
+public class MappedFileImportLineReader extends AbstractItemCountingItemStreamItemReader<ImportLine> implements InitializingBean {
+
+    private static final String POSITION = "position";
+
+    private Path file;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int windowSize = 256 * 1024 * 1024;
+    private long startOffset;
+    private long endOffset = -1;
+    private int firstLineNumber = 1;
+    private Integer wstIden;
+
+    private FileChannel channel;
+    private long fileSize;
+    private long limit;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private byte[] scratch = new byte[1024];
+
+    public MappedFileImportLineReader() {
+        setName("mappedFileImportLineReader");
+    }
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @param windowSize The bytes mapped at once (256 MB by default). A line must fit in a window.
+     */
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Limits the read to the lines starting in {@code [startOffset, endOffset)}, which must both be line starts
+     * (or the end of the file), as for the ranges of a {@link com.barebonebatch.common.partition.FileRangePartitioner}.
+     *
+     * @param startOffset     The offset of the first line to read.
+     * @param endOffset       The offset after the last line to read, or {@code -1} for the end of the file.
+     * @param firstLineNumber The line number of the first line read.
+     */
+    public void setRange(long startOffset, long endOffset, int firstLineNumber) {
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.firstLineNumber = firstLineNumber;
+    }
+
+    /**
+     * @param wstIden The WORK_STATUS the lines read belong to, or {@code null} (default).
+     */
+    public void setWstIden(Integer wstIden) {
+        this.wstIden = wstIden;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(file, "A file is required.");
+        Assert.notNull(charset, "A charset is required.");
+        Assert.isTrue(windowSize > 0, "The window size must be greater than zero.");
+        Assert.isTrue(startOffset >= 0 && (endOffset < 0 || endOffset >= startOffset), "The range is invalid.");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        position = executionContext.getLong(getExecutionContextKey(POSITION), startOffset);
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(POSITION), position);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+        limit = endOffset < 0 ? fileSize : Math.min(endOffset, fileSize);
+        window = null;
+    }
+
+    @Override
+    protected ImportLine doRead() throws IOException {
+        if (position >= limit) {
+            return null;
+        }
+        if (window == null || position >= windowStart + window.limit()) {
+            map(position);
+        }
+
+        int start = (int) (position - windowStart);
+        int end = NewLineScanner.indexOf(window, start, window.limit());
+        if (end < 0 && windowStart + window.limit() < limit) {
+            // The line crosses the end of the window: map again from its first byte
+            map(position);
+            start = 0;
+            end = NewLineScanner.indexOf(window, start, window.limit());
+            if (end < 0 && window.limit() < limit - windowStart) {
+                throw new IllegalStateException("Line " + (firstLineNumber - 1 + getCurrentItemCount()) + " of " + file
+                        + " is longer than the window size of " + windowSize + " bytes");
+            }
+        }
+        int next = end < 0 ? window.limit() : end + 1;
+        if (end < 0) {
+            end = window.limit();
+        }
+        if (end > start && window.get(end - 1) == '\r') {
+            end--;
+        }
+
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(start, scratch, 0, length);
+        position = windowStart + next;
+
+        ImportLine line = new ImportLine();
+        line.setWstIden(wstIden);
+        line.setImlNumb(firstLineNumber - 1 + getCurrentItemCount());
+        line.setImlText(new String(scratch, 0, length, charset));
+        return line;
+    }
+
+    /**
+     * The position is restored from the saved byte offset, so there is nothing to skip on restart.
+     */
+    @Override
+    protected void jumpToItem(int itemIndex) {
+        // position already points to the line after the last committed one
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        window = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        long size = Math.min(windowSize, limit - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = start;
+    }
+}
@@ -0,0 +1,182 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStream;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the import lines of one WORK_STATUS once and hands every line to several consumers, each one the reader
+ * of a job running at the same time, so the lines are read from the database once instead of once per job.
+ * <p>
+ * {@link #run()} reads the source on the calling thread and puts a copy of every line in the bounded queue of
+ * each consumer, copies so that the error text a job sets on a line is not seen by the others. A full queue
+ * blocks the scan, so the scan goes at the pace of the slowest consumer and memory stays bounded by
+ * {@code queueCapacity} lines per consumer. A consumer is {@link #detach(String) detached} when its job ends,
+ * whether or not it read every line, so a failed job never blocks the others.
+ * <p>
+ * However the scan ends, even when its thread is interrupted while a queue is full, its outcome, the end of the
+ * lines or a failure, is published to every consumer once it stops handing lines, outside the queues, so a
+ * consumer never waits for a line that will not come.
+ * <p>
+ * The consumer readers do not save any state: a consumer job that fails is run again with a new scan.
+ */
+@Log4j2
+public class SharedImportLineScan {
+
+    private static final Object END = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private record Failure(Exception exception) {
+    }
+
+    private static final class Consumer {
+        private final BlockingQueue<Object> queue;
+        private volatile boolean detached;
+        /** {@link #END} or a {@link Failure}, set once the scan has handed its last line. */
+        private volatile Object terminal;
+
+        private Consumer(int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+    }
+
+    private final ItemReader<ImportLine> source;
+    private final Map<String, Consumer> consumers = new LinkedHashMap<>();
+
+    /**
+     * @param source        The reader of the lines, opened and closed by {@link #run()} if it is an {@link ItemStream}.
+     * @param consumerIds   The identifiers of the consumers.
+     * @param queueCapacity The number of lines a consumer can lag behind the scan.
+     */
+    public SharedImportLineScan(ItemReader<ImportLine> source, Collection<String> consumerIds, int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("The queue capacity must be greater than zero.");
+        }
+        this.source = source;
+        for (String consumerId : consumerIds) {
+            consumers.put(consumerId, new Consumer(queueCapacity));
+        }
+    }
+
+    public Collection<String> getConsumerIds() {
+        return consumers.keySet();
+    }
+
+    /**
+     * Reads every line of the source and hands it to the consumers still attached. If the source fails, or the
+     * scan is interrupted, the consumers fail once they have read the lines handed to them.
+     *
+     * @return The number of lines read.
+     */
+    public long run() {
+        long count = 0;
+        Object terminal = new Failure(new IllegalStateException("The shared scan stopped unexpectedly"));
+        try {
+            if (source instanceof ItemStream stream) {
+                stream.open(new ExecutionContext());
+            }
+            ImportLine line;
+            while ((line = source.read()) != null && hasAttachedConsumers()) {
+                for (Consumer consumer : consumers.values()) {
+                    hand(consumer, copy(line));
+                }
+                count++;
+            }
+            terminal = END;
+        } catch (Exception e) {
+            log.error("Shared scan failed after {} lines: {}", count, e.getMessage());
+            terminal = new Failure(e);
+        } finally {
+            for (Consumer consumer : consumers.values()) {
+                consumer.terminal = terminal;
+            }
+            if (source instanceof ItemStream stream) {
+                stream.close();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stops handing lines to a consumer, whose job has ended.
+     */
+    public void detach(String consumerId) {
+        Consumer consumer = consumer(consumerId);
+        consumer.detached = true;
+        consumer.queue.clear();
+    }
+
+    /**
+     * @return The reader of a consumer, returning the lines of the scan and then {@code null}.
+     */
+    public ItemStreamReader<ImportLine> readerFor(String consumerId) {
+        Consumer consumer = consumer(consumerId);
+        return new ItemStreamReader<>() {
+
+            @Override
+            public ImportLine read() throws Exception {
+                while (true) {
+                    // Read before polling: once the terminal is set, every line of the scan is already queued
+                    Object terminal = consumer.terminal;
+                    Object next = terminal != null
+                            ? consumer.queue.poll()
+                            : consumer.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        return (ImportLine) next;
+                    }
+                    if (terminal instanceof Failure failure) {
+                        throw new ItemStreamException("The shared scan failed", failure.exception);
+                    }
+                    if (terminal == END) {
+                        return null;
+                    }
+                }
+            }
+        };
+    }
+
+    private Consumer consumer(String consumerId) {
+        Consumer consumer = consumers.get(consumerId);
+        if (consumer == null) {
+            throw new IllegalArgumentException("Unknown shared scan consumer: " + consumerId);
+        }
+        return consumer;
+    }
+
+    private boolean hasAttachedConsumers() {
+        return consumers.values().stream().anyMatch(consumer -> !consumer.detached);
+    }
+
+    private static void hand(Consumer consumer, Object item) {
+        try {
+            while (!consumer.detached && !consumer.queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The consumer is behind: wait for it, unless its job ends meanwhile
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing a line to a shared scan consumer", e);
+        }
+    }
+
+    private static ImportLine copy(ImportLine line) {
+        ImportLine copy = new ImportLine();
+        copy.setImlIden(line.getImlIden());
+        copy.setWstIden(line.getWstIden());
+        copy.setImlNumb(line.getImlNumb());
+        copy.setImlText(line.getImlText());
+        copy.setImlErroText(line.getImlErroText());
+        return copy;
+    }
+}
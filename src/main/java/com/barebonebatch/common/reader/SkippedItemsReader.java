@@ -1,54 +1,86 @@
 package com.barebonebatch.common.reader;
 
 import com.barebonebatch.common.domain.ImportLine;
-import org.springframework.batch.core.StepExecution;
-import org.springframework.batch.core.annotation.BeforeStep;
+import com.barebonebatch.common.listener.SkippedItemsReferenceListener;
+import com.barebonebatch.common.service.SkippedItemSink;
+import com.barebonebatch.common.service.SkippedItemStore;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 
 /**
- * A step-scoped {@link ItemReader} that reads a list of {@link ImportLine} objects
- * from the JobExecutionContext. This is used in a second step to process items
- * that were skipped in a previous step.
+ * A step-scoped {@link ItemReader} that streams the {@link ImportLine} objects skipped earlier in the same job
+ * instance out of its {@link SkippedItemSink}. This is used in a second step to record the errors of the
+ * items that were skipped in a previous step.
+ * <p>
+ * Lines are read one at a time from the sink's spill file, so memory stays constant whatever the number of
+ * skipped lines. The number of lines read is saved on every commit, so a restarted step resumes after them.
+ * <p>
+ * The sink is found from the reference saved in the job execution context by
+ * {@link com.barebonebatch.common.listener.SkippedItemsReferenceListener}: the spill file of the sink, reopened when
+ * the job restarts in another JVM, and the number of skipped lines. If the sink holds fewer lines than that, as
+ * when the spill file was lost, the step fails rather than leave the errors of the missing lines unrecorded.
  */
 @Component
 @StepScope
-public class SkippedItemsReader implements ItemReader<ImportLine> {
+@Log4j2
+public class SkippedItemsReader extends AbstractItemCountingItemStreamItemReader<ImportLine> {
 
-    private ListItemReader<ImportLine> delegate;
+    private final SkippedItemStore skippedItemStore;
+    private final Long jobInstanceId;
+    private final Long expectedCount;
+    private final String spillFile;
+    private SkippedItemSink.Cursor cursor;
+
+    public SkippedItemsReader(SkippedItemStore skippedItemStore,
+                              @Value("#{stepExecution.jobExecution.jobId}") Long jobInstanceId,
+                              @Value("#{jobExecutionContext['" + SkippedItemsReferenceListener.COUNT + "']}") Long expectedCount,
+                              @Value("#{jobExecutionContext['" + SkippedItemsReferenceListener.SPILL_FILE + "']}") String spillFile) {
+        this.skippedItemStore = skippedItemStore;
+        this.jobInstanceId = jobInstanceId;
+        this.expectedCount = expectedCount;
+        this.spillFile = spillFile;
+        setName("skippedItemsReader");
+    }
 
     /**
-     * Before the step executes, this method retrieves the list of skipped items
-     * from the JobExecutionContext and initializes a {@link ListItemReader} delegate
-     * to read from that list.
+     * Opens a cursor on the sink of the job instance.
      *
-     * @param stepExecution The current step execution, used to access the JobExecutionContext.
+     * @throws IllegalStateException if the sink holds fewer lines than the job execution context recorded.
      */
-    @BeforeStep
-    public void beforeStep(StepExecution stepExecution) {
-        List<ImportLine> skippedItems = (List<ImportLine>) stepExecution.getJobExecution().getExecutionContext().get("skippedItems");
-        if (skippedItems == null) {
-            // If no items were skipped, initialize with an empty list.
-            skippedItems = new ArrayList<>();
+    @Override
+    protected void doOpen() {
+        SkippedItemSink sink = spillFile != null
+                ? skippedItemStore.sinkFor(jobInstanceId, Path.of(spillFile))
+                : skippedItemStore.sinkFor(jobInstanceId);
+        if (expectedCount != null && sink.size() < expectedCount) {
+            throw new IllegalStateException(expectedCount + " skipped lines were recorded for job instance " + jobInstanceId
+                    + ", only " + sink.size() + " are left in " + sink.getSpillFile());
         }
-        this.delegate = new ListItemReader<>(skippedItems);
+        log.debug("Reading {} skipped lines of job instance {} from {}", sink.size(), jobInstanceId, sink.getSpillFile());
+        cursor = sink.openCursor();
     }
 
     /**
-     * Delegates the read operation to the underlying {@link ListItemReader}.
+     * Delegates the read operation to the cursor of the sink.
      *
-     * @return The next {@link ImportLine} from the list, or null if the list is exhausted.
+     * @return The next skipped {@link ImportLine}, or null once all of them have been read.
      */
     @Override
-    public ImportLine read() {
-        if (delegate != null) {
-            return delegate.read();
+    protected ImportLine doRead() {
+        return cursor.next();
+    }
+
+    @Override
+    protected void doClose() {
+        if (cursor != null) {
+            cursor.close();
+            cursor = null;
         }
-        return null;
     }
 }
@@ -0,0 +1,125 @@
+package com.barebonebatch.common.scheduler;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.Work;
+import com.barebonebatch.common.exception.JobNotFoundException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.Job;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes the work of a file to the jobs that process it, without a bean factory call or a database query per
+ * request.
+ * <p>
+ * Once all singletons are created, every {@link Job} bean is indexed by its bean name and by the identifier its
+ * {@link JobIdentifier} declares for {@code batch.job.environment}: {@code uatIdf} for {@code uat},
+ * {@code prodIdf} for {@code prod} and {@code value} otherwise, a blank identifier being ignored. The index is
+ * immutable, and an identifier routing to two different jobs fails the startup.
+ * <p>
+ * The active WORK rows of a file are cached for {@code batch.scheduler.work-cache-ttl} milliseconds, so a change
+ * to the WORK table is seen within that delay. Expired rows are evicted every
+ * {@code batch.scheduler.work-cache-eviction-interval} milliseconds.
+ */
+@Component
+@Log4j2
+public class JobRouter implements SmartInitializingSingleton {
+
+    private record CachedWorks(List<Work> works, long loadedAt) {
+    }
+
+    private final ListableBeanFactory beanFactory;
+    private final JobDao jobDao;
+    private final String environment;
+    private final long workCacheTtlMillis;
+    private final Map<String, CachedWorks> workCache = new ConcurrentHashMap<>();
+    private volatile Map<String, Job> jobs = Map.of();
+
+    public JobRouter(ListableBeanFactory beanFactory, JobDao jobDao,
+                     @Value("${batch.job.environment:dev}") String environment,
+                     @Value("${batch.scheduler.work-cache-ttl:60000}") long workCacheTtlMillis) {
+        this.beanFactory = beanFactory;
+        this.jobDao = jobDao;
+        this.environment = environment;
+        this.workCacheTtlMillis = workCacheTtlMillis;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, Job> index = new HashMap<>();
+        beanFactory.getBeansOfType(Job.class).forEach((beanName, job) -> {
+            register(index, beanName, job);
+            JobIdentifier identifier = beanFactory.findAnnotationOnBean(beanName, JobIdentifier.class);
+            if (identifier != null && StringUtils.hasText(identifierFor(identifier))) {
+                register(index, identifierFor(identifier), job);
+            }
+        });
+        jobs = Map.copyOf(index);
+        log.info("Routing {} identifiers to {} jobs for environment '{}'", jobs.size(), index.values().stream().distinct().count(), environment);
+    }
+
+    private String identifierFor(JobIdentifier identifier) {
+        return switch (environment.toLowerCase()) {
+            case "uat" -> identifier.uatIdf();
+            case "prod" -> identifier.prodIdf();
+            default -> identifier.value();
+        };
+    }
+
+    private static void register(Map<String, Job> index, String identifier, Job job) {
+        Job previous = index.putIfAbsent(identifier, job);
+        if (previous != null && previous != job) {
+            throw new IllegalStateException("Job identifier '" + identifier + "' routes to both " + previous.getName() + " and " + job.getName() + ".");
+        }
+    }
+
+    /**
+     * @param identifier The bean name or the {@link JobIdentifier} of a job, as found in {@code WORK.WORKCLASSNAME}.
+     * @return The job.
+     * @throws JobNotFoundException if no job has this identifier.
+     */
+    public Job jobFor(String identifier) {
+        Job job = jobs.get(identifier);
+        if (job == null) {
+            throw new JobNotFoundException("Job setup for work class '" + identifier + "' does not exist in the project.");
+        }
+        return job;
+    }
+
+    /**
+     * @return The active WORK rows of a file, reloaded when older than the cache TTL.
+     */
+    public List<Work> worksFor(String fileIdentifier) {
+        long now = System.currentTimeMillis();
+        CachedWorks cached = workCache.get(fileIdentifier);
+        if (cached != null && now - cached.loadedAt < workCacheTtlMillis) {
+            return cached.works;
+        }
+        // Queried outside the map's locks, so a slow query never blocks the other files; concurrent misses of a
+        // file may both query it, the last one loaded wins
+        List<Work> works = jobDao.getWorkByFileIden(fileIdentifier);
+        CachedWorks loaded = new CachedWorks(works == null ? List.of() : List.copyOf(works), now);
+        workCache.put(fileIdentifier, loaded);
+        return loaded.works;
+    }
+
+    /**
+     * Discards the cached WORK rows older than the cache TTL, so files that are no longer requested do not stay in
+     * the cache.
+     */
+    @Scheduled(fixedDelayString = "${batch.scheduler.work-cache-eviction-interval:60000}")
+    public void evictExpiredWorks() {
+        long now = System.currentTimeMillis();
+        workCache.values().removeIf(cached -> now - cached.loadedAt >= workCacheTtlMillis);
+    }
+}
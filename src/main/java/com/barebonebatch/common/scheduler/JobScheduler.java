@@ -4,18 +4,26 @@ import com.barebonebatch.common.dao.JobDao;
 import com.barebonebatch.common.domain.Work;
 import com.barebonebatch.common.domain.WorkStatus;
 import com.barebonebatch.common.exception.InvalidWorkIdentifierException;
-import com.barebonebatch.common.exception.JobNotFoundException;
 import com.barebonebatch.common.exception.WorkNotFoundException;
+import com.barebonebatch.common.listener.JobCompletionNotificationListener;
+import com.barebonebatch.common.reader.SharedImportLineScan;
+import com.barebonebatch.common.service.InterruptedJobService;
+import com.barebonebatch.common.service.SharedScanService;
+import com.barebonebatch.common.service.WorkClaimService;
 import com.barebonebatch.common.util.Constants;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobExecutionException;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
-import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
@@ -23,11 +31,33 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Schedules and manages the execution of batch jobs.
  * This class scans for new job requests, validates them, and launches the corresponding Spring Batch jobs.
+ * <p>
+ * Each poll claims up to {@code batch.scheduler.claim-batch-size} pending WORK_STATUS rows and runs them on the
+ * bounded {@code jobLauncherTaskExecutor}, so up to {@code batch.scheduler.pool-size} files are processed at
+ * the same time. While a backlog remains the scheduler polls again right away, either in the same cycle or as
+ * soon as a running file frees its slot, instead of waiting for the next idle poll.
+ * <p>
+ * Rows are claimed through {@link WorkClaimService}, so several nodes can run this scheduler against the same
+ * schema without launching a file twice. The works of a file and their jobs are found through the
+ * {@link JobRouter}, from an index built at startup and a cache of the WORK table. The {@code MAPPING_ID} of a
+ * work, if set, is passed to its job as the {@code mappingId} job parameter, selecting the mapping of its lines.
+ * A row recovered from a crashed node restarts the job instance that node left running, through
+ * {@link InterruptedJobService}, so the job resumes from its last committed chunk.
+ * <p>
+ * The works of a file run one after the other, each job reading the import lines on its own. With
+ * {@code batch.scheduler.shared-scan=true}, the works of a file run at the same time instead, fed by a single
+ * {@link SharedImportLineScan} of its import lines, and the WORK_STATUS gets the worst of their outcomes.
  */
 @Component
 @EnableScheduling
@@ -41,26 +71,122 @@ public class JobScheduler {
     private JobDao jobDao;
 
     @Autowired
-    private ApplicationContext applicationContext;
+    private JobRouter jobRouter;
+
+    @Autowired
+    private WorkClaimService workClaimService;
+
+    @Autowired
+    private InterruptedJobService interruptedJobService;
+
+    @Autowired
+    @Qualifier("jobLauncherTaskExecutor")
+    private TaskExecutor jobLauncherTaskExecutor;
+
+    @Value("${batch.scheduler.pool-size:4}")
+    private int poolSize;
+
+    @Value("${batch.scheduler.claim-batch-size:4}")
+    private int claimBatchSize;
+
+    @Autowired
+    private SharedScanService sharedScanService;
+
+    @Autowired
+    @Qualifier("sharedScanTaskExecutor")
+    private TaskExecutor sharedScanTaskExecutor;
+
+    @Value("${batch.scheduler.shared-scan:false}")
+    private boolean sharedScan;
+
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private Semaphore slots;
+    private volatile boolean backlog;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+
+    @PostConstruct
+    void initSlots() {
+        slots = new Semaphore(poolSize);
+    }
 
     /**
      * Periodically checks for new pending job requests and initiates their processing.
-     * This method is scheduled to run at a fixed rate. It fetches a pending job,
-     * processes it, and handles any exceptions that occur during the process.
+     * This method runs {@code batch.scheduler.idle-poll-interval} milliseconds after the previous poll ended;
+     * the jobs themselves run on the launcher pool, so the poll never waits for them.
      */
-    @Scheduled(fixedRate = 10000)
+    @Scheduled(fixedDelayString = "${batch.scheduler.idle-poll-interval:10000}")
     public void checkForNewJobs() {
         log.info("Checking for New Jobs");
-        WorkStatus jobRequest = jobDao.getNextWorkStatusPending();
-        if (jobRequest == null) {
-            return; // No pending jobs
+        dispatchPendingWork();
+    }
+
+    /**
+     * Claims pending rows for every free slot of the launcher pool and hands them over to it. Polls again as
+     * long as the previous poll returned a full batch. When the pool is full, the backlog is remembered and the
+     * next job to finish starts a new dispatch.
+     * <p>
+     * A request that finds another thread dispatching is not dropped: it is recorded, and the dispatching thread
+     * runs again once it releases the lock. The backlog is only set and cleared under the lock, and the free slots
+     * are checked again after setting it, so a slot freed meanwhile is never missed.
+     */
+    private void dispatchPendingWork() {
+        dispatchRequested.set(true);
+        while (dispatchRequested.get() && dispatchLock.tryLock()) {
+            try {
+                dispatchRequested.set(false);
+                claimForFreeSlots();
+            } finally {
+                dispatchLock.unlock();
+            }
+        }
+    }
+
+    private void claimForFreeSlots() {
+        boolean fullBatch;
+        do {
+            int freeSlots = Math.min(claimBatchSize, slots.availablePermits());
+            if (freeSlots == 0) {
+                backlog = true;
+                if (slots.availablePermits() == 0) {
+                    return;
+                }
+                // A job finished before the backlog was set, without starting a dispatch
+                fullBatch = true;
+                continue;
+            }
+            List<WorkStatus> jobRequests = workClaimService.claimPending(freeSlots);
+            for (WorkStatus jobRequest : jobRequests) {
+                dispatch(jobRequest);
+            }
+            fullBatch = jobRequests.size() == freeSlots;
+        } while (fullBatch);
+        backlog = false;
+    }
+
+    private void dispatch(WorkStatus jobRequest) {
+        slots.acquireUninterruptibly();
+        try {
+            jobLauncherTaskExecutor.execute(() -> runJobRequest(jobRequest));
+        } catch (TaskRejectedException e) {
+            slots.release();
+            log.error("Job request with ID {} was rejected by the launcher pool: msg:{}", jobRequest.getWstIden(), e.getMessage());
+            updateWorkStatusWithError(jobRequest, e.getMessage());
+            workClaimService.release(jobRequest.getWstIden());
         }
+    }
 
+    private void runJobRequest(WorkStatus jobRequest) {
         try {
             processJobRequest(jobRequest);
         } catch (Exception e) {
             log.error("Error processing job request with ID {}: msg:{}", jobRequest.getWstIden(), e.getMessage());
             updateWorkStatusWithError(jobRequest, e.getMessage());
+        } finally {
+            workClaimService.release(jobRequest.getWstIden());
+            slots.release();
+            if (backlog) {
+                dispatchPendingWork();
+            }
         }
     }
 
@@ -68,13 +194,83 @@ public class JobScheduler {
         String[] workIdentifierParts = getWorkIdentifierParts(jobRequest.getWstFileIden());
         List<Work> works = findWorks(workIdentifierParts[0]);
 
-        updateWorkStatusToProcessing(jobRequest);
-
+        if (sharedScan && works.size() > 1) {
+            processSharedScan(jobRequest, works);
+            return;
+        }
         for (Work work : works) {
-            launchJobForWork(work, jobRequest.getWstIden());
+            launchJobForWork(work, jobRequest.getWstIden(), null);
+        }
+    }
+
+    /**
+     * Runs the jobs of all the works at the same time, each one reading from its own consumer of a shared scan
+     * that runs on this thread, then records the worst outcome of the jobs on the WORK_STATUS. The jobs leave the
+     * WORK_STATUS to this method, and append their line errors, prefixed with their work, to each other's, so the
+     * errors of an earlier run are cleared first.
+     */
+    private void processSharedScan(WorkStatus jobRequest, List<Work> works) {
+        Integer workStatusId = jobRequest.getWstIden();
+        List<String> consumerIds = new ArrayList<>();
+        for (int i = 0; i < works.size(); i++) {
+            consumerIds.add(workStatusId + Constants.DOT + i + Constants.DOT + works.get(i).getWorkClassName());
+        }
+        // Fail the request before anything runs if a job does not exist
+        List<String> jobNames = works.stream().map(work -> jobRouter.jobFor(work.getWorkClassName()).getName()).distinct().toList();
+        // The scan feeding the jobs a crashed node left running is gone, so they cannot resume
+        jobNames.forEach(jobName -> interruptedJobService.recover(jobName, Long.valueOf(workStatusId), workClaimService.getNodeIden()));
+
+        jobDao.clearImportLineErrors(Long.valueOf(workStatusId));
+        SharedImportLineScan scan = sharedScanService.open(Long.valueOf(workStatusId), consumerIds);
+        try {
+            List<CompletableFuture<JobExecution>> executions = new ArrayList<>();
+            for (int i = 0; i < works.size(); i++) {
+                Work work = works.get(i);
+                String consumerId = consumerIds.get(i);
+                executions.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return launchJobForWork(work, workStatusId, consumerId);
+                    } finally {
+                        scan.detach(consumerId);
+                    }
+                }, sharedScanTaskExecutor));
+            }
+            long lines = scan.run();
+            log.info("Shared scan of job {} handed {} lines to {} works", workStatusId, lines, works.size());
+
+            List<String> messages = new ArrayList<>();
+            Integer status = Constants.SUCCESS;
+            for (int i = 0; i < works.size(); i++) {
+                JobCompletionNotificationListener.Outcome outcome = outcomeOf(executions.get(i));
+                if (severity(outcome.status()) > severity(status)) {
+                    status = outcome.status();
+                }
+                if (StringUtils.hasText(outcome.message())) {
+                    messages.add(works.get(i).getWorkClassName() + ": " + outcome.message());
+                }
+            }
+            updateWorkStatus(jobRequest, status, String.join("; ", messages));
+        } finally {
+            sharedScanService.release(scan);
+        }
+    }
+
+    private static JobCompletionNotificationListener.Outcome outcomeOf(CompletableFuture<JobExecution> execution) {
+        try {
+            return JobCompletionNotificationListener.outcomeOf(execution.join());
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            return new JobCompletionNotificationListener.Outcome(Constants.ERROR, cause.getMessage());
         }
     }
 
+    private static int severity(Integer status) {
+        if (Constants.ERROR.equals(status)) {
+            return 2;
+        }
+        return Constants.SUCCESS_WITH_ERRORS.equals(status) ? 1 : 0;
+    }
+
     private String[] getWorkIdentifierParts(String workIdentifier) {
         String[] parts = StringUtils.split(workIdentifier, Constants.DOT);
         if (parts == null || parts.length == 0) {
@@ -84,51 +280,63 @@ public class JobScheduler {
     }
 
     private List<Work> findWorks(String fileIdentifier) {
-        List<Work> works = jobDao.getWorkByFileIden(fileIdentifier);
-        if (works == null || works.isEmpty()) {
+        List<Work> works = jobRouter.worksFor(fileIdentifier);
+        if (works.isEmpty()) {
             throw new WorkNotFoundException("No work found for file identifier '" + fileIdentifier + "'.");
         }
         return works;
     }
 
-    private void updateWorkStatusToProcessing(WorkStatus jobRequest) {
-        jobRequest.setWstBegiDate(LocalDateTime.now());
-        jobRequest.setWstStatCode(Constants.PROCESSING);
-        jobDao.updateWorkStatus(jobRequest);
-    }
-
-    private void launchJobForWork(Work work, Integer workStatusId) {
+    private JobExecution launchJobForWork(Work work, Integer workStatusId, String sharedScanConsumer) {
         try {
-            Job jobToRun = findJobBean(work.getWorkClassName());
-            JobParameters jobParameters = buildJobParameters(workStatusId);
+            Job jobToRun = jobRouter.jobFor(work.getWorkClassName());
+            JobParameters jobParameters = sharedScanConsumer == null
+                    ? interruptedJobService.recover(jobToRun.getName(), Long.valueOf(workStatusId), workClaimService.getNodeIden())
+                            .orElseGet(() -> buildJobParameters(work, workStatusId, null))
+                    : buildJobParameters(work, workStatusId, sharedScanConsumer);
 
             log.debug("Launching job with ID {}", workStatusId);
-            jobLauncher.run(jobToRun, jobParameters);
+            return jobLauncher.run(jobToRun, jobParameters);
         } catch (JobExecutionException e) {
             throw new RuntimeException("Failed to launch job with ID " + workStatusId, e);
-        } catch (BeansException e) {
-            throw new JobNotFoundException("Job bean '" + work.getWorkClassName() + "' not found for job " + workStatusId, e);
-        }
-    }
-
-    private Job findJobBean(String jobClassName) {
-        try {
-            return applicationContext.getBean(jobClassName, Job.class);
-        } catch (BeansException e) {
-            throw new JobNotFoundException("Job setup for work class '" + jobClassName + "' does not exist in the project.", e);
         }
     }
 
-    private JobParameters buildJobParameters(Integer workStatusId) {
-        return new JobParametersBuilder()
+    private JobParameters buildJobParameters(Work work, Integer workStatusId, String sharedScanConsumer) {
+        JobParametersBuilder builder = new JobParametersBuilder()
                 .addLong(Constants.WST_IDEN, Long.valueOf(workStatusId))
                 .addLong(Constants.START_DATE, System.currentTimeMillis())
-                .toJobParameters();
+                // Not identifying, so another node can restart the job instance after this node crashed
+                .addString(Constants.NODE_IDEN, workClaimService.getNodeIden(), false);
+        if (sharedScanConsumer != null) {
+            builder.addString(SharedScanService.CONSUMER, sharedScanConsumer);
+            builder.addString(Constants.WORK_CLASS_NAME, work.getWorkClassName());
+        }
+        if (work.getMappingId() != null) {
+            builder.addString(Constants.MAPPING_ID, work.getMappingId());
+        }
+        return builder.toJobParameters();
     }
 
     private void updateWorkStatusWithError(WorkStatus jobRequest, String error) {
         jobRequest.setWstErrorText(error);
         jobRequest.setWstStatCode(Constants.ERROR);
-        jobDao.updateWorkStatus(jobRequest);
+        if (jobDao.updateWorkStatus(jobRequest) == 0) {
+            log.warn("Job request with ID {} was reclaimed after the lease of node {} expired; its error is not recorded",
+                    jobRequest.getWstIden(), jobRequest.getWstNodeIden());
+        }
+    }
+
+    private void updateWorkStatus(WorkStatus jobRequest, Integer status, String message) {
+        jobDao.getWorkStatusByWstIden(Long.valueOf(jobRequest.getWstIden())).ifPresent(workStatus -> {
+            workStatus.setWstEndxDate(LocalDateTime.now());
+            workStatus.setWstStatCode(status);
+            workStatus.setWstErrorText(message);
+            workStatus.setWstNodeIden(jobRequest.getWstNodeIden());
+            if (jobDao.updateWorkStatus(workStatus) == 0) {
+                log.warn("Job request with ID {} was reclaimed after the lease of node {} expired; its outcome is not recorded",
+                        jobRequest.getWstIden(), jobRequest.getWstNodeIden());
+            }
+        });
     }
 }
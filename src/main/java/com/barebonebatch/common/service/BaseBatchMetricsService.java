@@ -1,13 +1,20 @@
 package com.barebonebatch.common.service;
 
+import com.barebonebatch.common.processor.ImportLineProcessor;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class BaseBatchMetricsService {
@@ -31,6 +38,8 @@ public class BaseBatchMetricsService {
     // Gauges
     private final AtomicLong activeJobs = new AtomicLong(0);
     private final AtomicLong activeSteps = new AtomicLong(0);
+    private final Map<String, AtomicInteger> chunkSizes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicReference<ImportLineProcessor<?>>> mappingProcessors = new ConcurrentHashMap<>();
 
     @Autowired
     public BaseBatchMetricsService(MeterRegistry meterRegistry) {
@@ -185,6 +194,157 @@ public class BaseBatchMetricsService {
                 .register(meterRegistry));
     }
 
+    // Reader metrics
+    public void recordReadThroughput(String stepName, String readerMode, double itemsPerSecond) {
+        DistributionSummary.builder("batch.reader.throughput")
+                .description("Items read per second by a step")
+                .baseUnit("items/s")
+                .tag("stepName", stepName)
+                .tag("readerMode", readerMode)
+                .register(meterRegistry)
+                .record(itemsPerSecond);
+    }
+
+    public void recordReadHeapPeak(String stepName, String readerMode, long heapPeakBytes) {
+        DistributionSummary.builder("batch.reader.heap.peak")
+                .description("Heap high-water mark while a step was reading")
+                .baseUnit("bytes")
+                .tag("stepName", stepName)
+                .tag("readerMode", readerMode)
+                .register(meterRegistry)
+                .record(heapPeakBytes);
+    }
+
+    // Staging metrics
+    public void recordStagingThroughput(String stepName, long lines, double linesPerSecond) {
+        Counter.builder("batch.staging.lines")
+                .description("File lines staged into IMPORT_LINE")
+                .tag("stepName", stepName)
+                .register(meterRegistry)
+                .increment(lines);
+
+        DistributionSummary.builder("batch.staging.throughput")
+                .description("File lines staged into IMPORT_LINE per second")
+                .baseUnit("lines/s")
+                .tag("stepName", stepName)
+                .register(meterRegistry)
+                .record(linesPerSecond);
+    }
+
+    // Chunk size metrics
+    public void recordChunkSize(String stepName, int chunkSize) {
+        chunkSizes.computeIfAbsent(stepName, name -> {
+            AtomicInteger size = new AtomicInteger();
+            Gauge.builder("batch.chunk.size", size, AtomicInteger::get)
+                    .description("Commit interval chosen for the next chunk of a step")
+                    .tag("stepName", name)
+                    .register(meterRegistry);
+            return size;
+        }).set(chunkSize);
+    }
+
+    // Execution context metrics
+    public void recordExecutionContextSize(String stepName, String scope, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+        DistributionSummary.builder("batch.context.serialized.size")
+                .description("Serialized size of an execution context written to the job repository")
+                .baseUnit("bytes")
+                .tag("stepName", stepName)
+                .tag("scope", scope)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    // Writer metrics
+    public void recordRowsPerStatement(String statementId, int rows) {
+        DistributionSummary.builder("batch.writer.rows.per.statement")
+                .description("Rows sent per multi-row insert statement")
+                .tag("statement", statementId)
+                .register(meterRegistry)
+                .record(rows);
+    }
+
+    public void recordStatementsPerChunk(String statementId, int statements) {
+        DistributionSummary.builder("batch.writer.statements.per.chunk")
+                .description("Multi-row insert statements sent per chunk")
+                .tag("statement", statementId)
+                .register(meterRegistry)
+                .record(statements);
+    }
+
+    public void recordInsertOutcome(String statementId, long inserted, long duplicates) {
+        Counter.builder("batch.writer.rows.inserted")
+                .description("Rows inserted by an idempotent insert statement")
+                .tag("statement", statementId)
+                .register(meterRegistry)
+                .increment(inserted);
+
+        Counter.builder("batch.writer.rows.duplicate")
+                .description("Rows left out as duplicates, within the chunk or already in the table")
+                .tag("statement", statementId)
+                .register(meterRegistry)
+                .increment(duplicates);
+    }
+
+    // Error update metrics
+    public void recordErrorTextUpdate(int rows, long elapsedNanos) {
+        Counter.builder("batch.errors.update.roundtrips")
+                .description("Statements sent to record the error text of skipped lines")
+                .register(meterRegistry)
+                .increment();
+
+        DistributionSummary.builder("batch.errors.update.rows")
+                .description("Skipped lines updated per statement")
+                .register(meterRegistry)
+                .record(rows);
+
+        Timer.builder("batch.errors.update.duration")
+                .description("Time taken by one error text update statement")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Scheduler metrics
+    public void incrementWorkClaimed(String nodeIden, int count) {
+        Counter.builder("batch.work.claimed")
+                .description("WORK_STATUS rows claimed by a node")
+                .tag("node", nodeIden)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    public void incrementLeasesRecovered(String nodeIden, int count) {
+        Counter.builder("batch.work.leases.recovered")
+                .description("WORK_STATUS rows of crashed nodes handed back to the pending queue")
+                .tag("node", nodeIden)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    // Mapping metrics
+    /**
+     * Points the transformer gauges of a mapping at its latest processor. The gauges are registered once per
+     * mapping and read the processor through a holder, so a processor compiled again after the mapping changed
+     * replaces the previous one instead of leaving the gauges on it.
+     */
+    public void registerTransformerGauges(String mappingId, ImportLineProcessor<?> processor) {
+        mappingProcessors.computeIfAbsent(mappingId, id -> {
+            AtomicReference<ImportLineProcessor<?>> holder = new AtomicReference<>();
+            Gauge.builder("batch.transformers.compiled", holder, latest -> latest.get() == null ? 0 : latest.get().getCompiledTransformerCount())
+                    .description("Number of mapping transformers running as compiled SpEL")
+                    .tag("mappingId", id)
+                    .register(meterRegistry);
+
+            Gauge.builder("batch.transformers.interpreted", holder, latest -> latest.get() == null ? 0 : latest.get().getInterpretedTransformerCount())
+                    .description("Number of mapping transformers running as interpreted SpEL")
+                    .tag("mappingId", id)
+                    .register(meterRegistry);
+            return holder;
+        }).set(processor);
+    }
+
     // Memory metrics
     public void recordMemoryUsage() {
         Runtime runtime = Runtime.getRuntime();
@@ -0,0 +1,84 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.util.Constants;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Recovers the jobs a crashed node left running, once its lease on their WORK_STATUS row has expired and
+ * another node claimed the row again.
+ * <p>
+ * The executions of a crashed node stay 'STARTED' in the job repository, which blocks a restart of their job
+ * instance. They are marked 'FAILED' here, so the job instance can be restarted with the same identifying
+ * parameters: each step then resumes from the execution context of the last chunk it committed, instead of
+ * processing the file again from the start. Only the node identifier, which is not identifying, changes.
+ * <p>
+ * A job reading from a shared scan cannot resume, because the scan feeding it ended with the crashed node. Its
+ * executions are marked 'FAILED' as well, and its work runs again in a new job instance.
+ */
+@Service
+@Log4j2
+public class InterruptedJobService {
+
+    static final String LEASE_EXPIRED = "Lease on the work status expired; the job was interrupted";
+
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+
+    public InterruptedJobService(JobExplorer jobExplorer, JobRepository jobRepository) {
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+    }
+
+    /**
+     * Marks the executions of {@code jobName} still running for a WORK_STATUS row as 'FAILED'.
+     *
+     * @return The parameters restarting the interrupted job instance on node {@code nodeIden}, or empty when no
+     * execution was interrupted or the interrupted one cannot resume.
+     */
+    public Optional<JobParameters> recover(String jobName, Long wstIden, String nodeIden) {
+        JobParameters restartParameters = null;
+        for (JobExecution execution : jobExplorer.findRunningJobExecutions(jobName)) {
+            JobParameters parameters = execution.getJobParameters();
+            if (!wstIden.equals(parameters.getLong(Constants.WST_IDEN))) {
+                continue;
+            }
+            markFailed(execution);
+            log.warn("Job {} of work status {} was interrupted on node {}; execution {} marked as failed",
+                    jobName, wstIden, parameters.getString(Constants.NODE_IDEN), execution.getId());
+            if (parameters.getString(SharedScanService.CONSUMER) == null) {
+                restartParameters = new JobParametersBuilder(parameters)
+                        .addString(Constants.NODE_IDEN, nodeIden, false)
+                        .toJobParameters();
+            }
+        }
+        return Optional.ofNullable(restartParameters);
+    }
+
+    private void markFailed(JobExecution execution) {
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution stepExecution : execution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(LEASE_EXPIRED));
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+        }
+        execution.setStatus(BatchStatus.FAILED);
+        execution.setExitStatus(ExitStatus.FAILED.addExitDescription(LEASE_EXPIRED));
+        execution.setEndTime(now);
+        jobRepository.update(execution);
+    }
+}
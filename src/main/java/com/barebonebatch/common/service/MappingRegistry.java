@@ -0,0 +1,153 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.Mapping;
+import com.barebonebatch.common.processor.ImportLineProcessor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the mappings of {@code cod.MAPPING} and the {@link ImportLineProcessor}s compiled from them, so a step
+ * picking its mapping at runtime gets it from memory instead of the database.
+ * <p>
+ * A mapping is loaded on its first use, and one processor is compiled per mapping and target type, with the
+ * {@code batch.processor.compiled-plan} and {@code batch.processor.validating} settings. Processors are shared by
+ * all the steps, including concurrent ones, which the compiled plan allows.
+ * <p>
+ * Every {@code batch.mapping.refresh-interval} milliseconds, one query reads the {@code VERSION} of the cached
+ * mappings, which the database increments whenever their fields change. A mapping whose version changed, or
+ * which was deleted, is evicted with its processors, so the next step compiles the new fields. Steps already
+ * running keep the processor they started with.
+ * <p>
+ * Mappings are queried and processors compiled outside the locks of the caches, so a slow query never blocks the
+ * other mappings; concurrent misses of a mapping may both load it, and the first one cached wins. A processor is
+ * only used, and kept in the cache, while the mapping it was compiled from is still the cached version, so a
+ * processor compiled while a refresh evicted its mapping is never served.
+ */
+@Service
+@Log4j2
+public class MappingRegistry {
+
+    private record ProcessorKey(String mappingId, Class<?> targetType) {
+    }
+
+    private record CompiledProcessor(Mapping mapping, ImportLineProcessor<?> processor) {
+    }
+
+    private final JobDao jobDao;
+    private final BaseBatchMetricsService metricsService;
+    private final boolean compiledPlan;
+    private final boolean validating;
+    private final Map<String, Mapping> mappings = new ConcurrentHashMap<>();
+    private final Map<ProcessorKey, CompiledProcessor> processors = new ConcurrentHashMap<>();
+
+    public MappingRegistry(JobDao jobDao, BaseBatchMetricsService metricsService,
+                           @Value("${batch.processor.compiled-plan:true}") boolean compiledPlan,
+                           @Value("${batch.processor.validating:false}") boolean validating) {
+        this.jobDao = jobDao;
+        this.metricsService = metricsService;
+        this.compiledPlan = compiledPlan;
+        this.validating = validating;
+    }
+
+    /**
+     * @return The mapping, loaded from the database on its first use.
+     * @throws RuntimeException if the mapping is not found.
+     */
+    public Mapping getMapping(String mappingId) {
+        Mapping cached = mappings.get(mappingId);
+        if (cached != null) {
+            return cached;
+        }
+        Mapping mapping = jobDao.getMappingById(mappingId);
+        if (mapping == null || mapping.getFields() == null) {
+            throw new RuntimeException("Mapping not found: " + mappingId);
+        }
+        Mapping existing = mappings.putIfAbsent(mappingId, mapping);
+        if (existing != null) {
+            return existing;
+        }
+        log.info("Loaded mapping {} version {} with {} fields", mappingId, mapping.getVersion(), mapping.getFields().size());
+        return mapping;
+    }
+
+    /**
+     * @return The processor mapping import lines to {@code targetType} with the mapping, compiled on its first use.
+     * @throws RuntimeException if the mapping is not found.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ImportLineProcessor<T> getProcessor(String mappingId, Class<T> targetType) {
+        ProcessorKey key = new ProcessorKey(mappingId, targetType);
+        CompiledProcessor cached = processors.get(key);
+        if (cached != null && isCurrent(mappingId, cached.mapping())) {
+            return (ImportLineProcessor<T>) cached.processor();
+        }
+        Mapping mapping = getMapping(mappingId);
+        CompiledProcessor compiled = new CompiledProcessor(mapping, compile(mappingId, targetType, mapping));
+        CompiledProcessor current = processors.compute(key, (k, existing) ->
+                existing != null && sameVersion(existing.mapping(), mapping) ? existing : compiled);
+        if (!isCurrent(mappingId, mapping)) {
+            // Evicted while compiling: the next use compiles the new version
+            processors.remove(key, current);
+        } else if (current == compiled) {
+            metricsService.registerTransformerGauges(mappingId, compiled.processor());
+        }
+        return (ImportLineProcessor<T>) current.processor();
+    }
+
+    private <T> ImportLineProcessor<T> compile(String mappingId, Class<T> targetType, Mapping mapping) {
+        ImportLineProcessor<T> processor = new ImportLineProcessor<>(targetType, mapping.getFields());
+        processor.setCompiledPlan(compiledPlan);
+        processor.setValidating(validating);
+        try {
+            processor.afterPropertiesSet();
+        } catch (Exception e) {
+            throw new IllegalStateException("Mapping " + mappingId + " cannot be compiled for " + targetType.getSimpleName(), e);
+        }
+        return processor;
+    }
+
+    private boolean isCurrent(String mappingId, Mapping mapping) {
+        return sameVersion(mappings.get(mappingId), mapping);
+    }
+
+    private static boolean sameVersion(Mapping cached, Mapping mapping) {
+        return cached != null && Objects.equals(cached.getVersion(), mapping.getVersion());
+    }
+
+    /**
+     * Evicts the cached mappings whose version changed in the database, with their processors.
+     */
+    @Scheduled(fixedDelayString = "${batch.mapping.refresh-interval:60000}")
+    public void refresh() {
+        if (mappings.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> versions = jobDao.getMappingVersions(Set.copyOf(mappings.keySet())).stream()
+                .collect(Collectors.toMap(Mapping::getId, Mapping::getVersion));
+        List<String> stale = mappings.values().stream()
+                .filter(mapping -> !Objects.equals(versions.get(mapping.getId()), mapping.getVersion()))
+                .map(Mapping::getId)
+                .toList();
+        stale.forEach(this::evict);
+    }
+
+    /**
+     * Evicts a mapping and its processors, so they are loaded and compiled again on their next use.
+     */
+    public void evict(String mappingId) {
+        if (mappings.remove(mappingId) != null) {
+            log.info("Evicted mapping {}", mappingId);
+        }
+        processors.keySet().removeIf(key -> key.mappingId.equals(mappingId));
+    }
+}
@@ -0,0 +1,75 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.reader.KeysetImportLineReader;
+import com.barebonebatch.common.reader.SharedImportLineScan;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the running {@link SharedImportLineScan}s by consumer, so the step-scoped {@code databaseReader} of a job
+ * launched as a consumer, with the {@link #CONSUMER} job parameter, reads from its scan instead of the database.
+ * A scan is registered by {@link #open} and must be released with {@link #release} once its consumers have ended.
+ */
+@Service
+public class SharedScanService {
+
+    /** The job parameter naming the shared scan consumer a job reads from. */
+    public static final String CONSUMER = "sharedScanConsumer";
+
+    private final Map<String, SharedImportLineScan> scans = new ConcurrentHashMap<>();
+    private final SqlSessionFactory sqlSessionFactory;
+    private final int pageSize;
+    private final int queueCapacity;
+
+    public SharedScanService(SqlSessionFactory sqlSessionFactory,
+                             @Value("${batch.reader.page-size:100}") int pageSize,
+                             @Value("${batch.scheduler.shared-scan-queue-capacity:1000}") int queueCapacity) {
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.pageSize = pageSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Registers a scan of the import lines of a WORK_STATUS, read with keyset paging, for the given consumers.
+     * The scan only starts reading when {@link SharedImportLineScan#run()} is called.
+     */
+    public SharedImportLineScan open(Long wstIden, List<String> consumerIds) {
+        KeysetImportLineReader reader = new KeysetImportLineReader();
+        reader.setSqlSessionFactory(sqlSessionFactory);
+        reader.setWstIden(wstIden);
+        reader.setPageSize(pageSize);
+        reader.setSaveState(false);
+        reader.afterPropertiesSet();
+
+        SharedImportLineScan scan = new SharedImportLineScan(reader, consumerIds, queueCapacity);
+        for (String consumerId : consumerIds) {
+            if (scans.putIfAbsent(consumerId, scan) != null) {
+                throw new IllegalStateException("Shared scan consumer " + consumerId + " is already registered.");
+            }
+        }
+        return scan;
+    }
+
+    /**
+     * @return The reader of a registered consumer.
+     * @throws IllegalStateException if no running scan has this consumer.
+     */
+    public ItemStreamReader<ImportLine> readerFor(String consumerId) {
+        SharedImportLineScan scan = scans.get(consumerId);
+        if (scan == null) {
+            throw new IllegalStateException("No shared scan is running for consumer " + consumerId + ".");
+        }
+        return scan.readerFor(consumerId);
+    }
+
+    public void release(SharedImportLineScan scan) {
+        scan.getConsumerIds().forEach(scans::remove);
+    }
+}
@@ -0,0 +1,285 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.domain.ImportLine;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Collects the lines skipped by one job instance with a bounded memory footprint.
+ * <p>
+ * Lines are kept in a buffer of at most {@code bufferSize} entries. When the buffer is full it is appended to a
+ * local spill file and cleared, so memory stays constant however many lines are rejected. Only what is needed
+ * to record the error is kept: the identifiers of the line and its error text, not the line text.
+ * <p>
+ * {@link #openCursor()} streams the lines back in the order they were added, first from the spill file and
+ * then from the buffer. {@link #suspend()} appends the buffer to the spill file and keeps it, so a sink created
+ * later on the same file, for the restart of a failed job, starts with the lines collected so far. A record
+ * left incomplete by a crash is dropped from the file. {@link #close()} deletes the spill file.
+ * <p>
+ * {@link #add(ImportLine)} is thread-safe, so the worker steps of a partitioned step can share a sink.
+ */
+@Log4j2
+public class SkippedItemSink implements Closeable {
+
+    /** Size of {@code IMPORT_LINE.IML_ERRO_TEXT}. */
+    static final int MAX_ERROR_TEXT_LENGTH = 1000;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private final Path spillFile;
+    private final int bufferSize;
+    private final List<ImportLine> buffer;
+
+    private DataOutputStream spill;
+    private long spilledCount;
+    private long count;
+
+    public SkippedItemSink(Path spillFile, int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The buffer size must be greater than zero.");
+        }
+        this.spillFile = spillFile;
+        this.bufferSize = bufferSize;
+        this.buffer = new ArrayList<>(bufferSize);
+        if (Files.exists(spillFile)) {
+            spilledCount = recoverSpillFile(spillFile);
+            count = spilledCount;
+            log.info("Reopened {} with {} skipped items", spillFile, spilledCount);
+        }
+    }
+
+    public synchronized void add(ImportLine item) {
+        ImportLine skipped = new ImportLine();
+        skipped.setImlIden(item.getImlIden());
+        skipped.setWstIden(item.getWstIden());
+        skipped.setImlNumb(item.getImlNumb());
+        skipped.setImlErroText(StringUtils.truncate(item.getImlErroText(), MAX_ERROR_TEXT_LENGTH));
+        buffer.add(skipped);
+        count++;
+        if (buffer.size() >= bufferSize) {
+            spillBuffer();
+        }
+    }
+
+    /**
+     * @return The number of lines added so far.
+     */
+    public synchronized long size() {
+        return count;
+    }
+
+    /**
+     * @return The number of lines written to the spill file so far.
+     */
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    public Path getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * Opens a cursor over the lines added so far. Lines added after this call are not returned by it.
+     */
+    public synchronized Cursor openCursor() {
+        try {
+            if (spill != null) {
+                spill.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not flush skipped items to " + spillFile, e);
+        }
+        return new Cursor(spillFile, spilledCount, List.copyOf(buffer));
+    }
+
+    /**
+     * Appends the buffered lines to the spill file and closes it without deleting it, so the lines can be
+     * reopened by a new sink on the same file.
+     */
+    public synchronized void suspend() {
+        if (!buffer.isEmpty()) {
+            spillBuffer();
+        }
+        try {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close skipped item spill file " + spillFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        buffer.clear();
+        try {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete skipped item spill file " + spillFile, e);
+        }
+    }
+
+    private void spillBuffer() {
+        try {
+            if (spill == null) {
+                Files.createDirectories(spillFile.toAbsolutePath().getParent());
+                spill = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND), STREAM_BUFFER_SIZE));
+            }
+            for (ImportLine line : buffer) {
+                writeInteger(spill, line.getImlIden());
+                writeInteger(spill, line.getWstIden());
+                writeInteger(spill, line.getImlNumb());
+                writeString(spill, line.getImlErroText());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill skipped items to " + spillFile, e);
+        }
+        spilledCount += buffer.size();
+        buffer.clear();
+    }
+
+    /**
+     * Counts the complete records of an existing spill file, truncating an incomplete last one.
+     */
+    private static long recoverSpillFile(Path spillFile) {
+        long records = 0;
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), STREAM_BUFFER_SIZE))) {
+            while (true) {
+                long recordBytes;
+                try {
+                    recordBytes = skipInteger(in) + skipInteger(in) + skipInteger(in) + skipString(in);
+                } catch (EOFException e) {
+                    break;
+                }
+                validBytes += recordBytes;
+                records++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read skipped items from " + spillFile, e);
+        }
+        try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.WRITE)) {
+            if (channel.size() > validBytes) {
+                log.warn("Dropping an incomplete skipped item record at the end of {}", spillFile);
+                channel.truncate(validBytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not truncate skipped item spill file " + spillFile, e);
+        }
+        return records;
+    }
+
+    private static int skipInteger(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return 1;
+        }
+        in.readInt();
+        return 1 + Integer.BYTES;
+    }
+
+    private static int skipString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return 1;
+        }
+        int length = in.readUnsignedShort();
+        in.skipNBytes(length);
+        return 1 + Short.BYTES + length;
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Reads the lines of a sink back one at a time; only one spilled line is held in memory.
+     */
+    public static final class Cursor implements Closeable {
+
+        private final Path spillFile;
+        private final Iterator<ImportLine> buffered;
+        private long remainingSpilled;
+        private DataInputStream in;
+
+        private Cursor(Path spillFile, long spilledCount, List<ImportLine> buffered) {
+            this.spillFile = spillFile;
+            this.remainingSpilled = spilledCount;
+            this.buffered = buffered.iterator();
+        }
+
+        /**
+         * @return The next line, or {@code null} when all lines have been read.
+         */
+        public ImportLine next() {
+            if (remainingSpilled > 0) {
+                try {
+                    if (in == null) {
+                        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile), STREAM_BUFFER_SIZE));
+                    }
+                    ImportLine line = new ImportLine();
+                    line.setImlIden(readInteger(in));
+                    line.setWstIden(readInteger(in));
+                    line.setImlNumb(readInteger(in));
+                    line.setImlErroText(readString(in));
+                    remainingSpilled--;
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read skipped items from " + spillFile, e);
+                }
+            }
+            return buffered.hasNext() ? buffered.next() : null;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (in != null) {
+                    in.close();
+                    in = null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close " + spillFile, e);
+            }
+        }
+    }
+}
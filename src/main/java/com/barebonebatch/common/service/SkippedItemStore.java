@@ -0,0 +1,81 @@
+package com.barebonebatch.common.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link SkippedItemSink} per running job instance, so the skipped lines of concurrent jobs never
+ * mix. A sink is created on the first skip of a job instance and must be released when a job execution ends,
+ * which {@link com.barebonebatch.common.listener.JobCompletionNotificationListener} does.
+ * <p>
+ * The spill file of a sink is named after its job instance and only deleted once the instance completes. When
+ * an execution fails or stops, its lines are kept in the file, and the restart, a new execution of the same
+ * instance, reopens it: the lines skipped before the failure are still recorded by the restarted job.
+ */
+@Service
+@Log4j2
+public class SkippedItemStore {
+
+    private final Map<Long, SkippedItemSink> sinks = new ConcurrentHashMap<>();
+    private final Path spillDirectory;
+    private final int bufferSize;
+
+    public SkippedItemStore(@Value("${batch.skip.spill-directory:${java.io.tmpdir}}") String spillDirectory,
+                            @Value("${batch.skip.buffer-size:1000}") int bufferSize) {
+        this.spillDirectory = Path.of(spillDirectory);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return The sink of a job instance, reopening its spill file if an earlier execution left one.
+     */
+    public SkippedItemSink sinkFor(Long jobInstanceId) {
+        return sinks.computeIfAbsent(jobInstanceId,
+                id -> new SkippedItemSink(spillDirectory.resolve("skipped-items-" + id + ".bin"), bufferSize));
+    }
+
+    /**
+     * @return The sink of a job instance, reopening the given spill file, as saved in the job execution context by an
+     *         earlier execution, unless the instance already has a sink in this JVM.
+     */
+    public SkippedItemSink sinkFor(Long jobInstanceId, Path spillFile) {
+        return sinks.computeIfAbsent(jobInstanceId, id -> new SkippedItemSink(spillFile, bufferSize));
+    }
+
+    /**
+     * @return The sink of the job execution running the current step, on the step's own thread.
+     * @throws IllegalStateException if called outside a step.
+     */
+    public SkippedItemSink currentSink() {
+        StepContext context = StepSynchronizationManager.getContext();
+        if (context == null) {
+            throw new IllegalStateException("No step is running on this thread.");
+        }
+        return sinkFor(context.getStepExecution().getJobExecution().getJobId());
+    }
+
+    /**
+     * Discards the sink of a job instance at the end of one of its executions. The spill file is deleted when
+     * the instance completed, and otherwise kept, with all the lines of the sink, for its restart.
+     */
+    public void release(Long jobInstanceId, boolean completed) {
+        SkippedItemSink sink = sinks.remove(jobInstanceId);
+        if (sink == null) {
+            return;
+        }
+        if (completed) {
+            log.debug("Releasing {} skipped items of job instance {}", sink.size(), jobInstanceId);
+            sink.close();
+        } else {
+            log.info("Keeping {} skipped items of job instance {} in {} for its restart", sink.size(), jobInstanceId, sink.getSpillFile());
+            sink.suspend();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.WorkStatus;
+import com.barebonebatch.common.util.Constants;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims pending WORK_STATUS rows for this node, so several nodes can poll the same {@code cod} schema without
+ * processing a file twice.
+ * <p>
+ * A claim locks pending rows with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent nodes get disjoint
+ * rows without waiting for each other, and moves them to 'PROCESSING' with this node as owner and a lease
+ * expiry in the same transaction. While a file is processed its lease is renewed periodically. When a node
+ * crashes its leases expire and any node hands the rows back to the pending queue, where they are claimed
+ * again. A recovered file resumes from the last chunk its crashed job committed, see {@link InterruptedJobService}. The status updates of a
+ * job only apply to a row still owned by its node, so a node that lost a lease never overwrites the outcome
+ * of the node that reclaimed the row.
+ * <p>
+ * The node identifier must be unique per running process: a restarted node must not renew the leases of its
+ * previous incarnation. By default it is {@code pid@hostname} followed by a random suffix.
+ */
+@Service
+@Log4j2
+public class WorkClaimService {
+
+    /**
+     * How many of the oldest pending rows an Oracle claim considers per row it may claim, so that a few nodes
+     * contending for the same rows still find unlocked ones.
+     */
+    static final int CANDIDATES_PER_CLAIM = 4;
+
+    private final JobDao jobDao;
+    private final BaseBatchMetricsService metricsService;
+    private final int leaseSeconds;
+
+    @Getter
+    private final String nodeIden;
+
+    private final Set<Integer> claimedWstIdens = ConcurrentHashMap.newKeySet();
+
+    public WorkClaimService(JobDao jobDao,
+                            BaseBatchMetricsService metricsService,
+                            @Value("${batch.scheduler.node-id:}") String nodeIden,
+                            @Value("${batch.scheduler.lease-duration:120}") int leaseSeconds) {
+        this.jobDao = jobDao;
+        this.metricsService = metricsService;
+        this.leaseSeconds = leaseSeconds;
+        this.nodeIden = StringUtils.hasText(nodeIden) ? nodeIden : defaultNodeIden();
+    }
+
+    /**
+     * Claims up to {@code limit} pending rows for this node.
+     *
+     * @return The claimed rows, already in the 'PROCESSING' state; may be fewer than {@code limit}.
+     */
+    @Transactional
+    public List<WorkStatus> claimPending(int limit) {
+        List<WorkStatus> locked = jobDao.lockWorkStatusesPending(limit, limit * CANDIDATES_PER_CLAIM,
+                new RowBounds(0, limit));
+        List<WorkStatus> claimed = new ArrayList<>(locked.size());
+        for (WorkStatus jobRequest : locked) {
+            if (jobDao.claimWorkStatus(jobRequest.getWstIden(), nodeIden, leaseSeconds) == 1) {
+                jobRequest.setWstStatCode(Constants.PROCESSING);
+                jobRequest.setWstNodeIden(nodeIden);
+                claimedWstIdens.add(jobRequest.getWstIden());
+                claimed.add(jobRequest);
+            }
+        }
+        if (!claimed.isEmpty()) {
+            metricsService.incrementWorkClaimed(nodeIden, claimed.size());
+        }
+        return claimed;
+    }
+
+    /**
+     * Stops renewing the lease of a row, once its jobs have ended. The final status written by the jobs takes the
+     * row out of 'PROCESSING', so the expired lease is never recovered.
+     */
+    public void release(Integer wstIden) {
+        claimedWstIdens.remove(wstIden);
+    }
+
+    /**
+     * Extends the lease of every row this node is processing.
+     */
+    @Scheduled(fixedDelayString = "${batch.scheduler.lease-renew-interval:30000}")
+    public void renewLeases() {
+        List<Integer> wstIdens = List.copyOf(claimedWstIdens);
+        if (wstIdens.isEmpty()) {
+            return;
+        }
+        int renewed = jobDao.renewLeases(nodeIden, wstIdens, leaseSeconds);
+        if (renewed < wstIdens.size()) {
+            log.warn("Node {} renewed {} of {} leases; the others expired or finished", nodeIden, renewed, wstIdens.size());
+        }
+    }
+
+    /**
+     * Hands the rows whose lease has expired back to the pending queue.
+     */
+    @Scheduled(fixedDelayString = "${batch.scheduler.lease-recovery-interval:60000}")
+    public void recoverExpiredLeases() {
+        int recovered = jobDao.releaseExpiredLeases();
+        if (recovered > 0) {
+            log.warn("Recovered {} WORK_STATUS rows with an expired lease", recovered);
+            metricsService.incrementLeasesRecovered(nodeIden, recovered);
+        }
+    }
+
+    private static String defaultNodeIden() {
+        // RuntimeMXBean name is "pid@hostname"
+        return ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
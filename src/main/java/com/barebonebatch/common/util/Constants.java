@@ -3,10 +3,15 @@ package com.barebonebatch.common.util;
 public class Constants {
 
     public static final String DOT = ".";
+    public static final Integer STAGING = 5;
+    public static final Integer PENDING = 10;
     public static final Integer PROCESSING = 20;
     public static final Integer ERROR = 40;
     public static final String WST_IDEN = "wstIden";
     public static final String START_DATE = "startDate";
+    public static final String MAPPING_ID = "mappingId";
+    public static final String NODE_IDEN = "nodeIden";
+    public static final String WORK_CLASS_NAME = "workClassName";
     public static final String YES = "Y";
     public static final Integer SUCCESS = 35;
     public static final Integer SUCCESS_WITH_ERRORS = 30;
@@ -0,0 +1,64 @@
+package com.barebonebatch.common.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds and counts {@code \n} bytes in a buffer eight bytes at a time, by testing each {@code long} word of the
+ * buffer for a zero byte after XOR-ing it with a word of {@code \n}s.
+ * <p>
+ * Buffers must be in little-endian order, so the lowest byte of a word read is the first one in the buffer.
+ * Scanning bytes is only correct for charsets where the byte {@code 0x0A} always is a line feed, such as
+ * UTF-8 and the ISO-8859 family.
+ */
+public final class NewLineScanner {
+
+    private static final long NEW_LINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    private NewLineScanner() {
+        // no comment
+    }
+
+    /**
+     * @return The index of the first {@code \n} in {@code [from, to)}, or {@code -1} if there is none.
+     */
+    public static int indexOf(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            // Flags the bytes that were '\n'; borrows may flag bytes after a match, never before it
+            long word = buffer.getLong(i) ^ NEW_LINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The number of {@code \n} bytes in {@code [from, to)}.
+     */
+    public static long count(ByteBuffer buffer, int from, int to) {
+        long count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            // Exact per-byte test: no carry crosses bytes, so only the bytes that were '\n' are flagged
+            long word = buffer.getLong(i) ^ NEW_LINES;
+            long found = ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
+            count += Long.bitCount(found);
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
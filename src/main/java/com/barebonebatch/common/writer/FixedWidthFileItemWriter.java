@@ -0,0 +1,194 @@
+package com.barebonebatch.common.writer;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes items to a file as fixed-width records, formatted by a {@link FixedWidthRecordFormatter} and separated by
+ * {@code \n}.
+ * <p>
+ * Each item is formatted into the same {@code char[]} record and encoded into a direct buffer of
+ * {@code bufferSize} bytes, written to a {@link FileChannel} whenever it fills up, so the heap used does not depend
+ * on the number of items. Characters that cannot be encoded in the charset fail the write.
+ * <p>
+ * Every commit is a checkpoint: the buffer is written and forced to disk, and the size of the file is saved in
+ * the step execution context. On restart, the file is truncated back to the last checkpoint before writing resumes,
+ * and when a chunk fails, the records it wrote since the last checkpoint are discarded the same way. The writer
+ * is a {@link ChunkListener} of its step, registered automatically as the writer of a chunk step.
+ *
+ * @param <T> The type of the items written.
+ */
+@Log4j2
+public class FixedWidthFileItemWriter<T> implements ItemStreamWriter<T>, ChunkListener, InitializingBean {
+
+    private static final String POSITION = "fixedWidthFileItemWriter.position";
+    private static final char[] LINE_SEPARATOR = {'\n'};
+
+    private Path file;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int bufferSize = 8 * 1024 * 1024;
+    private FixedWidthRecordFormatter<T> formatter;
+
+    private FileChannel channel;
+    private CharsetEncoder encoder;
+    private ByteBuffer buffer;
+    private char[] record;
+    private long checkpoint;
+
+    public void setFile(Path file) {
+        this.file = file;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @param bufferSize The bytes buffered before a write to the file (8 MB by default).
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setFormatter(FixedWidthRecordFormatter<T> formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(file, "A file is required.");
+        Assert.notNull(charset, "A charset is required.");
+        Assert.notNull(formatter, "A formatter is required.");
+        Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero.");
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        try {
+            if (executionContext.containsKey(POSITION)) {
+                checkpoint = executionContext.getLong(POSITION);
+                channel = FileChannel.open(file, StandardOpenOption.WRITE);
+                if (channel.size() < checkpoint) {
+                    throw new ItemStreamException("Cannot restart " + file + " at byte " + checkpoint
+                            + ": the file is only " + channel.size() + " bytes long");
+                }
+                channel.truncate(checkpoint);
+                channel.position(checkpoint);
+                log.info("Restarting {} at byte {}", file, checkpoint);
+            } else {
+                checkpoint = 0;
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new ItemStreamException("Cannot open " + file, e);
+        }
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        buffer = ByteBuffer.allocateDirect(bufferSize);
+        record = new char[formatter.getRecordLength()];
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws IOException {
+        for (T item : chunk) {
+            formatter.format(item, record);
+            encode(CharBuffer.wrap(record));
+            encode(CharBuffer.wrap(LINE_SEPARATOR));
+        }
+    }
+
+    private void encode(CharBuffer chars) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isError()) {
+                throw new IllegalArgumentException("Record cannot be encoded in " + charset + ": " + new String(record).trim());
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Called before the chunk is committed: writes and forces the records of the chunk, and saves the checkpoint.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            drain();
+            channel.force(false);
+            checkpoint = channel.position();
+        } catch (IOException e) {
+            throw new ItemStreamException("Cannot write " + file, e);
+        }
+        executionContext.putLong(POSITION, checkpoint);
+    }
+
+    /**
+     * Discards the records written since the last checkpoint, so a retried chunk does not write them twice.
+     */
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        if (channel == null) {
+            return;
+        }
+        buffer.clear();
+        encoder.reset();
+        try {
+            channel.truncate(checkpoint);
+            channel.position(checkpoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll " + file + " back to byte " + checkpoint, e);
+        }
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            drain();
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Cannot close " + file, e);
+        } finally {
+            channel = null;
+            buffer = null;
+            record = null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.domain.MappingFields;
+import com.barebonebatch.common.processor.FieldType;
+import com.barebonebatch.common.util.Constants;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Formats objects into fixed-width records laid out by a mapping: the reverse of
+ * {@link com.barebonebatch.common.processor.ImportLineProcessor}.
+ * <p>
+ * The mapping is compiled once: each enabled field gets its column range and a getter bound to a {@link Function}
+ * through {@link LambdaMetafactory}. Each object is then formatted into the same {@code char[]} record, blank
+ * filled, so no {@link String} is created for strings, integers and decimals of up to 18 digits.
+ * <ul>
+ *     <li>{@code STRING}: left-aligned.</li>
+ *     <li>{@code INT}, {@code LONG}, {@code BIGDECIMAL}, {@code DOUBLE}: right-aligned, with a leading
+ *     {@code -} when negative; a decimal keeps its own scale.</li>
+ *     <li>{@code DATE}: formatted with the {@code pattern} of the field.</li>
+ * </ul>
+ * A {@code null} value leaves its field blank, unless the field is mandatory. A value longer than its field
+ * fails with an {@link IllegalArgumentException} rather than being truncated. Byte-level types cannot be
+ * formatted into text records.
+ *
+ * @param <T> The type of the objects formatted.
+ */
+public class FixedWidthRecordFormatter<T> {
+
+    private record CompiledField(int start, int end, String propertyName, FieldType type,
+                                 ThreadLocal<SimpleDateFormat> dateFormat,
+                                 Function<Object, Object> getter, boolean mandatory) {
+    }
+
+    private final CompiledField[] fields;
+    private final int recordLength;
+
+    /**
+     * @param targetType    The class of the objects formatted.
+     * @param mappingFields The layout of the records.
+     * @throws NoSuchMethodException if a getter of the mapping does not exist on the target type.
+     */
+    public FixedWidthRecordFormatter(Class<T> targetType, List<MappingFields> mappingFields) throws NoSuchMethodException {
+        if (mappingFields == null || mappingFields.isEmpty()) {
+            throw new IllegalStateException("MappingFields cannot be null or empty.");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<CompiledField> compiled = new ArrayList<>();
+        int maxEnd = 0;
+        for (MappingFields field : mappingFields) {
+            int start = field.getOffset();
+            int end = start + field.getLength();
+            maxEnd = Math.max(maxEnd, end);
+            if (!Constants.YES.equals(field.getEnable())) {
+                continue;
+            }
+            FieldType type = FieldType.of(field.getType());
+            if (type.isByteLevel()) {
+                throw new IllegalArgumentException("Field '" + field.getProperty() + "' (" + type + ") cannot be formatted into a text record.");
+            }
+            String propertyName = field.getProperty();
+            Method getter = targetType.getMethod("get" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1));
+            compiled.add(new CompiledField(start, end, propertyName, type, dateFormat(type, field.getPattern()),
+                    compileGetter(lookup, getter), Constants.YES.equals(field.getMandatory())));
+        }
+        this.fields = compiled.toArray(new CompiledField[0]);
+        this.recordLength = maxEnd;
+    }
+
+    /**
+     * @return The length of the records, up to the end of the last field.
+     */
+    public int getRecordLength() {
+        return recordLength;
+    }
+
+    /**
+     * Formats an object into a record.
+     *
+     * @param item   The object to format.
+     * @param record The record to overwrite, of at least {@link #getRecordLength()} characters.
+     */
+    public void format(T item, char[] record) {
+        Arrays.fill(record, 0, recordLength, ' ');
+        for (CompiledField field : fields) {
+            Object value = field.getter.apply(item);
+            if (value == null) {
+                if (field.mandatory) {
+                    throw new IllegalArgumentException("Mandatory field '" + field.propertyName + "' (" + field.type + ") is null.");
+                }
+                continue;
+            }
+            switch (field.type) {
+                case STRING -> writeLeft(field, (String) value, record);
+                case INT, LONG -> writeLong(field, ((Number) value).longValue(), 0, record);
+                case BIGDECIMAL -> writeDecimal(field, (BigDecimal) value, record);
+                case DOUBLE -> writeRight(field, Double.toString((Double) value), record);
+                case DATE -> writeLeft(field, field.dateFormat.get().format((Date) value), record);
+                case PACKED, ZONED, EBCDIC_STRING, BINARY_INT -> throw new IllegalStateException("Unexpected byte-level field " + field.propertyName);
+            }
+        }
+    }
+
+    private static void writeLeft(CompiledField field, String value, char[] record) {
+        checkFits(field, value.length());
+        value.getChars(0, value.length(), record, field.start);
+    }
+
+    private static void writeRight(CompiledField field, String value, char[] record) {
+        checkFits(field, value.length());
+        value.getChars(0, value.length(), record, field.end - value.length());
+    }
+
+    private static void writeDecimal(CompiledField field, BigDecimal value, char[] record) {
+        if (value.scale() >= 0 && value.unscaledValue().bitLength() < Long.SIZE - 1) {
+            writeLong(field, value.unscaledValue().longValue(), value.scale(), record);
+        } else {
+            writeRight(field, value.toPlainString(), record);
+        }
+    }
+
+    /**
+     * Writes {@code unscaled / 10^scale} right-aligned, digit by digit from the end of the field.
+     */
+    private static void writeLong(CompiledField field, long unscaled, int scale, char[] record) {
+        boolean negative = unscaled < 0;
+        int position = field.end;
+        int digits = 0;
+        // Work on the negative value so Long.MIN_VALUE has no overflow.
+        long remaining = negative ? unscaled : -unscaled;
+        do {
+            if (scale > 0 && digits == scale) {
+                position = put(field, record, position, '.');
+            }
+            position = put(field, record, position, (char) ('0' - remaining % 10));
+            remaining /= 10;
+            digits++;
+        } while (remaining != 0 || digits <= scale);
+        if (negative) {
+            put(field, record, position, '-');
+        }
+    }
+
+    /**
+     * @return The position of the character written, just before {@code position}.
+     */
+    private static int put(CompiledField field, char[] record, int position, char c) {
+        if (position == field.start) {
+            throw doesNotFit(field);
+        }
+        record[position - 1] = c;
+        return position - 1;
+    }
+
+    private static void checkFits(CompiledField field, int length) {
+        if (length > field.end - field.start) {
+            throw doesNotFit(field);
+        }
+    }
+
+    private static IllegalArgumentException doesNotFit(CompiledField field) {
+        return new IllegalArgumentException("Value of field '" + field.propertyName + "' does not fit in "
+                + (field.end - field.start) + " characters.");
+    }
+
+    private static ThreadLocal<SimpleDateFormat> dateFormat(FieldType type, String pattern) {
+        if (type != FieldType.DATE) {
+            return null;
+        }
+        return ThreadLocal.withInitial(() -> new SimpleDateFormat(pattern));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compileGetter(MethodHandles.Lookup lookup, Method getter) {
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(getter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Getter " + getter + " is not accessible.", e);
+        }
+        try {
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(getter.getReturnType(), getter.getDeclaringClass()).wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // The target type is not visible from this class loader: fall back to the plain method handle.
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return target -> {
+                try {
+                    return generic.invokeExact(target);
+                } catch (Throwable ex) {
+                    throw new IllegalStateException("Could not invoke " + getter, ex);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the error text of skipped {@link ImportLine}s with set-based updates.
+ * <p>
+ * Instead of one {@code UPDATE ... WHERE IML_IDEN = ?} per line, lines are sent {@code batchSize} at a time in a
+ * single statement: a {@code CASE} update on MySQL and a {@code MERGE} from {@code dual} on Oracle. With the
+ * default of 500 lines per statement, 100k skipped lines take 200 round trips instead of 100k.
+ * <p>
+ * If the same line appears twice, the last error text wins. Every statement is recorded in the
+ * {@code batch.errors.update.*} metrics.
+ * <p>
+ * A writer with a label, the work of one of the jobs sharing a scan of the same lines, prefixes the error texts
+ * with it and appends them to the errors already recorded on the lines instead of replacing them, so each job
+ * keeps its own errors.
+ */
+public class ImportLineErrorWriter implements ItemWriter<ImportLine> {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final JobDao jobDao;
+    private final BaseBatchMetricsService metricsService;
+    private final int batchSize;
+    private final String label;
+
+    public ImportLineErrorWriter(JobDao jobDao, BaseBatchMetricsService metricsService, int batchSize) {
+        this(jobDao, metricsService, batchSize, null);
+    }
+
+    /**
+     * @param label The prefix of the error texts, appended to the recorded errors, or {@code null} to replace them.
+     */
+    public ImportLineErrorWriter(JobDao jobDao, BaseBatchMetricsService metricsService, int batchSize, String label) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be greater than zero.");
+        }
+        this.jobDao = jobDao;
+        this.metricsService = metricsService;
+        this.batchSize = batchSize;
+        this.label = label;
+    }
+
+    @Override
+    public void write(Chunk<? extends ImportLine> chunk) {
+        write(chunk.getItems());
+    }
+
+    /**
+     * Writes the lines, splitting them into statements of at most {@code batchSize} lines.
+     */
+    public void write(List<? extends ImportLine> items) {
+        Map<Integer, ImportLine> distinct = new LinkedHashMap<>();
+        for (ImportLine item : items) {
+            distinct.put(item.getImlIden(), label == null ? item : labelled(item));
+        }
+        List<ImportLine> lines = new ArrayList<>(distinct.values());
+        for (int from = 0; from < lines.size(); from += batchSize) {
+            List<ImportLine> batch = lines.subList(from, Math.min(from + batchSize, lines.size()));
+            long start = System.nanoTime();
+            jobDao.updateImportLinesWithError(batch, label != null);
+            metricsService.recordErrorTextUpdate(batch.size(), System.nanoTime() - start);
+        }
+    }
+
+    private ImportLine labelled(ImportLine item) {
+        ImportLine line = new ImportLine();
+        line.setImlIden(item.getImlIden());
+        line.setImlErroText(StringUtils.truncate(label + ": " + item.getImlErroText(), 1000));
+        return line;
+    }
+}
@@ -0,0 +1,168 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.util.Assert;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Inserts a chunk with multi-row statements instead of one statement per item.
+ * <p>
+ * {@code MyBatisBatchItemWriter} sends one {@code INSERT} per item in a JDBC batch, which MySQL executes as one
+ * round trip per row unless the driver rewrites the batch. This writer splits the chunk into groups of at most
+ * {@code maxRowsPerStatement} items and {@code maxBytesPerStatement} estimated bytes, and runs the mapped
+ * statement {@code statementId} once per group with the group as its {@code items} parameter. The statement is
+ * expected to expand {@code items} into a multi-row {@code INSERT ... VALUES (...),(...)} on MySQL and an
+ * {@code INSERT ALL} on Oracle, for example:
+ * <pre>{@code
+ * <insert id="...">
+ *     <choose>
+ *         <when test="_databaseId == 'oracle'">
+ *             INSERT ALL <foreach collection="items" item="item">INTO T (A) VALUES (#{item.a})</foreach> SELECT 1 FROM dual
+ *         </when>
+ *         <otherwise>
+ *             INSERT INTO T (A) VALUES <foreach collection="items" item="item" separator=",">(#{item.a})</foreach>
+ *         </otherwise>
+ *     </choose>
+ * </insert>
+ * }</pre>
+ * The byte limit keeps statements under MySQL's {@code max_allowed_packet}. On Oracle, keep the number of rows
+ * times columns under 1000. Rows per statement and statements per chunk are recorded as metrics.
+ * <p>
+ * Like {@code MyBatisBatchItemWriter}, the writer must run inside a transaction, such as the chunk transaction.
+ *
+ * @param <T> The type of the items written.
+ */
+public class MultiRowInsertItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    public static final String ITEMS_PARAMETER = "items";
+    /** Returned by {@link #insert(List)} when the driver does not report row counts. */
+    public static final long UNKNOWN_COUNT = -1;
+
+    private SqlSessionFactory sqlSessionFactory;
+    private SqlSessionTemplate sqlSessionTemplate;
+    private String statementId;
+    private int maxRowsPerStatement = 500;
+    private long maxBytesPerStatement = 1024 * 1024;
+    private ToIntFunction<? super T> rowSizeEstimator = item -> 256;
+    private boolean assertUpdates = true;
+    private BaseBatchMetricsService metricsService;
+
+    public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    public void setStatementId(String statementId) {
+        this.statementId = statementId;
+    }
+
+    public void setMaxRowsPerStatement(int maxRowsPerStatement) {
+        this.maxRowsPerStatement = maxRowsPerStatement;
+    }
+
+    public void setMaxBytesPerStatement(long maxBytesPerStatement) {
+        this.maxBytesPerStatement = maxBytesPerStatement;
+    }
+
+    /**
+     * @param rowSizeEstimator Estimates the bytes an item adds to a statement; 256 bytes per item by default.
+     */
+    public void setRowSizeEstimator(ToIntFunction<? super T> rowSizeEstimator) {
+        this.rowSizeEstimator = rowSizeEstimator;
+    }
+
+    /**
+     * @param assertUpdates Whether every statement must insert exactly one row per item (default {@code true}).
+     *                      Turn it off for statements that may ignore rows, like {@code INSERT IGNORE}.
+     */
+    public void setAssertUpdates(boolean assertUpdates) {
+        this.assertUpdates = assertUpdates;
+    }
+
+    public void setMetricsService(BaseBatchMetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(sqlSessionFactory, "A SqlSessionFactory is required.");
+        Assert.hasText(statementId, "A statementId is required.");
+        Assert.isTrue(maxRowsPerStatement > 0, "The maximum rows per statement must be greater than zero.");
+        Assert.isTrue(maxBytesPerStatement > 0, "The maximum bytes per statement must be greater than zero.");
+        // BATCH like the readers and MyBatisBatchItemWriter, since they share the chunk transaction
+        sqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) {
+        List<? extends T> items = chunk.getItems();
+        long inserted = insert(items);
+        if (assertUpdates && inserted != UNKNOWN_COUNT && inserted != items.size()) {
+            throw new IncorrectUpdateSemanticsDataAccessException("Statement '" + statementId + "' inserted "
+                    + inserted + " rows for " + items.size() + " items.");
+        }
+    }
+
+    /**
+     * Sends the items with as few statements as the limits allow.
+     *
+     * @return The rows reported as inserted by the database, or {@link #UNKNOWN_COUNT} if the driver does not
+     * report row counts.
+     */
+    public long insert(List<? extends T> items) {
+        int statements = 0;
+        int from = 0;
+        while (from < items.size()) {
+            int to = from;
+            long bytes = 0;
+            while (to < items.size() && to - from < maxRowsPerStatement) {
+                long rowBytes = rowSizeEstimator.applyAsInt(items.get(to));
+                if (to > from && bytes + rowBytes > maxBytesPerStatement) {
+                    break;
+                }
+                bytes += rowBytes;
+                to++;
+            }
+            sqlSessionTemplate.insert(statementId, Map.of(ITEMS_PARAMETER, items.subList(from, to)));
+            if (metricsService != null) {
+                metricsService.recordRowsPerStatement(statementId, to - from);
+            }
+            statements++;
+            from = to;
+        }
+        if (statements == 0) {
+            return 0;
+        }
+
+        // Groups with the same row count share their SQL and go out in one JDBC batch
+        List<BatchResult> results = sqlSessionTemplate.flushStatements();
+        if (metricsService != null) {
+            metricsService.recordStatementsPerChunk(statementId, statements);
+        }
+        return insertedRows(results);
+    }
+
+    private static long insertedRows(List<BatchResult> results) {
+        long inserted = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    return UNKNOWN_COUNT;
+                }
+                inserted += count;
+            }
+        }
+        return inserted;
+    }
+}
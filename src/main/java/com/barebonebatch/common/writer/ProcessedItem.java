@@ -0,0 +1,23 @@
+package com.barebonebatch.common.writer;
+
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * An item produced by a processor, paired with the item it was produced from, so that a write failure can be
+ * traced back to the source item.
+ *
+ * @param source The item read.
+ * @param output The item to write.
+ */
+public record ProcessedItem<I, O>(I source, O output) {
+
+    /**
+     * Wraps a processor so its output carries the source item. Items filtered by the delegate stay filtered.
+     */
+    public static <I, O> ItemProcessor<I, ProcessedItem<I, O>> pairing(ItemProcessor<I, O> delegate) {
+        return item -> {
+            O output = delegate.process(item);
+            return output == null ? null : new ProcessedItem<>(item, output);
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.exception.WriteBehindException;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Overlaps the writes of a chunk-oriented step with the reading and processing of the next chunks.
+ * <p>
+ * Used as the reader, the writer and a listener of the step. {@link #write} only puts the processed chunk on a
+ * bounded queue; a dedicated thread writes the queued chunks in order, each in its own transaction, while the
+ * step thread reads and processes the next chunk. With a queue capacity of 2, up to three chunks are in flight:
+ * two queued and one being written. When the queue is full the step thread waits, so a slow database still
+ * slows the step down instead of filling the heap.
+ * <p>
+ * <b>Write failures.</b> When a chunk fails, its transaction is rolled back and its items are written again one
+ * per transaction. An item that still fails is skipped: the skip handler receives its source item and the
+ * exception, up to {@code skipLimit} items per step. Beyond that, or on any failure of the pipeline itself, the
+ * next read or write of the step throws a {@link WriteBehindException}, which must not be skippable, and the
+ * step fails. When the step ends, the write counts are corrected for the items skipped here.
+ * <p>
+ * <b>Restart.</b> The step commits its chunks before they are written, so the reader position saved in the
+ * step {@link ExecutionContext} is not that of the last chunk read, but that of the last chunk whose write has
+ * committed. A restarted step therefore reads again every chunk that was in flight when it stopped. Chunks whose
+ * write committed after the last checkpoint are written twice, so writes are at-least-once. Targets must
+ * tolerate that (e.g. idempotent inserts) or the step must not be restarted.
+ *
+ * @param <I> The type of the items read.
+ * @param <O> The type of the items written.
+ */
+@Log4j2
+public class WriteBehindPipeline<I, O> implements ItemStreamReader<I>, ItemWriter<ProcessedItem<I, O>>, StepExecutionListener {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final ItemStreamReader<I> reader;
+    private final ItemWriter<O> writer;
+    private final TransactionTemplate transactionTemplate;
+    private final BiConsumer<I, Throwable> skipHandler;
+    private final int skipLimit;
+    private final BlockingQueue<Batch<I, O>> queue;
+
+    /** Reader state after each enqueued chunk, by chunk sequence; 0 is the state after open. */
+    private final ConcurrentNavigableMap<Long, ExecutionContext> checkpoints = new ConcurrentSkipListMap<>();
+    private final AtomicLong skipped = new AtomicLong();
+
+    private long sequence;
+    private volatile long durableSequence;
+    private volatile Throwable failure;
+    private Thread writerThread;
+
+    public WriteBehindPipeline(ItemStreamReader<I> reader, ItemWriter<O> writer,
+                               PlatformTransactionManager transactionManager, BiConsumer<I, Throwable> skipHandler,
+                               int queueCapacity, int skipLimit) {
+        this.reader = reader;
+        this.writer = writer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.skipHandler = skipHandler;
+        this.skipLimit = skipLimit;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        reader.open(executionContext);
+        sequence = 0;
+        durableSequence = 0;
+        checkpoints.clear();
+        checkpoints.put(0L, readerState());
+
+        writerThread = new Thread(this::writeQueuedChunks, "write-behind-" + Thread.currentThread().getName());
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public I read() throws Exception {
+        checkFailure();
+        return reader.read();
+    }
+
+    @Override
+    public void write(Chunk<? extends ProcessedItem<I, O>> chunk) throws InterruptedException {
+        checkFailure();
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Batch<I, O> batch = new Batch<>(++sequence, new ArrayList<>(chunk.getItems()));
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    /**
+     * Saves the reader state as of the last chunk whose write has committed, not the current one.
+     */
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        checkpoints.put(sequence, readerState());
+        putCheckpoint(executionContext);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        stopWriter(true);
+        reader.close();
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        skipped.set(0);
+        failure = null;
+    }
+
+    /**
+     * Waits until the queued chunks are written, or discards them if the step did not complete, then accounts
+     * for the items skipped on the writer thread.
+     */
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stopWriter(stepExecution.getStatus() != BatchStatus.COMPLETED);
+        putCheckpoint(stepExecution.getExecutionContext());
+
+        long skippedItems = skipped.get();
+        if (skippedItems > 0) {
+            stepExecution.setWriteCount(stepExecution.getWriteCount() - skippedItems);
+            stepExecution.setWriteSkipCount(stepExecution.getWriteSkipCount() + skippedItems);
+        }
+        if (failure != null && stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            stepExecution.setStatus(BatchStatus.FAILED);
+            stepExecution.addFailureException(failure);
+            return ExitStatus.FAILED.addExitDescription(failure);
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private void writeQueuedChunks() {
+        try {
+            while (true) {
+                Batch<I, O> batch = queue.take();
+                if (batch.sequence() < 0) {
+                    return;
+                }
+                writeBatch(batch.items());
+                durableSequence = batch.sequence();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.error("Write-behind writer stopped", e);
+            failure = e;
+        }
+    }
+
+    private void writeBatch(List<ProcessedItem<I, O>> items) {
+        try {
+            writeInTransaction(items.stream().map(ProcessedItem::output).toList());
+        } catch (RuntimeException e) {
+            log.warn("Chunk of {} items failed ({}), writing its items one by one", items.size(), e.getMessage());
+            for (ProcessedItem<I, O> item : items) {
+                try {
+                    writeInTransaction(List.of(item.output()));
+                } catch (RuntimeException itemFailure) {
+                    if (skipped.incrementAndGet() > skipLimit) {
+                        throw new WriteBehindException("Write skip limit of " + skipLimit + " exceeded", itemFailure);
+                    }
+                    skipHandler.accept(item.source(), itemFailure);
+                }
+            }
+        }
+    }
+
+    private void writeInTransaction(List<O> outputs) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(new Chunk<>(outputs));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new WriteBehindException("Write failed", e);
+            }
+        });
+    }
+
+    /**
+     * Stops the writer thread, after it has written the queued chunks unless {@code discard} is set.
+     */
+    private void stopWriter(boolean discard) {
+        Thread thread = writerThread;
+        if (thread == null) {
+            return;
+        }
+        writerThread = null;
+        if (discard) {
+            queue.clear();
+        }
+        try {
+            while (thread.isAlive() && !queue.offer(new Batch<>(-1, List.of()), POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                // The writer is still draining a full queue
+            }
+            thread.join();
+        } catch (InterruptedException e) {
+            thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new WriteBehindException("Write-behind writer failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private ExecutionContext readerState() {
+        ExecutionContext state = new ExecutionContext();
+        reader.update(state);
+        return state;
+    }
+
+    private void putCheckpoint(ExecutionContext executionContext) {
+        Map.Entry<Long, ExecutionContext> checkpoint = checkpoints.floorEntry(durableSequence);
+        if (checkpoint == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : checkpoint.getValue().entrySet()) {
+            executionContext.put(entry.getKey(), entry.getValue());
+        }
+        checkpoints.headMap(checkpoint.getKey()).clear();
+    }
+
+    private record Batch<I, O>(long sequence, List<ProcessedItem<I, O>> items) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.barebonebatch.cryptoimport;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.domain.BinaryRecord;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.listener.ChunkErrorListener;
+import com.barebonebatch.common.listener.ExecutionContextSizeListener;
+import com.barebonebatch.common.listener.JobCompletionNotificationListener;
+import com.barebonebatch.common.listener.ReadThroughputListener;
+import com.barebonebatch.common.listener.RejectedLineListener;
+import com.barebonebatch.common.listener.SkippedItemsReferenceListener;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.processor.ImportLineProcessor;
+import com.barebonebatch.common.reader.FixedLengthRecordReader;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.service.MappingRegistry;
+import com.barebonebatch.common.util.Constants;
+import com.barebonebatch.common.validator.FileJobParametersValidator;
+import com.barebonebatch.common.writer.MultiRowInsertItemWriter;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+/**
+ * Spring Batch configuration for the crypto transaction import jobs.
+ * The import lines of a WORK_STATUS, or the fixed-length binary records of a file, are mapped to
+ * {@link CryptoTransaction}s and loaded into {@code crypto_transaction}, ignoring the transactions that are
+ * already there.
+ */
+@Configuration
+public class CryptoImportJobConfig {
+
+    private static final String INSERT_STATEMENT = "com.barebonebatch.common.dao.JobDao.cryptoTransactionInsertIgnore";
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BaseBatchMetricsService metricsService;
+
+    @Autowired
+    private MappingRegistry mappingRegistry;
+
+    /**
+     * Configures the item processor mapping {@link ImportLine} objects to {@link CryptoTransaction} objects with
+     * the mapping of the {@code mappingId} job parameter, or {@code batch.crypto.mapping-id} by default, as
+     * cached by the {@link MappingRegistry}.
+     *
+     * @return An {@link ItemProcessor} converting an {@link ImportLine} to a {@link CryptoTransaction}.
+     * @throws RuntimeException if the required mapping configuration is not found.
+     */
+    @Bean
+    @StepScope
+    public ItemProcessor<ImportLine, CryptoTransaction> cryptoTransactionProcessor(@Value("#{jobParameters['" + Constants.MAPPING_ID + "'] ?: '${batch.crypto.mapping-id:crypto_transaction}'}") String mappingId) {
+        // A view rather than the cached processor, which the step scope would initialize again for every step
+        ImportLineProcessor<CryptoTransaction> processor = mappingRegistry.getProcessor(mappingId, CryptoTransaction.class);
+        return processor::process;
+    }
+
+    /**
+     * Configures the idempotent bulk writer of {@link CryptoTransaction}s: duplicates within a chunk are dropped
+     * in memory, and the rest is sent with {@code INSERT IGNORE} (MySQL) or {@code MERGE} (Oracle), bounded by
+     * {@code batch.writer.max-rows-per-statement} and {@code batch.writer.max-bytes-per-statement}.
+     * Step-scoped, as it counts the inserted and duplicate rows of its step.
+     *
+     * @return A {@link CryptoTransactionWriter}, also a listener of its step.
+     */
+    @Bean
+    @StepScope
+    public CryptoTransactionWriter cryptoTransactionWriter(SqlSessionFactory sqlSessionFactory,
+                                                           @Value("${batch.writer.max-rows-per-statement:500}") int maxRowsPerStatement,
+                                                           @Value("${batch.writer.max-bytes-per-statement:1048576}") long maxBytesPerStatement) {
+        MultiRowInsertItemWriter<CryptoTransaction> delegate = new MultiRowInsertItemWriter<>();
+        delegate.setSqlSessionFactory(sqlSessionFactory);
+        delegate.setStatementId(INSERT_STATEMENT);
+        delegate.setMaxRowsPerStatement(maxRowsPerStatement);
+        delegate.setMaxBytesPerStatement(maxBytesPerStatement);
+        // Ten columns of at most a few dozen bytes each
+        delegate.setRowSizeEstimator(transaction -> 512);
+        delegate.setAssertUpdates(false);
+        delegate.setMetricsService(metricsService);
+        delegate.afterPropertiesSet();
+        // Oracle unique constraints treat nulls as equal, MySQL ones as distinct
+        boolean nullsDistinct = !"oracle".equals(sqlSessionFactory.getConfiguration().getDatabaseId());
+        return new CryptoTransactionWriter(delegate, INSERT_STATEMENT, metricsService, nullsDistinct);
+    }
+
+    /**
+     * Defines the import step: reads the {@link ImportLine}s of the WORK_STATUS, maps them to
+     * {@link CryptoTransaction}s and loads them in chunks sized by the {@link AdaptiveChunkSizePolicy}.
+     * Lines that cannot be mapped or written are skipped, up to 10, and collected by the {@link ChunkErrorListener}.
+     *
+     * @param databaseReader             The {@link ItemReader} that provides {@link ImportLine} data.
+     * @param cryptoTransactionProcessor The {@link ItemProcessor} that maps the lines.
+     * @param cryptoTransactionWriter    The idempotent bulk writer, registered as a listener by the step builder.
+     * @param chunkErrorListener         The listener to capture skipped items.
+     * @param rejectedLineListener       The listener to capture the lines rejected by a validating processor.
+     * @param skippedItemsReferenceListener The listener saving the number of skipped lines in the job execution context.
+     * @param executionContextSizeListener The listener recording the serialized size of the execution contexts.
+     * @param readThroughputListener     The listener recording read throughput, and heap high-water mark when profiling.
+     * @param adaptiveChunkSizePolicy    The commit interval of the step.
+     * @return A configured {@link Step}.
+     */
+    @Bean
+    public Step importCryptoStep(ItemReader<ImportLine> databaseReader,
+                                 ItemProcessor<ImportLine, CryptoTransaction> cryptoTransactionProcessor,
+                                 CryptoTransactionWriter cryptoTransactionWriter,
+                                 ChunkErrorListener chunkErrorListener,
+                                 RejectedLineListener rejectedLineListener,
+                                 SkippedItemsReferenceListener skippedItemsReferenceListener,
+                                 ExecutionContextSizeListener executionContextSizeListener,
+                                 ReadThroughputListener readThroughputListener,
+                                 AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("importCryptoStep", jobRepository)
+                .<ImportLine, CryptoTransaction>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(databaseReader)
+                .processor(cryptoTransactionProcessor)
+                .writer(cryptoTransactionWriter)
+                .faultTolerant()
+                .skip(Exception.class)
+                .skipLimit(10)
+                .listener(chunkErrorListener)
+                .listener(rejectedLineListener)
+                .listener(skippedItemsReferenceListener)
+                .listener(executionContextSizeListener)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the crypto transaction import job.
+     * 1. {@code importCryptoStep}: Loads the transactions, collecting any skipped lines.
+     * 2. {@code logSkippedItemsStep}: Persists error information for the lines that were skipped.
+     *
+     * @param importCryptoStep                  The import step.
+     * @param logSkippedItemsStep               The step to log skipped items.
+     * @param jobCompletionNotificationListener A listener to handle job completion events.
+     * @return A configured {@link Job}.
+     */
+    @Bean
+    @JobIdentifier(value = "DEV_CRYPTO_IMPORT", description = "Imports the crypto transactions of the import lines of a WORK_STATUS",
+            uatIdf = "UAT_CRYPTO_IMPORT", prodIdf = "PROD_CRYPTO_IMPORT")
+    public Job cryptoImportJob(Step importCryptoStep, Step logSkippedItemsStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+        return new JobBuilder("cryptoImportJob", jobRepository)
+                .listener(jobCompletionNotificationListener)
+                .start(importCryptoStep)
+                .next(logSkippedItemsStep)
+                .build();
+    }
+
+    /**
+     * Creates the reader of the binary records of the {@code inputFile} job parameter, cut at the record length of
+     * the mapping of the {@code mappingId} job parameter, or {@code batch.crypto.record-mapping-id} by default.
+     */
+    @Bean
+    @StepScope
+    public FixedLengthRecordReader cryptoRecordReader(@Value("#{jobParameters['inputFile']}") String inputFile,
+                                                      @Value("#{jobParameters['" + Constants.MAPPING_ID + "'] ?: '${batch.crypto.record-mapping-id:crypto_transaction_record}'}") String mappingId) {
+        FixedLengthRecordReader reader = new FixedLengthRecordReader();
+        reader.setFile(Path.of(inputFile));
+        reader.setRecordLength(mappingRegistry.getProcessor(mappingId, CryptoTransaction.class).getRecordLength());
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    /**
+     * Configures the item processor mapping fixed-length binary records to {@link CryptoTransaction} objects with
+     * the byte-level mapping of the {@code mappingId} job parameter, or {@code batch.crypto.record-mapping-id}
+     * by default, through {@link ImportLineProcessor#processRecord(byte[])}.
+     *
+     * @return An {@link ItemProcessor} converting a {@link BinaryRecord} to a {@link CryptoTransaction}.
+     */
+    @Bean
+    @StepScope
+    public ItemProcessor<BinaryRecord, CryptoTransaction> cryptoRecordProcessor(@Value("#{jobParameters['" + Constants.MAPPING_ID + "'] ?: '${batch.crypto.record-mapping-id:crypto_transaction_record}'}") String mappingId) {
+        ImportLineProcessor<CryptoTransaction> processor = mappingRegistry.getProcessor(mappingId, CryptoTransaction.class);
+        return record -> processor.processRecord(record.bytes());
+    }
+
+    /**
+     * Defines the import step of a binary file: reads its fixed-length records, maps them to
+     * {@link CryptoTransaction}s and loads them in chunks sized by the {@link AdaptiveChunkSizePolicy}.
+     * Records that cannot be mapped or written are skipped, up to 10; they have no IMPORT_LINE row to record their
+     * error in, so they are only logged, with their record number, by the {@link ChunkErrorListener}.
+     *
+     * @param cryptoRecordReader         The reader of the binary records of the input file.
+     * @param cryptoRecordProcessor      The {@link ItemProcessor} that maps the records.
+     * @param cryptoTransactionWriter    The idempotent bulk writer, registered as a listener by the step builder.
+     * @param chunkErrorListener         The listener to log skipped records.
+     * @param readThroughputListener     The listener recording read throughput, and heap high-water mark when profiling.
+     * @param adaptiveChunkSizePolicy    The commit interval of the step.
+     * @return A configured {@link Step}.
+     */
+    @Bean
+    public Step importCryptoRecordsStep(FixedLengthRecordReader cryptoRecordReader,
+                                        ItemProcessor<BinaryRecord, CryptoTransaction> cryptoRecordProcessor,
+                                        CryptoTransactionWriter cryptoTransactionWriter,
+                                        ChunkErrorListener chunkErrorListener,
+                                        ReadThroughputListener readThroughputListener,
+                                        AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("importCryptoRecordsStep", jobRepository)
+                .<BinaryRecord, CryptoTransaction>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(cryptoRecordReader)
+                .processor(cryptoRecordProcessor)
+                .writer(cryptoTransactionWriter)
+                .faultTolerant()
+                .skip(Exception.class)
+                .skipLimit(10)
+                .listener(chunkErrorListener)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the import job of a file of fixed-length binary crypto transaction records. The {@code inputFile}
+     * job parameter is checked by the {@link FileJobParametersValidator} before the job starts.
+     *
+     * @param importCryptoRecordsStep           The import step of the file.
+     * @param jobCompletionNotificationListener A listener to handle job completion events.
+     * @return A configured {@link Job}.
+     */
+    @Bean
+    @JobIdentifier(value = "DEV_CRYPTO_RECORD_IMPORT", description = "Imports a binary file of crypto transaction records",
+            uatIdf = "UAT_CRYPTO_RECORD_IMPORT", prodIdf = "PROD_CRYPTO_RECORD_IMPORT")
+    public Job cryptoRecordImportJob(Step importCryptoRecordsStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+        return new JobBuilder("cryptoRecordImportJob", jobRepository)
+                .validator(new FileJobParametersValidator())
+                .listener(jobCompletionNotificationListener)
+                .start(importCryptoRecordsStep)
+                .build();
+    }
+}
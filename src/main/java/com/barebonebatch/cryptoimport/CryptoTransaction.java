@@ -0,0 +1,29 @@
+package com.barebonebatch.cryptoimport;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A row of {@code crypto_transaction}. The ten columns other than {@code id} form the
+ * {@code unique_transaction} key.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class CryptoTransaction {
+    private Date dateUtc;
+    private String pair;
+    private String side;
+    private BigDecimal price;
+    private BigDecimal executedAmount;
+    private String executedCurrency;
+    private BigDecimal amountAmount;
+    private String amountCurrency;
+    private BigDecimal feeAmount;
+    private String feeCurrency;
+}
@@ -0,0 +1,168 @@
+package com.barebonebatch.cryptoimport;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.writer.MultiRowInsertItemWriter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads {@link CryptoTransaction}s idempotently, replacing one call of {@code insert_crypto_transaction} per row
+ * (an {@code IF NOT EXISTS} probe then an {@code INSERT}) by a few set-based statements per chunk.
+ * <p>
+ * The chunk is first deduplicated in memory on the {@code unique_transaction} key, keeping the first occurrence.
+ * The remaining rows go to a {@link MultiRowInsertItemWriter} whose statement skips rows already in the table:
+ * {@code INSERT IGNORE} on MySQL and {@code MERGE ... WHEN NOT MATCHED} on Oracle. The rows the database reports
+ * as inserted are counted as inserted, all the others as duplicates.
+ * <p>
+ * The key follows the unique constraint of the database: on MySQL, rows with a {@code null} key column never
+ * conflict, so they are never deduplicated ({@code nullsDistinct}); on Oracle, {@code null}s compare equal.
+ * Decimals are compared by value, so {@code 1.5} and {@code 1.50} are the same key, as in a
+ * {@code DECIMAL(20, 10)} column.
+ * <p>
+ * Counts are only kept for committed chunks. When the step ends they are put in the step execution context under
+ * {@link #INSERTED_COUNT} and {@link #DUPLICATE_COUNT}, and logged.
+ */
+@Log4j2
+public class CryptoTransactionWriter implements ItemWriter<CryptoTransaction>, ChunkListener, StepExecutionListener {
+
+    public static final String INSERTED_COUNT = "crypto.inserted";
+    public static final String DUPLICATE_COUNT = "crypto.duplicates";
+
+    private final MultiRowInsertItemWriter<CryptoTransaction> delegate;
+    private final String statementId;
+    private final BaseBatchMetricsService metricsService;
+    private final boolean nullsDistinct;
+
+    private long pendingInserted;
+    private long pendingDuplicates;
+    private long inserted;
+    private long duplicates;
+
+    /**
+     * @param delegate      The writer running the ignoring statement, with update assertion turned off.
+     * @param statementId   The statement of the delegate, used as the metrics tag.
+     * @param nullsDistinct Whether rows with a {@code null} key column never conflict, as on MySQL.
+     */
+    public CryptoTransactionWriter(MultiRowInsertItemWriter<CryptoTransaction> delegate, String statementId,
+                                   BaseBatchMetricsService metricsService, boolean nullsDistinct) {
+        this.delegate = delegate;
+        this.statementId = statementId;
+        this.metricsService = metricsService;
+        this.nullsDistinct = nullsDistinct;
+    }
+
+    @Override
+    public void write(Chunk<? extends CryptoTransaction> chunk) {
+        List<CryptoTransaction> unique = deduplicate(chunk.getItems());
+        long rows = delegate.insert(unique);
+        long chunkDuplicates = chunk.size() - unique.size();
+        if (rows == MultiRowInsertItemWriter.UNKNOWN_COUNT) {
+            log.warn("Driver did not report inserted rows, counting {} rows as inserted", unique.size());
+            rows = unique.size();
+        }
+        pendingInserted += rows;
+        pendingDuplicates += chunkDuplicates + unique.size() - rows;
+    }
+
+    /**
+     * @return The first item of each {@code unique_transaction} key, in chunk order.
+     */
+    List<CryptoTransaction> deduplicate(List<? extends CryptoTransaction> items) {
+        Set<Key> seen = new HashSet<>(items.size() * 2);
+        List<CryptoTransaction> unique = new ArrayList<>(items.size());
+        for (CryptoTransaction item : items) {
+            Key key = Key.of(item);
+            if ((nullsDistinct && key.hasNull()) || seen.add(key)) {
+                unique.add(item);
+            }
+        }
+        return unique;
+    }
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        pendingInserted = 0;
+        pendingDuplicates = 0;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        inserted += pendingInserted;
+        duplicates += pendingDuplicates;
+        if (metricsService != null) {
+            metricsService.recordInsertOutcome(statementId, pendingInserted, pendingDuplicates);
+        }
+        pendingInserted = 0;
+        pendingDuplicates = 0;
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        pendingInserted = 0;
+        pendingDuplicates = 0;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        inserted = stepExecution.getExecutionContext().getLong(INSERTED_COUNT, 0);
+        duplicates = stepExecution.getExecutionContext().getLong(DUPLICATE_COUNT, 0);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putLong(INSERTED_COUNT, inserted);
+        stepExecution.getExecutionContext().putLong(DUPLICATE_COUNT, duplicates);
+        log.info("Step {}: {} crypto transactions inserted, {} duplicates ignored",
+                stepExecution.getStepName(), inserted, duplicates);
+        return stepExecution.getExitStatus();
+    }
+
+    long getInserted() {
+        return inserted;
+    }
+
+    long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * The {@code unique_transaction} key of a row.
+     */
+    private record Key(long dateUtc, String pair, String side, BigDecimal price,
+                       BigDecimal executedAmount, String executedCurrency,
+                       BigDecimal amountAmount, String amountCurrency,
+                       BigDecimal feeAmount, String feeCurrency) {
+
+        static Key of(CryptoTransaction item) {
+            return new Key(item.getDateUtc() == null ? Long.MIN_VALUE : item.getDateUtc().getTime(),
+                    item.getPair(), item.getSide(), normalize(item.getPrice()),
+                    normalize(item.getExecutedAmount()), item.getExecutedCurrency(),
+                    normalize(item.getAmountAmount()), item.getAmountCurrency(),
+                    normalize(item.getFeeAmount()), item.getFeeCurrency());
+        }
+
+        /**
+         * Whether a nullable column of the key is {@code null}; the other columns are {@code NOT NULL}.
+         */
+        boolean hasNull() {
+            return executedAmount == null || executedCurrency == null || amountAmount == null
+                    || amountCurrency == null || feeAmount == null || feeCurrency == null;
+        }
+
+        private static BigDecimal normalize(BigDecimal value) {
+            return value == null ? null : value.stripTrailingZeros();
+        }
+    }
+}
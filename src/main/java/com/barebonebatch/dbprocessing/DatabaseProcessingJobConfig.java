@@ -3,28 +3,43 @@ package com.barebonebatch.dbprocessing;
 import com.barebonebatch.common.config.JobIdentifier;
 import com.barebonebatch.common.dao.JobDao;
 import com.barebonebatch.common.domain.ImportLine;
-import com.barebonebatch.common.domain.Mapping;
+import com.barebonebatch.common.exception.WriteBehindException;
 import com.barebonebatch.common.listener.ChunkErrorListener;
+import com.barebonebatch.common.listener.ExecutionContextSizeListener;
 import com.barebonebatch.common.listener.JobCompletionNotificationListener;
+import com.barebonebatch.common.listener.ReadThroughputListener;
+import com.barebonebatch.common.listener.RejectedLineListener;
+import com.barebonebatch.common.listener.SkippedItemsReferenceListener;
+import com.barebonebatch.common.partition.ImportLineRangePartitioner;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.policy.PartitionedSkipLimitPolicy;
 import com.barebonebatch.common.processor.ImportLineProcessor;
 import com.barebonebatch.common.reader.SkippedItemsReader;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.service.MappingRegistry;
+import com.barebonebatch.common.util.Constants;
+import com.barebonebatch.common.writer.ImportLineErrorWriter;
+import com.barebonebatch.common.writer.MultiRowInsertItemWriter;
+import com.barebonebatch.common.writer.ProcessedItem;
+import com.barebonebatch.common.writer.WriteBehindPipeline;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.batch.MyBatisBatchItemWriter;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
-import org.springframework.batch.core.listener.ExecutionContextPromotionListener;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Collections;
@@ -37,6 +52,11 @@ import java.util.Collections;
 @Configuration
 public class DatabaseProcessingJobConfig {
 
+    public static final String PROCESSING_MODE_SINGLE = "single";
+    public static final String PROCESSING_MODE_PARTITIONED = "partitioned";
+    public static final String PROCESSING_MODE_PIPELINED = "pipelined";
+    public static final String WRITER_MODE_MULTI_ROW = "multi-row";
+
     @Autowired
     private JobDao jobDao;
     @Autowired
@@ -45,43 +65,85 @@ public class DatabaseProcessingJobConfig {
     @Autowired
     private PlatformTransactionManager transactionManager;
 
+    @Autowired
+    private BaseBatchMetricsService metricsService;
+
+    @Autowired
+    private MappingRegistry mappingRegistry;
+
+    @Value("${batch.processing.mode:single}")
+    private String processingMode;
+
+    @Value("${batch.partition.grid-size.dataBaseProcessingJob:4}")
+    private int gridSize;
+
+    @Value("${batch.pipeline.queue-capacity:2}")
+    private int pipelineQueueCapacity;
+
+    @Value("${batch.pipeline.write-skip-limit:10}")
+    private int pipelineWriteSkipLimit;
+
     /**
      * Configures the item writer for persisting {@link Dummy} objects to the database.
-     * This writer uses MyBatis in batch mode for efficient database insertion.
+     * The {@code batch.writer.mode} property selects how rows are sent:
+     * <ul>
+     *     <li><b>batch</b> (default): {@link MyBatisBatchItemWriter}, one INSERT per item in a JDBC batch,
+     *     rewritten into multi-row statements by the MySQL driver with {@code rewriteBatchedStatements}.</li>
+     *     <li><b>multi-row</b>: {@link MultiRowInsertItemWriter}, multi-row INSERT on MySQL and INSERT ALL on
+     *     Oracle, bounded by {@code batch.writer.max-rows-per-statement} and
+     *     {@code batch.writer.max-bytes-per-statement}.</li>
+     * </ul>
      *
-     * @return A {@link MyBatisBatchItemWriter} configured to insert {@link Dummy} objects.
+     * @return An {@link ItemWriter} configured to insert {@link Dummy} objects.
      */
     @Bean
-    public ItemWriter<Dummy> dummyWriter(SqlSessionFactory sqlSessionFactory) {
+    public ItemWriter<Dummy> dummyWriter(SqlSessionFactory sqlSessionFactory,
+                                         @Value("${batch.writer.mode:batch}") String writerMode,
+                                         @Value("${batch.writer.max-rows-per-statement:500}") int maxRowsPerStatement,
+                                         @Value("${batch.writer.max-bytes-per-statement:1048576}") long maxBytesPerStatement) {
+        if (WRITER_MODE_MULTI_ROW.equalsIgnoreCase(writerMode)) {
+            MultiRowInsertItemWriter<Dummy> writer = new MultiRowInsertItemWriter<>();
+            writer.setSqlSessionFactory(sqlSessionFactory);
+            writer.setStatementId("com.barebonebatch.common.dao.JobDao.dummyInsertMultiRow");
+            writer.setMaxRowsPerStatement(maxRowsPerStatement);
+            writer.setMaxBytesPerStatement(maxBytesPerStatement);
+            writer.setRowSizeEstimator(dummy -> 16 + length(dummy.getText1()) + length(dummy.getText2()) + length(dummy.getText3()));
+            writer.setMetricsService(metricsService);
+            writer.afterPropertiesSet();
+            return writer;
+        }
         MyBatisBatchItemWriter<Dummy> writer = new MyBatisBatchItemWriter<>();
         writer.setStatementId("com.barebonebatch.common.dao.JobDao.dummyinsert");
         writer.setSqlSessionFactory(sqlSessionFactory);
         return writer;
     }
 
+    private static int length(String value) {
+        // Up to 4 bytes per character in utf8mb4, plus quoting
+        return value == null ? 4 : value.length() * 4 + 2;
+    }
+
     /**
      * Configures the item processor for transforming {@link ImportLine} objects into {@link Dummy} objects.
-     * This processor is lazy-initialized and uses a predefined mapping configuration ('mapping_1')
-     * fetched from the database to map fixed-length string data to the target object.
+     * The mapping is the one of the {@code mappingId} job parameter, set from the WORK of the file, or
+     * {@code batch.processor.mapping-id} by default. The processor compiled from it is cached by the
+     * {@link MappingRegistry}, so a step only reads the mapping from the database when it changed.
      *
      * @return An {@link ItemProcessor} capable of converting an {@link ImportLine} to a {@link Dummy} object.
      * @throws RuntimeException if the required mapping configuration is not found.
      */
     @Bean
-    @Lazy
-    public ItemProcessor<ImportLine, Dummy> dummyProcessor() {
-        String mappingId = "mapping_1";
-        Mapping mapping = jobDao.getMappingById(mappingId);
-        if (mapping == null || mapping.getFields() == null) {
-            throw new RuntimeException("Mapping not found: " + mappingId);
-        }
-        return new ImportLineProcessor<>(Dummy.class, mapping.getFields());
+    @StepScope
+    public ItemProcessor<ImportLine, Dummy> dummyProcessor(@Value("#{jobParameters['" + Constants.MAPPING_ID + "'] ?: '${batch.processor.mapping-id:mapping_1}'}") String mappingId) {
+        // A view rather than the cached processor, which the step scope would initialize again for every step
+        ImportLineProcessor<Dummy> processor = mappingRegistry.getProcessor(mappingId, Dummy.class);
+        return processor::process;
     }
 
     /**
      * Defines the main processing step for the batch job.
      * This step reads {@link ImportLine} items, processes them into {@link Dummy} objects,
-     * and writes them to the database in chunks of 100.
+     * and writes them to the database in chunks sized by the {@link AdaptiveChunkSizePolicy}.
      * <p>
      * This step is fault-tolerant. If an exception occurs during the processing of an item,
      * the step will skip the problematic item and continue with the next one, up to a limit of 10 skips.
@@ -91,6 +153,10 @@ public class DatabaseProcessingJobConfig {
      * @param dummyProcessor     The {@link ItemProcessor} that transforms the data.
      * @param dummyWriter        The {@link ItemWriter} that persists the transformed {@link Dummy} objects.
      * @param chunkErrorListener The listener to capture skipped items.
+     * @param rejectedLineListener The listener to capture the lines rejected by a validating processor.
+     * @param skippedItemsReferenceListener The listener saving the number of skipped lines in the job execution context.
+     * @param executionContextSizeListener The listener recording the serialized size of the execution contexts.
+     * @param readThroughputListener The listener recording read throughput, and heap high-water mark when profiling.
      * @return A configured {@link Step} for the job.
      */
     @Bean
@@ -98,9 +164,13 @@ public class DatabaseProcessingJobConfig {
                               ItemProcessor<ImportLine, Dummy> dummyProcessor,
                               ItemWriter<Dummy> dummyWriter,
                               ChunkErrorListener chunkErrorListener,
-                              ExecutionContextPromotionListener promotionListener) {
+                              RejectedLineListener rejectedLineListener,
+                              SkippedItemsReferenceListener skippedItemsReferenceListener,
+                              ExecutionContextSizeListener executionContextSizeListener,
+                              ReadThroughputListener readThroughputListener,
+                              AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
         return new StepBuilder("processDbStep", jobRepository)
-                .<ImportLine, Dummy>chunk(100, transactionManager)
+                .<ImportLine, Dummy>chunk(adaptiveChunkSizePolicy, transactionManager)
                 .reader(databaseReader)
                 .processor(dummyProcessor)
                 .writer(dummyWriter)
@@ -108,63 +178,216 @@ public class DatabaseProcessingJobConfig {
                 .skip(Exception.class) // Skip any exception thrown during processing
                 .skipLimit(10) // Fail the step after 10 skips
                 .listener(chunkErrorListener)
-                .listener(promotionListener)
+                .listener(rejectedLineListener)
+                .listener(skippedItemsReferenceListener)
+                .listener(executionContextSizeListener)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the worker step of {@link #processDbPartitionedStep}: the same chunk processing as
+     * {@link #processDbStep}, reading only the {@code IML_NUMB} range of its partition.
+     * <p>
+     * The skip limit of 10 applies to all the partitions together, through a {@link PartitionedSkipLimitPolicy},
+     * so a partitioned run tolerates as many skips as the single-threaded step.
+     *
+     * @param partitionReader    The step-scoped reader bound to the range of the partition.
+     * @param dummyProcessor     The {@link ItemProcessor} that transforms the data.
+     * @param dummyWriter        The {@link ItemWriter} that persists the transformed {@link Dummy} objects.
+     * @param chunkErrorListener The listener to capture skipped items, shared by all partitions.
+     * @param rejectedLineListener The listener to capture rejected lines, shared by all partitions.
+     * @param skippedItemsReferenceListener The listener saving the number of skipped lines in the job execution context.
+     * @param executionContextSizeListener The listener recording the serialized size of the execution contexts.
+     * @return A configured worker {@link Step}.
+     */
+    @Bean
+    public Step processDbWorkerStep(ItemReader<ImportLine> partitionReader,
+                                    ItemProcessor<ImportLine, Dummy> dummyProcessor,
+                                    ItemWriter<Dummy> dummyWriter,
+                                    ChunkErrorListener chunkErrorListener,
+                                    RejectedLineListener rejectedLineListener,
+                                    SkippedItemsReferenceListener skippedItemsReferenceListener,
+                                    ExecutionContextSizeListener executionContextSizeListener,
+                                    AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("processDbWorkerStep", jobRepository)
+                .<ImportLine, Dummy>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(partitionReader)
+                .processor(dummyProcessor)
+                .writer(dummyWriter)
+                .faultTolerant()
+                .skipPolicy(new PartitionedSkipLimitPolicy(10)) // Skip any exception, up to 10 over all partitions
+                .listener(chunkErrorListener)
+                .listener(rejectedLineListener)
+                .listener(skippedItemsReferenceListener)
+                .listener(executionContextSizeListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Creates the partitioner splitting the import lines of the {@code wstIden} job parameter into
+     * {@code IML_NUMB} ranges.
+     */
+    @Bean
+    @StepScope
+    public Partitioner importLineRangePartitioner(@Value("#{jobParameters['wstIden']}") Long wstIden) {
+        return new ImportLineRangePartitioner(jobDao, wstIden);
+    }
+
+    /**
+     * Defines the partitioned variant of {@link #processDbStep}. The import lines are split into
+     * {@code batch.partition.grid-size.dataBaseProcessingJob} contiguous {@code IML_NUMB} ranges, each processed
+     * by a {@link #processDbWorkerStep} on the bounded {@code partitionTaskExecutor}.
+     * <p>
+     * When all partitions end, their read, write and skip counts are summed into this step's execution, so the
+     * job outcome and the read throughput are computed exactly as for the single-threaded step. The step fails
+     * if any partition fails; a restart only re-runs the partitions that did not complete.
+     *
+     * @param processDbWorkerStep        The worker step run once per partition.
+     * @param importLineRangePartitioner The partitioner creating the {@code IML_NUMB} ranges.
+     * @param partitionTaskExecutor      The bounded executor running the partitions.
+     * @param readThroughputListener     The listener recording read throughput over all partitions.
+     * @return A configured partitioned {@link Step}.
+     */
+    @Bean
+    public Step processDbPartitionedStep(Step processDbWorkerStep,
+                                         Partitioner importLineRangePartitioner,
+                                         TaskExecutor partitionTaskExecutor,
+                                         ReadThroughputListener readThroughputListener) {
+        return new StepBuilder("processDbPartitionedStep", jobRepository)
+                .partitioner("processDbWorkerStep", importLineRangePartitioner)
+                .step(processDbWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(partitionTaskExecutor)
+                .listener(readThroughputListener)
+                .build();
+    }
+
+    /**
+     * Creates the write-behind pipeline of {@link #processDbPipelinedStep}: it reads through {@code databaseReader}
+     * and writes through {@code dummyWriter} on its own thread. Lines whose {@link Dummy} cannot be written are
+     * recorded by the {@link ChunkErrorListener} like any other skipped line.
+     */
+    @Bean
+    @StepScope
+    public WriteBehindPipeline<ImportLine, Dummy> writeBehindPipeline(ItemStreamReader<ImportLine> databaseReader,
+                                                                      ItemWriter<Dummy> dummyWriter,
+                                                                      ChunkErrorListener chunkErrorListener,
+                                                                      @Value("#{stepExecution.jobExecution.jobId}") Long jobInstanceId) {
+        return new WriteBehindPipeline<>(databaseReader, dummyWriter, transactionManager,
+                (line, e) -> chunkErrorListener.onSkipInWrite(jobInstanceId, line, e),
+                pipelineQueueCapacity, pipelineWriteSkipLimit);
+    }
+
+    /**
+     * Defines the pipelined variant of {@link #processDbStep}: chunks are read and processed on the step thread
+     * while the previous ones are written on the writer thread of the {@link WriteBehindPipeline}, so read and
+     * process time overlap with write time instead of adding up.
+     * <p>
+     * Processing skips behave as in {@link #processDbStep}. Write failures are retried item by item on the writer
+     * thread and skipped up to {@code batch.pipeline.write-skip-limit}. A restart re-runs the chunks that were
+     * in flight, so their lines may be written twice; see {@link WriteBehindPipeline}.
+     *
+     * @param writeBehindPipeline    The reader, writer and listener of the step (registered as a listener by the
+     *                               step builder, since it is the reader).
+     * @param dummyProcessor         The {@link ItemProcessor} that transforms the data.
+     * @param chunkErrorListener     The listener to capture skipped items.
+     * @param rejectedLineListener   The listener to capture the lines rejected by a validating processor.
+     * @param skippedItemsReferenceListener The listener saving the number of skipped lines in the job execution context.
+     * @param executionContextSizeListener The listener recording the serialized size of the execution contexts.
+     * @param readThroughputListener The listener recording read throughput, and heap high-water mark when profiling.
+     * @param adaptiveChunkSizePolicy The commit interval of the step.
+     * @return A configured pipelined {@link Step}.
+     */
+    @Bean
+    public Step processDbPipelinedStep(WriteBehindPipeline<ImportLine, Dummy> writeBehindPipeline,
+                                       ItemProcessor<ImportLine, Dummy> dummyProcessor,
+                                       ChunkErrorListener chunkErrorListener,
+                                       RejectedLineListener rejectedLineListener,
+                                       SkippedItemsReferenceListener skippedItemsReferenceListener,
+                                       ExecutionContextSizeListener executionContextSizeListener,
+                                       ReadThroughputListener readThroughputListener,
+                                       AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("processDbPipelinedStep", jobRepository)
+                .<ImportLine, ProcessedItem<ImportLine, Dummy>>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(writeBehindPipeline)
+                .processor(ProcessedItem.pairing(dummyProcessor))
+                .writer(writeBehindPipeline)
+                .faultTolerant()
+                .skip(Exception.class)
+                .noSkip(WriteBehindException.class) // A failed pipeline fails the step
+                .skipLimit(10)
+                .listener(chunkErrorListener) // The pipeline is registered as a listener for being the reader
+                .listener(rejectedLineListener)
+                .listener(skippedItemsReferenceListener)
+                .listener(executionContextSizeListener)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
                 .build();
     }
 
     /**
      * Defines a step to log all the items that were skipped in the main processing step.
-     * This step reads from the list of skipped items collected by the {@link ChunkErrorListener}
-     * and uses a {@link MyBatisBatchItemWriter} to update their status in the database.
+     * This step streams the skipped items collected by the {@link ChunkErrorListener} for this job instance
+     * and records their error text in the database with the set-based {@link ImportLineErrorWriter}. The lines
+     * themselves never go through the execution contexts: the processing step only saves their number, with the
+     * {@link SkippedItemsReferenceListener}.
      *
      * @return A configured {@link Step} for logging skipped items.
      */
     @Bean
-    public Step logSkippedItemsStep(ChunkErrorListener chunkErrorListener
-            , ItemWriter<ImportLine> skippedItemWriter) {
+    public Step logSkippedItemsStep(SkippedItemsReader skippedItemsReader
+            , ItemWriter<ImportLine> skippedItemWriter
+            , AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
         return new StepBuilder("logSkippedItemsStep", jobRepository)
-                .<ImportLine, ImportLine>chunk(100, transactionManager)
-                .reader(new ListItemReader<>(chunkErrorListener.getSkippedItems()))
+                .<ImportLine, ImportLine>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(skippedItemsReader)
                 .writer(skippedItemWriter)
+                .listener(adaptiveChunkSizePolicy)
                 .build();
     }
 
     /**
      * Defines the complete database processing job, which now consists of two steps.
-     * 1. {@code processDbStep}: Processes the main data, collecting any skipped items.
+     * 1. {@code processDbStep}: Processes the main data, collecting any skipped items. With
+     * {@code batch.processing.mode=partitioned}, {@code processDbPartitionedStep} runs instead, and with
+     * {@code batch.processing.mode=pipelined}, {@code processDbPipelinedStep}.
      * 2. {@code logSkippedItemsStep}: Persists error information for the items that were skipped.
      *
      * @param processDbStep                     The main processing step.
+     * @param processDbPartitionedStep          The partitioned variant of the main processing step.
+     * @param processDbPipelinedStep            The write-behind variant of the main processing step.
      * @param logSkippedItemsStep               The step to log skipped items.
      * @param jobCompletionNotificationListener A listener to handle job completion events.
      * @return A configured {@link Job}.
      */
     @Bean
     @JobIdentifier(value = "", description = "", uatIdf = "", prodIdf = "")
-    public Job dataBaseProcessingJob(Step processDbStep, Step logSkippedItemsStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+    public Job dataBaseProcessingJob(Step processDbStep, Step processDbPartitionedStep, Step processDbPipelinedStep, Step logSkippedItemsStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+        Step processingStep = processDbStep;
+        if (PROCESSING_MODE_PARTITIONED.equalsIgnoreCase(processingMode)) {
+            processingStep = processDbPartitionedStep;
+        } else if (PROCESSING_MODE_PIPELINED.equalsIgnoreCase(processingMode)) {
+            processingStep = processDbPipelinedStep;
+        }
         return new JobBuilder("dataBaseProcessingJob", jobRepository)
                 .listener(jobCompletionNotificationListener)
-                .start(processDbStep)
+                .start(processingStep)
                 .next(logSkippedItemsStep)
                 .build();
     }
 
-    @Bean
-    public ItemWriter<ImportLine> skippedItemWriter(SqlSessionFactory sqlSessionFactory) {
-        MyBatisBatchItemWriter<ImportLine> writer = new MyBatisBatchItemWriter<>();
-        writer.setSqlSessionFactory(sqlSessionFactory);
-        writer.setStatementId("com.barebonebatch.common.dao.JobDao.updateImportLineWithError");
-        return writer;
-    }
-
     /**
-     * Creates a listener that promotes the "skippedItems" list from the StepExecutionContext
-     * to the JobExecutionContext, making it available to subsequent steps.
+     * Records the error text of the skipped lines, {@code batch.skip.update-batch-size} lines per statement.
+     * The job of a work sharing a scan, launched with the {@code workClassName} job parameter, appends its errors,
+     * prefixed with its work, to those of the other works instead of replacing them.
      */
     @Bean
-    public ExecutionContextPromotionListener promotionListener() {
-        ExecutionContextPromotionListener listener = new ExecutionContextPromotionListener();
-        listener.setKeys(new String[]{"skippedItems"});
-        return listener;
+    @StepScope
+    public ItemWriter<ImportLine> skippedItemWriter(@Value("${batch.skip.update-batch-size:500}") int updateBatchSize,
+                                                    @Value("#{jobParameters['" + Constants.WORK_CLASS_NAME + "']}") String workClassName) {
+        return new ImportLineErrorWriter(jobDao, metricsService, updateBatchSize, workClassName);
     }
 }
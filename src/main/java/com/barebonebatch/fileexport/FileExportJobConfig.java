@@ -0,0 +1,128 @@
+package com.barebonebatch.fileexport;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.domain.Mapping;
+import com.barebonebatch.common.listener.JobCompletionNotificationListener;
+import com.barebonebatch.common.listener.ReadThroughputListener;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.service.MappingRegistry;
+import com.barebonebatch.common.util.Constants;
+import com.barebonebatch.common.writer.FixedWidthFileItemWriter;
+import com.barebonebatch.common.writer.FixedWidthRecordFormatter;
+import com.barebonebatch.dbprocessing.Dummy;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.batch.builder.MyBatisCursorItemReaderBuilder;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.DefaultJobParametersValidator;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Spring Batch configuration for the file export job: the reverse of the file processing job. The rows of
+ * {@code DUMMY} are streamed through a cursor and written to the {@code outputFile} job parameter as fixed-width
+ * records laid out by the {@code batch.export.mapping-id} mapping, the same mapping the import reads them with.
+ */
+@Configuration
+public class FileExportJobConfig {
+
+    public static final String OUTPUT_FILE = "outputFile";
+
+    @Autowired
+    private MappingRegistry mappingRegistry;
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Creates the reader of the {@code DUMMY} rows: one query streamed with the fetch size of the database
+     * profile. A restart re-reads and discards the rows before the last commit, in the same order.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<Dummy> dummyExportReader(SqlSessionFactory sqlSessionFactory) {
+        return new MyBatisCursorItemReaderBuilder<Dummy>()
+                .sqlSessionFactory(sqlSessionFactory)
+                .queryId("com.barebonebatch.common.dao.JobDao.getDummiesCursor")
+                .build();
+    }
+
+    /**
+     * Creates the writer of the {@code outputFile} job parameter, encoding records with {@code batch.file.charset}
+     * through a buffer of {@code batch.export.buffer-size} bytes. The records are laid out by the mapping of the
+     * {@code mappingId} job parameter, or {@code batch.export.mapping-id} by default, as cached by the
+     * {@link MappingRegistry}.
+     *
+     * @throws NoSuchMethodException if a getter of the mapping does not exist on {@link Dummy}.
+     */
+    @Bean
+    @StepScope
+    public FixedWidthFileItemWriter<Dummy> dummyFileWriter(@Value("#{jobParameters['" + OUTPUT_FILE + "']}") String outputFile,
+                                                           @Value("#{jobParameters['" + Constants.MAPPING_ID + "'] ?: '${batch.export.mapping-id:mapping_1}'}") String mappingId,
+                                                           @Value("${batch.file.charset:UTF-8}") String charset,
+                                                           @Value("${batch.export.buffer-size:8388608}") int bufferSize) throws NoSuchMethodException {
+        Mapping mapping = mappingRegistry.getMapping(mappingId);
+        FixedWidthFileItemWriter<Dummy> writer = new FixedWidthFileItemWriter<>();
+        writer.setFile(Path.of(outputFile));
+        writer.setCharset(Charset.forName(charset));
+        writer.setBufferSize(bufferSize);
+        writer.setFormatter(new FixedWidthRecordFormatter<>(Dummy.class, mapping.getFields()));
+        writer.afterPropertiesSet();
+        return writer;
+    }
+
+    /**
+     * Defines the export step. Every commit is a checkpoint of the output file, so a restart resumes after the
+     * last committed record.
+     *
+     * @param dummyExportReader       The cursor reader of the rows.
+     * @param dummyFileWriter         The writer of the records, also a listener of the step.
+     * @param readThroughputListener  The listener recording read throughput, and heap high-water mark when profiling.
+     * @param adaptiveChunkSizePolicy The commit interval of the step.
+     * @return A configured {@link Step}.
+     */
+    @Bean
+    public Step exportFileStep(ItemStreamReader<Dummy> dummyExportReader,
+                               FixedWidthFileItemWriter<Dummy> dummyFileWriter,
+                               ReadThroughputListener readThroughputListener,
+                               AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("exportFileStep", jobRepository)
+                .<Dummy, Dummy>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(dummyExportReader)
+                .writer(dummyFileWriter)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the file export job. The {@code outputFile} job parameter is required.
+     *
+     * @param exportFileStep                    The export step.
+     * @param jobCompletionNotificationListener A listener to handle job completion events.
+     * @return A configured {@link Job}.
+     */
+    @Bean
+    @JobIdentifier(value = "DEV_FILE_EXPORT", description = "Exports the DUMMY rows to a fixed-width file",
+            uatIdf = "UAT_FILE_EXPORT", prodIdf = "PROD_FILE_EXPORT")
+    public Job fileExportJob(Step exportFileStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+        return new JobBuilder("fileExportJob", jobRepository)
+                .validator(new DefaultJobParametersValidator(new String[]{OUTPUT_FILE}, new String[0]))
+                .listener(jobCompletionNotificationListener)
+                .start(exportFileStep)
+                .build();
+    }
+}
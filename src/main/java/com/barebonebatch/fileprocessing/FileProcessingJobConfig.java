@@ -0,0 +1,132 @@
+package com.barebonebatch.fileprocessing;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.listener.ChunkErrorListener;
+import com.barebonebatch.common.listener.JobCompletionNotificationListener;
+import com.barebonebatch.common.listener.ReadThroughputListener;
+import com.barebonebatch.common.listener.RejectedLineListener;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.reader.GzipImportLineReader;
+import com.barebonebatch.common.reader.MappedFileImportLineReader;
+import com.barebonebatch.common.validator.FileJobParametersValidator;
+import com.barebonebatch.dbprocessing.Dummy;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Spring Batch configuration for the file processing job: the file-direct variant of the database processing
+ * job. The lines of the {@code inputFile} job parameter are read from a memory-mapped view of the file, or
+ * decompressed as a stream if it is gzip-compressed, and mapped by the same {@code dummyProcessor}, without being
+ * staged into IMPORT_LINE first.
+ */
+@Configuration
+public class FileProcessingJobConfig {
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Creates the reader of the {@code inputFile} job parameter, decoding lines with {@code batch.file.charset}.
+     * A gzip-compressed file is decompressed as a stream through a {@code batch.file.gzip-buffer-size} buffer;
+     * any other file is memory-mapped {@code batch.file.window-size} bytes at a time.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<ImportLine> fileReader(@Value("#{jobParameters['inputFile']}") String inputFile,
+                                                   @Value("${batch.file.charset:UTF-8}") String charset,
+                                                   @Value("${batch.file.window-size:268435456}") int windowSize,
+                                                   @Value("${batch.file.gzip-buffer-size:1048576}") int gzipBufferSize) throws IOException {
+        Path file = Path.of(inputFile);
+        if (GzipImportLineReader.isGzip(file)) {
+            GzipImportLineReader reader = new GzipImportLineReader();
+            reader.setFile(file);
+            reader.setCharset(Charset.forName(charset));
+            reader.setBufferSize(gzipBufferSize);
+            reader.afterPropertiesSet();
+            return reader;
+        }
+        MappedFileImportLineReader reader = new MappedFileImportLineReader();
+        reader.setFile(file);
+        reader.setCharset(Charset.forName(charset));
+        reader.setWindowSize(windowSize);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    /**
+     * Defines the processing step of the file: the same chunk processing as {@code processDbStep}, reading the
+     * lines from the file instead of IMPORT_LINE. Skipped lines have no IMPORT_LINE row to record their error
+     * in, so they are only logged, with their line number, by the {@link ChunkErrorListener}, as are the lines
+     * rejected by a validating processor by the {@link RejectedLineListener}.
+     *
+     * @param fileReader             The reader of the input file.
+     * @param dummyProcessor         The {@link ItemProcessor} that transforms the lines.
+     * @param dummyWriter            The {@link ItemWriter} that persists the transformed {@link Dummy} objects.
+     * @param chunkErrorListener     The listener to capture skipped items.
+     * @param rejectedLineListener   The listener to capture the lines rejected by a validating processor.
+     * @param readThroughputListener The listener recording read throughput, and heap high-water mark when profiling.
+     * @param adaptiveChunkSizePolicy The commit interval of the step.
+     * @return A configured {@link Step}.
+     */
+    @Bean
+    public Step processFileStep(ItemStreamReader<ImportLine> fileReader,
+                                ItemProcessor<ImportLine, Dummy> dummyProcessor,
+                                ItemWriter<Dummy> dummyWriter,
+                                ChunkErrorListener chunkErrorListener,
+                                RejectedLineListener rejectedLineListener,
+                                ReadThroughputListener readThroughputListener,
+                                AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("processFileStep", jobRepository)
+                .<ImportLine, Dummy>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(fileReader)
+                .processor(dummyProcessor)
+                .writer(dummyWriter)
+                .faultTolerant()
+                .skip(Exception.class)
+                .skipLimit(10)
+                .listener(chunkErrorListener)
+                .listener(rejectedLineListener)
+                .listener(readThroughputListener)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the file processing job. The {@code inputFile} job parameter is checked by the
+     * {@link FileJobParametersValidator} before the job starts.
+     *
+     * @param processFileStep                   The processing step of the file.
+     * @param jobCompletionNotificationListener A listener to handle job completion events.
+     * @return A configured {@link Job}.
+     */
+    @Bean
+    @JobIdentifier(value = "DEV_FILE_PROCESSING", description = "Processes the lines of an input file",
+            uatIdf = "UAT_FILE_PROCESSING", prodIdf = "PROD_FILE_PROCESSING")
+    public Job fileProcessingJob(Step processFileStep, JobCompletionNotificationListener jobCompletionNotificationListener) {
+        return new JobBuilder("fileProcessingJob", jobRepository)
+                .validator(new FileJobParametersValidator())
+                .listener(jobCompletionNotificationListener)
+                .start(processFileStep)
+                .build();
+    }
+}
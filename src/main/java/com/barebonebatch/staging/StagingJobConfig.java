@@ -0,0 +1,239 @@
+package com.barebonebatch.staging;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.domain.WorkStatus;
+import com.barebonebatch.common.listener.StagingThroughputListener;
+import com.barebonebatch.common.partition.FileRangePartitioner;
+import com.barebonebatch.common.policy.AdaptiveChunkSizePolicy;
+import com.barebonebatch.common.reader.GzipImportLineReader;
+import com.barebonebatch.common.reader.MappedFileImportLineReader;
+import com.barebonebatch.common.util.Constants;
+import com.barebonebatch.common.validator.FileJobParametersValidator;
+import lombok.extern.log4j.Log4j2;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.batch.MyBatisBatchItemWriter;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Spring Batch configuration for the staging job, which loads a file into IMPORT_LINE and queues it for the
+ * {@link com.barebonebatch.common.scheduler.JobScheduler}.
+ * <p>
+ * Job parameters: {@code inputFile} (required), {@code fileIden} (the WST_FILE_IDEN of the WORK_STATUS, the
+ * file name by default) and {@code workIden} (its WST_WORK_IDEN, optional).
+ * <ol>
+ *     <li>{@code createStagingWorkStatusStep}: creates the WORK_STATUS in the STAGING state, which the scheduler
+ *     ignores, and keeps its WST_IDEN in the job execution context.</li>
+ *     <li>{@code stageFileStep}: splits the file into line-aligned byte ranges loaded in parallel.</li>
+ *     <li>{@code releaseStagedWorkStatusStep}: moves the WORK_STATUS to pending ({@code 10}), only once every
+ *     line is loaded.</li>
+ * </ol>
+ * A failed load leaves the WORK_STATUS in the STAGING state; a restart resumes each range after its last
+ * committed line.
+ */
+@Configuration
+@Log4j2
+public class StagingJobConfig {
+
+    public static final String FILE_IDEN = "fileIden";
+    public static final String WORK_IDEN = "workIden";
+
+    @Autowired
+    private JobDao jobDao;
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${batch.partition.grid-size.stagingJob:4}")
+    private int gridSize;
+
+    /**
+     * Defines the step creating the WORK_STATUS of the file in the STAGING state. On a restart, the WORK_STATUS
+     * created by the previous execution is kept.
+     */
+    @Bean
+    public Step createStagingWorkStatusStep() {
+        return new StepBuilder("createStagingWorkStatusStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+                    if (jobContext.containsKey(Constants.WST_IDEN)) {
+                        return RepeatStatus.FINISHED;
+                    }
+                    JobParameters parameters = chunkContext.getStepContext().getStepExecution().getJobParameters();
+                    String inputFile = parameters.getString("inputFile");
+                    String fileIden = parameters.getString(FILE_IDEN, Path.of(inputFile).getFileName().toString());
+
+                    WorkStatus workStatus = new WorkStatus();
+                    workStatus.setWstFileIden(fileIden);
+                    workStatus.setWstWorkIden(parameters.getString(WORK_IDEN));
+                    workStatus.setWstStatCode(Constants.STAGING);
+                    jobDao.insertWorkStatus(workStatus);
+                    jobContext.putInt(Constants.WST_IDEN, workStatus.getWstIden());
+                    log.info("Staging {} into WORK_STATUS {}", inputFile, workStatus.getWstIden());
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    /**
+     * Creates the partitioner splitting the {@code inputFile} job parameter into line-aligned byte ranges.
+     */
+    @Bean
+    @StepScope
+    public Partitioner fileRangePartitioner(@Value("#{jobParameters['inputFile']}") String inputFile) {
+        return new FileRangePartitioner(Path.of(inputFile));
+    }
+
+    /**
+     * Creates the reader of one range of the {@code inputFile} job parameter, numbering its lines as in the whole
+     * file and tagging them with the WORK_STATUS being staged. A gzip-compressed file has a single range, read
+     * by decompressing the file as a stream.
+     */
+    @Bean
+    @StepScope
+    public ItemStreamReader<ImportLine> stagingFileReader(@Value("#{jobParameters['inputFile']}") String inputFile,
+                                                          @Value("#{jobExecutionContext['" + Constants.WST_IDEN + "']}") Integer wstIden,
+                                                          @Value("#{stepExecutionContext['" + FileRangePartitioner.START_OFFSET + "']}") Long startOffset,
+                                                          @Value("#{stepExecutionContext['" + FileRangePartitioner.END_OFFSET + "']}") Long endOffset,
+                                                          @Value("#{stepExecutionContext['" + FileRangePartitioner.FIRST_LINE_NUMBER + "']}") Integer firstLineNumber,
+                                                          @Value("${batch.file.charset:UTF-8}") String charset,
+                                                          @Value("${batch.file.window-size:268435456}") int windowSize,
+                                                          @Value("${batch.file.gzip-buffer-size:1048576}") int gzipBufferSize) throws IOException {
+        Path file = Path.of(inputFile);
+        if (GzipImportLineReader.isGzip(file)) {
+            GzipImportLineReader reader = new GzipImportLineReader();
+            reader.setFile(file);
+            reader.setCharset(Charset.forName(charset));
+            reader.setBufferSize(gzipBufferSize);
+            reader.setWstIden(wstIden);
+            reader.afterPropertiesSet();
+            return reader;
+        }
+        MappedFileImportLineReader reader = new MappedFileImportLineReader();
+        reader.setFile(file);
+        reader.setCharset(Charset.forName(charset));
+        reader.setWindowSize(windowSize);
+        reader.setRange(startOffset, endOffset, firstLineNumber);
+        reader.setWstIden(wstIden);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    /**
+     * Inserts the lines with JDBC batches of single-row INSERTs, rewritten into multi-row statements by the MySQL
+     * driver with {@code rewriteBatchedStatements}.
+     */
+    @Bean
+    public ItemWriter<ImportLine> importLineWriter(SqlSessionFactory sqlSessionFactory) {
+        MyBatisBatchItemWriter<ImportLine> writer = new MyBatisBatchItemWriter<>();
+        writer.setStatementId("com.barebonebatch.common.dao.JobDao.insertImportLine");
+        writer.setSqlSessionFactory(sqlSessionFactory);
+        return writer;
+    }
+
+    /**
+     * Defines the worker step of {@link #stageFileStep}, loading one range of the file.
+     *
+     * @param stagingFileReader       The step-scoped reader bound to the range of the partition.
+     * @param importLineWriter        The writer inserting the lines.
+     * @param adaptiveChunkSizePolicy The commit interval of the step.
+     * @return A configured worker {@link Step}.
+     */
+    @Bean
+    public Step stageFileWorkerStep(ItemStreamReader<ImportLine> stagingFileReader,
+                                    ItemWriter<ImportLine> importLineWriter,
+                                    AdaptiveChunkSizePolicy adaptiveChunkSizePolicy) {
+        return new StepBuilder("stageFileWorkerStep", jobRepository)
+                .<ImportLine, ImportLine>chunk(adaptiveChunkSizePolicy, transactionManager)
+                .reader(stagingFileReader)
+                .writer(importLineWriter)
+                .listener(adaptiveChunkSizePolicy)
+                .build();
+    }
+
+    /**
+     * Defines the load of the file: {@code batch.partition.grid-size.stagingJob} ranges, each loaded by a
+     * {@link #stageFileWorkerStep} on the bounded {@code partitionTaskExecutor}. The step fails if any range
+     * fails, and its write count is the number of lines staged.
+     *
+     * @param stageFileWorkerStep       The worker step run once per range.
+     * @param fileRangePartitioner      The partitioner creating the ranges.
+     * @param partitionTaskExecutor     The bounded executor running the ranges.
+     * @param stagingThroughputListener The listener recording the lines staged per second.
+     * @return A configured partitioned {@link Step}.
+     */
+    @Bean
+    public Step stageFileStep(Step stageFileWorkerStep,
+                              Partitioner fileRangePartitioner,
+                              TaskExecutor partitionTaskExecutor,
+                              StagingThroughputListener stagingThroughputListener) {
+        return new StepBuilder("stageFileStep", jobRepository)
+                .partitioner("stageFileWorkerStep", fileRangePartitioner)
+                .step(stageFileWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(partitionTaskExecutor)
+                .listener(stagingThroughputListener)
+                .build();
+    }
+
+    /**
+     * Defines the step moving the staged WORK_STATUS to pending, so the scheduler picks it up.
+     */
+    @Bean
+    public Step releaseStagedWorkStatusStep() {
+        return new StepBuilder("releaseStagedWorkStatusStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    ExecutionContext jobContext = chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext();
+                    Integer wstIden = jobContext.getInt(Constants.WST_IDEN);
+                    if (jobDao.updateWorkStatusStatCode(wstIden, Constants.STAGING, Constants.PENDING) == 0) {
+                        log.warn("WORK_STATUS {} was no longer in the STAGING state", wstIden);
+                    } else {
+                        log.info("WORK_STATUS {} staged and pending", wstIden);
+                    }
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    /**
+     * Defines the staging job. The {@code inputFile} job parameter is checked by the
+     * {@link FileJobParametersValidator} before the job starts.
+     *
+     * @return A configured {@link Job}.
+     */
+    @Bean
+    @JobIdentifier(value = "DEV_STAGING", description = "Loads an input file into IMPORT_LINE and queues it for the scheduler",
+            uatIdf = "UAT_STAGING", prodIdf = "PROD_STAGING")
+    public Job stagingJob(Step createStagingWorkStatusStep, Step stageFileStep, Step releaseStagedWorkStatusStep) {
+        return new JobBuilder("stagingJob", jobRepository)
+                .validator(new FileJobParametersValidator())
+                .start(createStagingWorkStatusStep)
+                .next(stageFileStep)
+                .next(releaseStagedWorkStatusStep)
+                .build();
+    }
+}
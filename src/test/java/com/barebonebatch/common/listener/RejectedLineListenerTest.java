@@ -0,0 +1,98 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.exception.RejectionLimitExceededException;
+import com.barebonebatch.common.service.SkippedItemStore;
+import com.barebonebatch.common.util.Constants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RejectedLineListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void completesTheJobWithErrorsWhenLinesAreRejected() {
+        // given
+        RejectedLineListener listener = new RejectedLineListener(new SkippedItemStore(tempDir.toString(), 100), 10);
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+        jobExecution.setExitStatus(ExitStatus.COMPLETED);
+        StepExecution stepExecution = jobExecution.createStepExecution("processFileStep");
+
+        // when
+        reject(listener, stepExecution, 2);
+        reject(listener, stepExecution, 1);
+
+        // then
+        assertThat(RejectedLineListener.rejectedCount(stepExecution)).isEqualTo(3L);
+        JobCompletionNotificationListener.Outcome outcome = JobCompletionNotificationListener.outcomeOf(jobExecution);
+        assertThat(outcome.status()).isEqualTo(Constants.SUCCESS_WITH_ERRORS);
+        assertThat(outcome.message()).isEqualTo("Job completed with 3 rejected lines.");
+    }
+
+    @Test
+    void failsOnceAllPartitionsRejectedMoreThanTheLimit() {
+        // given 6 rejected lines in another partition of the step
+        RejectedLineListener listener = new RejectedLineListener(new SkippedItemStore(tempDir.toString(), 100), 10);
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+        reject(listener, jobExecution.createStepExecution("processDbWorkerStep:partition0"), 6);
+        StepExecution current = jobExecution.createStepExecution("processDbWorkerStep:partition1");
+
+        // when / then
+        reject(listener, current, 4);
+        assertThatThrownBy(() -> reject(listener, current, 1))
+                .isInstanceOf(RejectionLimitExceededException.class)
+                .hasMessageContaining("rejected 11 lines");
+    }
+
+    @Test
+    void countsRejectedLinesBeforeTheChunkCommitsAndUncountsRolledBackChunks() {
+        // given
+        RejectedLineListener listener = new RejectedLineListener(new SkippedItemStore(tempDir.toString(), 100), 10);
+        StepExecution stepExecution = new JobExecution(1L, new JobParameters()).createStepExecution("processFileStep");
+        reject(listener, stepExecution, 2);
+        ChunkContext context = new ChunkContext(new StepContext(stepExecution));
+
+        // when a chunk rejects 3 lines
+        listener.beforeChunk(context);
+        processRejected(listener, 3);
+
+        // then they are counted before the commit saves the execution context
+        assertThat(RejectedLineListener.rejectedCount(stepExecution)).isEqualTo(5L);
+
+        // when the chunk rolls back
+        listener.afterChunkError(context);
+
+        // then
+        assertThat(RejectedLineListener.rejectedCount(stepExecution)).isEqualTo(2L);
+    }
+
+    private static void reject(RejectedLineListener listener, StepExecution stepExecution, int count) {
+        ChunkContext context = new ChunkContext(new StepContext(stepExecution));
+        listener.beforeChunk(context);
+        processRejected(listener, count);
+        listener.afterChunk(context);
+    }
+
+    private static void processRejected(RejectedLineListener listener, int count) {
+        for (int i = 1; i <= count; i++) {
+            // Lines read from a file, only logged
+            ImportLine line = new ImportLine();
+            line.setImlNumb(i);
+            line.setImlErroText("Line is shorter than max range 20");
+            listener.afterProcess(line, null);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.barebonebatch.common.listener;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.service.SkippedItemStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkippedItemsReferenceListenerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void jobContextSizeDoesNotGrowWithSkippedLines() {
+        // given
+        SkippedItemStore store = new SkippedItemStore(tempDir.toString(), 100);
+        SkippedItemsReferenceListener listener = new SkippedItemsReferenceListener(store);
+        ExecutionContextSizeListener sizeListener = new ExecutionContextSizeListener(
+                new BaseBatchMetricsService(new SimpleMeterRegistry()),
+                new StaticListableBeanFactory().getBeanProvider(ExecutionContextSerializer.class), 0);
+        StepExecution few = stepExecution(1L);
+        StepExecution many = stepExecution(2L);
+        addSkippedLines(store, 1L, 10);
+        addSkippedLines(store, 2L, 10_000);
+
+        // when
+        listener.afterStep(few);
+        listener.afterStep(many);
+
+        // then
+        assertThat(many.getJobExecution().getExecutionContext().getLong(SkippedItemsReferenceListener.COUNT)).isEqualTo(10_000L);
+        assertThat(many.getJobExecution().getExecutionContext().getString(SkippedItemsReferenceListener.SPILL_FILE))
+                .isEqualTo(store.sinkFor(2L).getSpillFile().toString());
+        long fewSize = sizeListener.serializedSize(few.getJobExecution().getExecutionContext());
+        long manySize = sizeListener.serializedSize(many.getJobExecution().getExecutionContext());
+        assertThat(fewSize).isPositive();
+        assertThat(manySize).isLessThanOrEqualTo(fewSize + 8);
+        store.release(1L, true);
+        store.release(2L, true);
+    }
+
+    private static void addSkippedLines(SkippedItemStore store, Long jobInstanceId, int count) {
+        for (int i = 1; i <= count; i++) {
+            ImportLine line = new ImportLine();
+            line.setImlIden(i);
+            line.setImlNumb(i);
+            line.setImlErroText("Unparseable number in line " + i);
+            store.sinkFor(jobInstanceId).add(line);
+        }
+    }
+
+    private static StepExecution stepExecution(Long jobInstanceId) {
+        JobExecution jobExecution = new JobExecution(new JobInstance(jobInstanceId, "dataBaseProcessingJob"), jobInstanceId, new JobParameters());
+        return new StepExecution("processDbStep", jobExecution);
+    }
+}
@@ -0,0 +1,109 @@
+package com.barebonebatch.common.partition;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.reader.MappedFileImportLineReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangePartitionerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsEveryLineOnceWithItsFileLineNumber() throws Exception {
+        // given
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 100; i++) {
+            content.append("line ").append(i).append(i % 7 == 0 ? " with some more text" : "").append('\n');
+        }
+        content.append("last line without line feed");
+        Path file = Files.writeString(directory.resolve("input.txt"), content);
+
+        // when
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file).partition(6);
+
+        // then
+        assertThat(partitions).hasSize(6);
+        List<ImportLine> lines = new ArrayList<>();
+        for (ExecutionContext partition : partitions.values()) {
+            lines.addAll(read(file, partition));
+        }
+        assertThat(lines).extracting(ImportLine::getImlNumb).doesNotHaveDuplicates().hasSize(101);
+        for (ImportLine line : lines) {
+            int number = line.getImlNumb();
+            String expected = number == 101 ? "last line without line feed"
+                    : "line " + number + (number % 7 == 0 ? " with some more text" : "");
+            assertThat(line.getImlText()).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void createsFewerPartitionsThanGridSizeForLongLines() throws Exception {
+        // given
+        Path file = Files.writeString(directory.resolve("input.txt"), "a very long first line\nb\n");
+
+        // when
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file).partition(10);
+
+        // then
+        assertThat(partitions).hasSize(2);
+        assertThat(partitions.get("partition1").getInt(FileRangePartitioner.FIRST_LINE_NUMBER)).isEqualTo(2);
+    }
+
+    @Test
+    void createsSingleEmptyPartitionForEmptyFile() throws Exception {
+        // given
+        Path file = Files.writeString(directory.resolve("input.txt"), "");
+
+        // when
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file).partition(4);
+
+        // then
+        assertThat(partitions).hasSize(1);
+        assertThat(read(file, partitions.get("partition0"))).isEmpty();
+    }
+
+    @Test
+    void createsSinglePartitionForGzipFile() throws Exception {
+        // given
+        Path file = directory.resolve("input.txt.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write("a\nb\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // when
+        Map<String, ExecutionContext> partitions = new FileRangePartitioner(file).partition(4);
+
+        // then
+        assertThat(partitions).hasSize(1);
+        assertThat(partitions.get("partition0").getLong(FileRangePartitioner.END_OFFSET)).isEqualTo(-1L);
+    }
+
+    private static List<ImportLine> read(Path file, ExecutionContext partition) throws Exception {
+        MappedFileImportLineReader reader = new MappedFileImportLineReader();
+        reader.setFile(file);
+        reader.setRange(partition.getLong(FileRangePartitioner.START_OFFSET), partition.getLong(FileRangePartitioner.END_OFFSET),
+                partition.getInt(FileRangePartitioner.FIRST_LINE_NUMBER));
+        reader.afterPropertiesSet();
+        List<ImportLine> lines = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        for (ImportLine line = reader.read(); line != null; line = reader.read()) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+}
@@ -0,0 +1,75 @@
+package com.barebonebatch.common.partition;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLineRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImportLineRangePartitionerTest {
+
+    @Test
+    void splitsLinesIntoContiguousRanges() {
+        // given
+        ImportLineRangePartitioner partitioner = partitioner(range(1, 10, 10L));
+
+        // when
+        Map<String, ExecutionContext> partitions = partitioner.partition(3);
+
+        // then
+        assertThat(partitions).hasSize(3);
+        assertThat(bounds(partitions.get("partition0"))).containsExactly(1, 4);
+        assertThat(bounds(partitions.get("partition1"))).containsExactly(5, 8);
+        assertThat(bounds(partitions.get("partition2"))).containsExactly(9, 10);
+    }
+
+    @Test
+    void createsNoMorePartitionsThanLines() {
+        // given
+        ImportLineRangePartitioner partitioner = partitioner(range(7, 8, 2L));
+
+        // when
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // then
+        assertThat(partitions).hasSize(2);
+        assertThat(bounds(partitions.get("partition0"))).containsExactly(7, 7);
+        assertThat(bounds(partitions.get("partition1"))).containsExactly(8, 8);
+    }
+
+    @Test
+    void createsSingleUnboundedPartitionWithoutLines() {
+        // given
+        ImportLineRangePartitioner partitioner = partitioner(range(null, null, 0L));
+
+        // when
+        Map<String, ExecutionContext> partitions = partitioner.partition(4);
+
+        // then
+        assertThat(partitions).hasSize(1);
+        assertThat(partitions.get("partition0").isEmpty()).isTrue();
+    }
+
+    private static ImportLineRangePartitioner partitioner(ImportLineRange range) {
+        JobDao jobDao = mock(JobDao.class);
+        when(jobDao.getImportLineRange(1L)).thenReturn(range);
+        return new ImportLineRangePartitioner(jobDao, 1L);
+    }
+
+    private static ImportLineRange range(Integer min, Integer max, Long count) {
+        ImportLineRange range = new ImportLineRange();
+        range.setMinImlNumb(min);
+        range.setMaxImlNumb(max);
+        range.setLineCount(count);
+        return range;
+    }
+
+    private static Integer[] bounds(ExecutionContext context) {
+        return new Integer[]{context.getInt(ImportLineRangePartitioner.MIN_IML_NUMB), context.getInt(ImportLineRangePartitioner.MAX_IML_NUMB)};
+    }
+}
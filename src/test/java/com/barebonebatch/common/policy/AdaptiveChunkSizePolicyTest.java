@@ -0,0 +1,62 @@
+package com.barebonebatch.common.policy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveChunkSizePolicyTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final AdaptiveChunkSizePolicy policy = new AdaptiveChunkSizePolicy(100, 10, 1000, 1000, true, null);
+
+    @Test
+    void growsFastChunksAtMostTwofold() {
+        // given 100 items in 10 ms: 10k items would fit the 1 s target
+
+        // when
+        int next = policy.nextSize(100, 100, 10 * MILLIS);
+
+        // then
+        assertThat(next).isEqualTo(200);
+    }
+
+    @Test
+    void movesHalfwayTowardsTarget() {
+        // given 100 items in 500 ms: 200 items would fit the 1 s target
+
+        // when
+        int next = policy.nextSize(100, 100, 500 * MILLIS);
+
+        // then
+        assertThat(next).isEqualTo(150);
+    }
+
+    @Test
+    void shrinksSlowChunksWithinBounds() {
+        // given 12 items in 10 s: halfway to the ideal size is below the minimum
+
+        // when
+        int next = policy.nextSize(12, 12, 10_000 * MILLIS);
+
+        // then
+        assertThat(next).isEqualTo(10);
+    }
+
+    @Test
+    void neverExceedsMaximum() {
+        // when
+        int next = policy.nextSize(900, 900, MILLIS);
+
+        // then
+        assertThat(next).isEqualTo(1000);
+    }
+
+    @Test
+    void rejectsInitialSizeOutsideBounds() {
+        // when / then
+        assertThatThrownBy(() -> new AdaptiveChunkSizePolicy(5, 10, 1000, 1000, true, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
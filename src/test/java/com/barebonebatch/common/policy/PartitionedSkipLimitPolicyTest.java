@@ -0,0 +1,51 @@
+package com.barebonebatch.common.policy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.core.step.skip.SkipLimitExceededException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionedSkipLimitPolicyTest {
+
+    private final PartitionedSkipLimitPolicy policy = new PartitionedSkipLimitPolicy(10);
+
+    @AfterEach
+    void closeStepContext() {
+        StepSynchronizationManager.close();
+    }
+
+    @Test
+    void countsTheSkipsOfAllPartitions() {
+        // given 4 skips in each of two other partitions of the step, and 1 in another step
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+        jobExecution.createStepExecution("processDbWorkerStep:partition0").setProcessSkipCount(4);
+        jobExecution.createStepExecution("processDbWorkerStep:partition1").setWriteSkipCount(4);
+        jobExecution.createStepExecution("otherWorkerStep:partition0").setProcessSkipCount(1);
+        StepExecution current = jobExecution.createStepExecution("processDbWorkerStep:partition2");
+        StepSynchronizationManager.register(current);
+
+        // when / then
+        assertThat(policy.shouldSkip(new IllegalArgumentException("bad line"), 1)).isTrue();
+        assertThatThrownBy(() -> policy.shouldSkip(new IllegalArgumentException("bad line"), 2))
+                .isInstanceOf(SkipLimitExceededException.class);
+    }
+
+    @Test
+    void neverSkipsErrors() {
+        // given
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+        StepSynchronizationManager.register(jobExecution.createStepExecution("processDbWorkerStep:partition0"));
+
+        // when
+        boolean skipped = policy.shouldSkip(new OutOfMemoryError(), 0);
+
+        // then
+        assertThat(skipped).isFalse();
+    }
+}
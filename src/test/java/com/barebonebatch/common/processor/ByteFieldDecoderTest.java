@@ -0,0 +1,82 @@
+package com.barebonebatch.common.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteFieldDecoderTest {
+
+    private static final char[] IBM037 = ByteFieldDecoder.table(Charset.forName("IBM037"));
+
+    @Test
+    void readsPackedDecimals() {
+        assertThat(ByteFieldDecoder.readPacked(bytes(0x12, 0x34, 0x5C), 0, 3, 2)).isEqualTo(new BigDecimal("123.45"));
+        assertThat(ByteFieldDecoder.readPacked(bytes(0x00, 0x42, 0x1D), 0, 3, 0)).isEqualTo(new BigDecimal("-421"));
+        assertThat(ByteFieldDecoder.readPacked(bytes(0x0F), 0, 1, 0)).isEqualTo(BigDecimal.ZERO);
+        assertThat(ByteFieldDecoder.readPacked(bytes(0x40, 0x40), 0, 2, 0)).isNull();
+        assertThat(ByteFieldDecoder.readPacked(bytes(0x12, 0x34, 0x56, 0x78, 0x90, 0x12, 0x34, 0x56, 0x78, 0x90, 0x1D), 0, 11, 3))
+                .isEqualTo(new BigDecimal("-123456789012345678.901"));
+    }
+
+    @Test
+    void readsZonedDecimals() {
+        assertThat(ByteFieldDecoder.readZoned(bytes(0xF0, 0xF1, 0xF2, 0xC5), 0, 4, 1)).isEqualTo(new BigDecimal("12.5"));
+        assertThat(ByteFieldDecoder.readZoned(bytes(0xF4, 0xD2), 0, 2, 0)).isEqualTo(new BigDecimal("-42"));
+        assertThat(ByteFieldDecoder.readZoned(bytes(0xF1, 0xF2, 0xF3), 0, 3, 0)).isEqualTo(new BigDecimal("123"));
+        assertThat(ByteFieldDecoder.readZoned(bytes(0x40, 0x40), 0, 2, 0)).isNull();
+    }
+
+    @Test
+    void readsBinaryIntegersBigEndian() {
+        assertThat(ByteFieldDecoder.readBinary(bytes(0x01, 0x00), 0, 2)).isEqualTo(256L);
+        assertThat(ByteFieldDecoder.readBinary(bytes(0xFF, 0xFE), 0, 2)).isEqualTo(-2L);
+        assertThat(ByteFieldDecoder.readBinary(bytes(0x00, 0x00, 0x30, 0x39), 0, 4)).isEqualTo(12345L);
+        assertThat(ByteFieldDecoder.readBinary(bytes(0x80, 0, 0, 0, 0, 0, 0, 0), 0, 8)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void readsTrimmedEbcdicStrings() {
+        // "  AbC1  " in EBCDIC
+        byte[] record = bytes(0x40, 0x40, 0xC1, 0x82, 0xC3, 0xF1, 0x40, 0x40);
+
+        assertThat(ByteFieldDecoder.readString(record, 0, 8, IBM037)).isEqualTo("AbC1");
+        assertThat(ByteFieldDecoder.readString(record, 6, 8, IBM037)).isEmpty();
+        assertThat(ByteFieldDecoder.isBlank(record, 6, 8)).isTrue();
+    }
+
+    @Test
+    void decodesLikeTheTextOfTheSameValues() {
+        // given: the same amount, packed and as EBCDIC text
+        byte[] packed = bytes(0x09, 0x87, 0x65, 0x43, 0x2D);
+        byte[] text = "-98765.432".getBytes(Charset.forName("IBM037"));
+
+        // when
+        BigDecimal fromBytes = ByteFieldDecoder.readPacked(packed, 0, packed.length, 3);
+        String decoded = ByteFieldDecoder.readString(text, 0, text.length, IBM037);
+        BigDecimal fromText = FixedWidthDecoder.readBigDecimal(decoded, 0, decoded.length());
+
+        // then
+        assertThat(fromBytes).isEqualTo(fromText);
+    }
+
+    @Test
+    void rejectsMalformedNumbers() {
+        assertThatThrownBy(() -> ByteFieldDecoder.readPacked(bytes(0x1A, 0x2C), 0, 2, 0)).isInstanceOf(NumberFormatException.class)
+                .hasMessageContaining("x'1A2C'");
+        assertThatThrownBy(() -> ByteFieldDecoder.readPacked(bytes(0x12, 0x34), 0, 2, 0)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> ByteFieldDecoder.readZoned(bytes(0xF1, 0xC1, 0xF2), 0, 3, 0)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> ByteFieldDecoder.readBinary(new byte[9], 0, 9)).isInstanceOf(NumberFormatException.class);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,52 @@
+package com.barebonebatch.common.processor;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedWidthDecoderTest {
+
+    @Test
+    void readsTrimmedRanges() {
+        String line = "  abc  |  -42|1,234|   ";
+
+        assertThat(FixedWidthDecoder.readString(line, 0, 7)).isEqualTo("abc");
+        assertThat(FixedWidthDecoder.readInt(line, 8, 13)).isEqualTo(-42);
+        assertThat(FixedWidthDecoder.readLong(line, 14, 19)).isEqualTo(1234L);
+        assertThat(FixedWidthDecoder.isBlank(line, 20, 23)).isTrue();
+    }
+
+    @Test
+    void readsDecimals() {
+        assertThat(FixedWidthDecoder.readBigDecimal(" 00123.450", 0, 10)).isEqualTo(new BigDecimal("123.450"));
+        assertThat(FixedWidthDecoder.readBigDecimal("-0.5", 0, 4)).isEqualTo(new BigDecimal("-0.5"));
+        assertThat(FixedWidthDecoder.readBigDecimal("12345678901234567890.1", 0, 22)).isEqualTo(new BigDecimal("12345678901234567890.1"));
+        assertThat(FixedWidthDecoder.readBigDecimal("     ", 0, 5)).isNull();
+        assertThat(FixedWidthDecoder.readDouble("  0.1", 0, 5)).isEqualTo(0.1);
+        assertThat(FixedWidthDecoder.readDouble("1.5E3", 0, 5)).isEqualTo(1500.0);
+    }
+
+    @Test
+    void rejectsMalformedNumbers() {
+        assertThatThrownBy(() -> FixedWidthDecoder.readInt("12a", 0, 3)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedWidthDecoder.readInt("   ", 0, 3)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedWidthDecoder.readInt("9999999999", 0, 10)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedWidthDecoder.readLong("99999999999999999999", 0, 20)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> FixedWidthDecoder.readBigDecimal("1.2.3", 0, 5)).isInstanceOf(NumberFormatException.class);
+        assertThat(FixedWidthDecoder.readLong("-9223372036854775808", 0, 20)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void checksNumberSyntax() {
+        assertThat(FixedWidthDecoder.isInteger("  -1,234", 0, 8)).isTrue();
+        assertThat(FixedWidthDecoder.isInteger("12.5", 0, 4)).isFalse();
+        assertThat(FixedWidthDecoder.isInteger("   ", 0, 3)).isFalse();
+        assertThat(FixedWidthDecoder.isDecimal(" 00123.450", 0, 10)).isTrue();
+        assertThat(FixedWidthDecoder.isDecimal("1.5E3", 0, 5)).isTrue();
+        assertThat(FixedWidthDecoder.isDecimal("1.2.3", 0, 5)).isFalse();
+        assertThat(FixedWidthDecoder.isDecimal("-", 0, 1)).isFalse();
+    }
+}
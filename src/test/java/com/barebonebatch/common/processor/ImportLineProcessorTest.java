@@ -0,0 +1,191 @@
+package com.barebonebatch.common.processor;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.domain.MappingFields;
+import com.barebonebatch.cryptoimport.CryptoTransaction;
+import com.barebonebatch.dbprocessing.Dummy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportLineProcessorTest {
+
+    @Test
+    void compiledPlanMapsLikeReflectivePath() throws Exception {
+        // given
+        ImportLineProcessor<Dummy> compiled = processor(true);
+        ImportLineProcessor<Dummy> reflective = processor(false);
+        ImportLine line = line("first     second    ");
+
+        // when
+        Dummy fromCompiled = compiled.process(line);
+        Dummy fromReflective = reflective.process(line);
+
+        // then
+        assertThat(fromCompiled).isEqualTo(fromReflective);
+        assertThat(fromCompiled.getText1()).isEqualTo("first");
+        assertThat(fromCompiled.getText2()).isEqualTo("second");
+        assertThat(fromCompiled.getText3()).isNull();
+    }
+
+    @Test
+    void compiledPlanRejectsBlankMandatoryField() throws Exception {
+        // given
+        ImportLineProcessor<Dummy> compiled = processor(true);
+
+        // when / then
+        assertThatThrownBy(() -> compiled.process(line("first               ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("text2");
+    }
+
+    @Test
+    void transformerIsParsedOnceAndCompiled() throws Exception {
+        // given
+        MappingFields upperCased = field("text1", 0, 10, "Y");
+        upperCased.setTransformer("#value.toUpperCase()");
+        ImportLineProcessor<Dummy> compiled = new ImportLineProcessor<>(Dummy.class, List.of(
+                upperCased,
+                field("text2", 10, 10, "Y")));
+        compiled.afterPropertiesSet();
+
+        // when
+        Dummy first = compiled.process(line("first     second    "));
+        Dummy second = compiled.process(line("third     fourth    "));
+
+        // then
+        assertThat(first.getText1()).isEqualTo("FIRST");
+        assertThat(second.getText1()).isEqualTo("THIRD");
+        assertThat(compiled.getCompiledTransformerCount()).isEqualTo(1);
+        assertThat(compiled.getInterpretedTransformerCount()).isZero();
+    }
+
+    @Test
+    void initializingAgainKeepsOneTransformerPerField() throws Exception {
+        // given
+        MappingFields upperCased = field("text1", 0, 10, "Y");
+        upperCased.setTransformer("#value.toUpperCase()");
+        ImportLineProcessor<Dummy> compiled = new ImportLineProcessor<>(Dummy.class, List.of(
+                upperCased,
+                field("text2", 10, 10, "Y")));
+        compiled.afterPropertiesSet();
+
+        // when
+        compiled.afterPropertiesSet();
+        Dummy dummy = compiled.process(line("first     second    "));
+
+        // then
+        assertThat(dummy.getText1()).isEqualTo("FIRST");
+        assertThat(compiled.getCompiledTransformerCount() + compiled.getInterpretedTransformerCount()).isEqualTo(1);
+    }
+
+    @Test
+    void compiledPlanMapsBinaryRecord() throws Exception {
+        // given
+        ImportLineProcessor<CryptoTransaction> processor = new ImportLineProcessor<>(CryptoTransaction.class, List.of(
+                field("pair", "ebcdic_string", 0, 6, ""),
+                field("price", "packed", 6, 3, "2"),
+                field("executedAmount", "zoned", 9, 3, "1")));
+        processor.afterPropertiesSet();
+        // "BTCEUR" in EBCDIC, packed 123.45 and zoned -1.5
+        byte[] record = {(byte) 0xC2, (byte) 0xE3, (byte) 0xC3, (byte) 0xC5, (byte) 0xE4, (byte) 0xD9,
+                0x12, 0x34, 0x5C, (byte) 0xF0, (byte) 0xF1, (byte) 0xD5};
+
+        // when
+        CryptoTransaction transaction = processor.processRecord(record);
+
+        // then
+        assertThat(transaction.getPair()).isEqualTo("BTCEUR");
+        assertThat(transaction.getPrice()).isEqualTo(new BigDecimal("123.45"));
+        assertThat(transaction.getExecutedAmount()).isEqualTo(new BigDecimal("-1.5"));
+    }
+
+    @Test
+    void rejectsMappingMixingByteLevelAndTextTypes() {
+        // given
+        ImportLineProcessor<CryptoTransaction> processor = new ImportLineProcessor<>(CryptoTransaction.class, List.of(
+                field("pair", "string", 0, 6, ""),
+                field("price", "packed", 6, 3, "2")));
+
+        // when / then
+        assertThatThrownBy(processor::afterPropertiesSet).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void validatingModeFiltersInvalidLinesWithTheirError() throws Exception {
+        // given
+        ImportLineProcessor<CryptoTransaction> processor = new ImportLineProcessor<>(CryptoTransaction.class, List.of(
+                field("pair", "string", 0, 6, ""),
+                field("price", "bigdecimal", 6, 8, "")));
+        processor.setValidating(true);
+        processor.afterPropertiesSet();
+        ImportLine valid = line("BTCEUR  123.45");
+        ImportLine blankPair = line("        123.45");
+        ImportLine shortLine = line("BTCEUR  123");
+        ImportLine badPrice = line("BTCEUR  12x.45");
+
+        // when
+        CryptoTransaction transaction = processor.process(valid);
+
+        // then
+        assertThat(transaction.getPrice()).isEqualTo(new BigDecimal("123.45"));
+        assertThat(valid.getImlErroText()).isNull();
+        assertThat(processor.process(blankPair)).isNull();
+        assertThat(blankPair.getImlErroText()).contains("pair");
+        assertThat(processor.process(shortLine)).isNull();
+        assertThat(shortLine.getImlErroText()).contains("shorter");
+        assertThat(processor.process(badPrice)).isNull();
+        assertThat(badPrice.getImlErroText()).contains("price", "12x.45");
+    }
+
+    @Test
+    void validatingModeRequiresCompiledPlan() {
+        // given
+        ImportLineProcessor<Dummy> processor = new ImportLineProcessor<>(Dummy.class, List.of(field("text1", 0, 10, "Y")));
+        processor.setCompiledPlan(false);
+        processor.setValidating(true);
+
+        // when / then
+        assertThatThrownBy(processor::afterPropertiesSet).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static ImportLineProcessor<Dummy> processor(boolean compiledPlan) throws Exception {
+        ImportLineProcessor<Dummy> processor = new ImportLineProcessor<>(Dummy.class, List.of(
+                field("text1", 0, 10, "Y"),
+                field("text2", 10, 10, "Y"),
+                field("text3", 10, 10, "N")));
+        processor.setCompiledPlan(compiledPlan);
+        processor.afterPropertiesSet();
+        return processor;
+    }
+
+    private static MappingFields field(String property, int offset, int length, String enable) {
+        MappingFields field = new MappingFields();
+        field.setProperty(property);
+        field.setType("string");
+        field.setOffset(offset);
+        field.setLength(length);
+        field.setMandatory("Y");
+        field.setEnable(enable);
+        field.setTransformer("");
+        field.setPattern("");
+        return field;
+    }
+
+    private static MappingFields field(String property, String type, int offset, int length, String pattern) {
+        MappingFields field = field(property, offset, length, "Y");
+        field.setType(type);
+        field.setPattern(pattern);
+        return field;
+    }
+
+    private static ImportLine line(String text) {
+        ImportLine line = new ImportLine();
+        line.setImlText(text);
+        return line;
+    }
+}
@@ -0,0 +1,158 @@
+package com.barebonebatch.common.processor;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.domain.MappingFields;
+import com.barebonebatch.common.exception.TrailerMismatchException;
+import com.barebonebatch.dbprocessing.Dummy;
+import lombok.Getter;
+import lombok.Setter;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiRecordImportLineProcessorTest {
+
+    @Getter
+    @Setter
+    public static class Detail {
+        private String text1;
+        private BigDecimal amount;
+    }
+
+    @Getter
+    @Setter
+    public static class Trailer {
+        private long count;
+        private BigDecimal total;
+    }
+
+    @Test
+    void routesEachLineToTheLayoutOfItsRecordType() throws Exception {
+        // given
+        MultiRecordImportLineProcessor processor = processor();
+
+        // when
+        List<Object> items = processAll(processor, "H header   ", "D first  0012.50", "DX extended", "T0000000010012.50");
+
+        // then
+        assertThat(items).hasSize(4);
+        assertThat(items.get(0)).isInstanceOf(Dummy.class);
+        assertThat(((Dummy) items.get(0)).getText1()).isEqualTo("header");
+        assertThat(items.get(1)).isInstanceOf(Detail.class);
+        assertThat(((Detail) items.get(1)).getAmount()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(((Dummy) items.get(2)).getText1()).isEqualTo("extended");
+        assertThat(((Trailer) items.get(3)).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownRecordType() throws Exception {
+        // given
+        MultiRecordImportLineProcessor processor = processor();
+
+        // when / then
+        assertThatThrownBy(() -> processAll(processor, "X unknown  "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void checksTrailerAgainstTotalsOfEachSection() throws Exception {
+        // given
+        MultiRecordImportLineProcessor processor = processor();
+
+        // when
+        processAll(processor, "D first  0012.50", "D second 0007.50", "T0000000020020.00",
+                "D third  0001.00", "T0000000010001.00");
+
+        // then
+        assertThatThrownBy(() -> processAll(processor, "D fourth 0001.00", "T0000000020001.00"))
+                .isInstanceOf(TrailerMismatchException.class)
+                .hasMessageContaining("declares 2 detail records, 1 were read");
+    }
+
+    @Test
+    void rejectsTrailerWithWrongSum() throws Exception {
+        // given
+        MultiRecordImportLineProcessor processor = processor();
+
+        // when / then
+        assertThatThrownBy(() -> processAll(processor, "D first  0012.50", "T0000000010012.00"))
+                .isInstanceOf(TrailerMismatchException.class)
+                .hasMessageContaining("sum up to 12.50");
+    }
+
+    @Test
+    void keepsTotalsOfCommittedChunksAcrossRestartAndFailsWithoutTrailer() throws Exception {
+        // given
+        MultiRecordImportLineProcessor processor = processor();
+        ExecutionContext executionContext = new ExecutionContext();
+        processor.open(executionContext);
+        processAll(processor, "D first  0012.50");
+        processor.update(executionContext);
+        processor.afterChunk(null);
+        processAll(processor, "D lost   0001.00");
+        processor.afterChunkError(null);
+
+        // when
+        MultiRecordImportLineProcessor restarted = processor();
+        restarted.open(executionContext);
+        processAll(restarted, "D second 0007.50");
+        restarted.afterChunk(null);
+        StepExecution stepExecution = new StepExecution("step", null);
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+
+        // then
+        assertThat(restarted.afterStep(stepExecution).getExitCode()).isEqualTo(ExitStatus.FAILED.getExitCode());
+        assertThat(processAll(restarted, "T0000000020020.00")).hasSize(1);
+    }
+
+    private static MultiRecordImportLineProcessor processor() throws Exception {
+        MultiRecordImportLineProcessor processor = new MultiRecordImportLineProcessor(0);
+        processor.addRecordType("H", new ImportLineProcessor<>(Dummy.class, List.of(
+                field("text1", "string", 2, 9, ""))));
+        processor.addRecordType("D", new ImportLineProcessor<>(Detail.class, List.of(
+                field("text1", "string", 2, 7, ""),
+                field("amount", "bigdecimal", 9, 7, ""))));
+        processor.addRecordType("DX", new ImportLineProcessor<>(Dummy.class, List.of(
+                field("text1", "string", 3, 8, ""))));
+        processor.addRecordType("T", new ImportLineProcessor<>(Trailer.class, List.of(
+                field("count", "long", 1, 9, ""),
+                field("total", "bigdecimal", 10, 7, ""))));
+        processor.<Detail, Trailer>setTrailerCheck("D", Detail::getAmount, "T", Trailer::getCount, Trailer::getTotal);
+        processor.afterPropertiesSet();
+        return processor;
+    }
+
+    private static List<Object> processAll(MultiRecordImportLineProcessor processor, String... lines) throws Exception {
+        List<Object> items = new ArrayList<>();
+        int number = 1;
+        for (String text : lines) {
+            ImportLine line = new ImportLine();
+            line.setImlNumb(number++);
+            line.setImlText(text);
+            items.add(processor.process(line));
+        }
+        return items;
+    }
+
+    private static MappingFields field(String property, String type, int offset, int length, String pattern) {
+        MappingFields field = new MappingFields();
+        field.setProperty(property);
+        field.setType(type);
+        field.setOffset(offset);
+        field.setLength(length);
+        field.setMandatory("Y");
+        field.setEnable("Y");
+        field.setTransformer("");
+        field.setPattern(pattern);
+        return field;
+    }
+}
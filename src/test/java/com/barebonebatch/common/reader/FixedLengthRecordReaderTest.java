@@ -0,0 +1,91 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.BinaryRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedLengthRecordReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsWithTheirNumbers() throws Exception {
+        // given
+        Path file = write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        // when
+        List<BinaryRecord> records = readAll(reader(file, 3), new ExecutionContext());
+
+        // then
+        assertThat(records).extracting(BinaryRecord::number).containsExactly(1, 2, 3);
+        assertThat(records).extracting(BinaryRecord::bytes)
+                .containsExactly(new byte[]{1, 2, 3}, new byte[]{4, 5, 6}, new byte[]{7, 8, 9});
+    }
+
+    @Test
+    void restartsAfterLastSavedRecord() throws Exception {
+        // given
+        Path file = write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        FixedLengthRecordReader reader = reader(file, 2);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        // when
+        List<BinaryRecord> records = readAll(reader(file, 2), executionContext);
+
+        // then
+        assertThat(records).extracting(BinaryRecord::number).containsExactly(3, 4);
+        assertThat(records).extracting(BinaryRecord::bytes).containsExactly(new byte[]{5, 6}, new byte[]{7, 8});
+    }
+
+    @Test
+    void rejectsAnIncompleteLastRecord() throws Exception {
+        // given
+        Path file = write(new byte[]{1, 2, 3, 4, 5});
+        FixedLengthRecordReader reader = reader(file, 2);
+
+        // when / then
+        assertThatThrownBy(() -> reader.open(new ExecutionContext()))
+                .isInstanceOf(ItemStreamException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasStackTraceContaining("not a multiple of the record length 2");
+    }
+
+    private Path write(byte[] content) throws Exception {
+        return Files.write(directory.resolve("input.bin"), content);
+    }
+
+    private static FixedLengthRecordReader reader(Path file, int recordLength) {
+        FixedLengthRecordReader reader = new FixedLengthRecordReader();
+        reader.setFile(file);
+        reader.setRecordLength(recordLength);
+        reader.setBufferSize(4);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    private static List<BinaryRecord> readAll(FixedLengthRecordReader reader, ExecutionContext executionContext) throws Exception {
+        List<BinaryRecord> records = new ArrayList<>();
+        reader.open(executionContext);
+        for (BinaryRecord record = reader.read(); record != null; record = reader.read()) {
+            records.add(record);
+        }
+        reader.close();
+        return records;
+    }
+}
@@ -0,0 +1,112 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipImportLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsLinesGrowingTheBuffer() throws Exception {
+        // given
+        Path file = write("first line\r\nsecond\n\nthe fourth line is long\nlast");
+        GzipImportLineReader reader = reader(file, 8);
+
+        // when
+        List<ImportLine> lines = readAll(reader, new ExecutionContext());
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText)
+                .containsExactly("first line", "second", "", "the fourth line is long", "last");
+        assertThat(lines).extracting(ImportLine::getImlNumb).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void readsConcatenatedMembers() throws Exception {
+        // given
+        Path file = write("a\nb\n");
+        append(file, "c\n");
+
+        // when
+        List<ImportLine> lines = readAll(reader(file, 1024), new ExecutionContext());
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void restartsAfterLastSavedLine() throws Exception {
+        // given
+        Path file = write("a\nb\nc\nd\n");
+        GzipImportLineReader reader = reader(file, 4);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        // when
+        List<ImportLine> lines = readAll(reader(file, 4), executionContext);
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText).containsExactly("c", "d");
+        assertThat(lines).extracting(ImportLine::getImlNumb).containsExactly(3, 4);
+    }
+
+    @Test
+    void detectsGzipFromContent() throws Exception {
+        // given
+        Path compressed = write("a\n");
+        Path plain = Files.writeString(directory.resolve("input.gz"), "a\n");
+
+        // when / then
+        assertThat(GzipImportLineReader.isGzip(compressed)).isTrue();
+        assertThat(GzipImportLineReader.isGzip(plain)).isFalse();
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = directory.resolve("input.txt.gz");
+        append(file, content);
+        return file;
+    }
+
+    private static void append(Path file, String content) throws Exception {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static GzipImportLineReader reader(Path file, int bufferSize) {
+        GzipImportLineReader reader = new GzipImportLineReader();
+        reader.setFile(file);
+        reader.setBufferSize(bufferSize);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    private static List<ImportLine> readAll(GzipImportLineReader reader, ExecutionContext executionContext) throws Exception {
+        List<ImportLine> lines = new ArrayList<>();
+        reader.open(executionContext);
+        for (ImportLine line = reader.read(); line != null; line = reader.read()) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+}
@@ -0,0 +1,120 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedFileImportLineReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsLinesAcrossWindows() throws Exception {
+        // given
+        Path file = write("first line\r\nsecond\n\nthe fourth line is long\nlast");
+        MappedFileImportLineReader reader = reader(file, 32);
+
+        // when
+        List<ImportLine> lines = readAll(reader, new ExecutionContext());
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText)
+                .containsExactly("first line", "second", "", "the fourth line is long", "last");
+        assertThat(lines).extracting(ImportLine::getImlNumb).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void decodesMultiByteCharacters() throws Exception {
+        // given
+        Path file = write("café\nçà\n");
+        MappedFileImportLineReader reader = reader(file, 1024);
+
+        // when
+        List<ImportLine> lines = readAll(reader, new ExecutionContext());
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText).containsExactly("café", "çà");
+    }
+
+    @Test
+    void restartsAfterLastSavedLine() throws Exception {
+        // given
+        Path file = write("a\nb\nc\nd\n");
+        MappedFileImportLineReader reader = reader(file, 1024);
+        ExecutionContext executionContext = new ExecutionContext();
+        reader.open(executionContext);
+        reader.read();
+        reader.read();
+        reader.update(executionContext);
+        reader.close();
+
+        // when
+        List<ImportLine> lines = readAll(reader(file, 1024), executionContext);
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText).containsExactly("c", "d");
+        assertThat(lines).extracting(ImportLine::getImlNumb).containsExactly(3, 4);
+    }
+
+    @Test
+    void failsOnLineLongerThanWindow() throws Exception {
+        // given
+        MappedFileImportLineReader reader = reader(write("short\nmuch longer than the window\n"), 8);
+        reader.open(new ExecutionContext());
+        reader.read();
+
+        // when / then
+        assertThatThrownBy(reader::read).isInstanceOf(IllegalStateException.class);
+        reader.close();
+    }
+
+    @Test
+    void readsOnlyLinesOfRange() throws Exception {
+        // given
+        Path file = write("a\nbb\nccc\ndddd\n");
+        MappedFileImportLineReader reader = reader(file, 1024);
+        reader.setRange(2, 9, 2);
+        reader.setWstIden(7);
+
+        // when
+        List<ImportLine> lines = readAll(reader, new ExecutionContext());
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlText).containsExactly("bb", "ccc");
+        assertThat(lines).extracting(ImportLine::getImlNumb).containsExactly(2, 3);
+        assertThat(lines).extracting(ImportLine::getWstIden).containsOnly(7);
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.writeString(directory.resolve("input.txt"), content, StandardCharsets.UTF_8);
+    }
+
+    private static MappedFileImportLineReader reader(Path file, int windowSize) {
+        MappedFileImportLineReader reader = new MappedFileImportLineReader();
+        reader.setFile(file);
+        reader.setWindowSize(windowSize);
+        reader.afterPropertiesSet();
+        return reader;
+    }
+
+    private static List<ImportLine> readAll(MappedFileImportLineReader reader, ExecutionContext executionContext) throws Exception {
+        List<ImportLine> lines = new ArrayList<>();
+        reader.open(executionContext);
+        for (ImportLine line = reader.read(); line != null; line = reader.read()) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+}
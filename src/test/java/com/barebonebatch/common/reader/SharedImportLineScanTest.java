@@ -0,0 +1,117 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.support.ListItemReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SharedImportLineScanTest {
+
+    @Test
+    void handsEveryLineToEveryConsumer() throws Exception {
+        // given
+        SharedImportLineScan scan = new SharedImportLineScan(new ListItemReader<>(lines(100)), List.of("a", "b"), 10);
+        CompletableFuture<List<ImportLine>> a = CompletableFuture.supplyAsync(() -> readAll(scan.readerFor("a")));
+        CompletableFuture<List<ImportLine>> b = CompletableFuture.supplyAsync(() -> readAll(scan.readerFor("b")));
+
+        // when
+        long count = scan.run();
+
+        // then
+        assertThat(count).isEqualTo(100);
+        List<ImportLine> readByA = a.get(5, TimeUnit.SECONDS);
+        List<ImportLine> readByB = b.get(5, TimeUnit.SECONDS);
+        assertThat(readByA).extracting(ImportLine::getImlNumb).containsExactlyElementsOf(readByB.stream().map(ImportLine::getImlNumb).toList());
+        assertThat(readByA).hasSize(100);
+        // Each consumer gets its own copy, so error texts do not leak from one job to another
+        assertThat(readByA.get(0)).isNotSameAs(readByB.get(0));
+    }
+
+    @Test
+    void detachedConsumerDoesNotBlockTheScan() throws Exception {
+        // given
+        SharedImportLineScan scan = new SharedImportLineScan(new ListItemReader<>(lines(100)), List.of("reading", "ended"), 10);
+        CompletableFuture<List<ImportLine>> reading = CompletableFuture.supplyAsync(() -> readAll(scan.readerFor("reading")));
+        scan.detach("ended");
+
+        // when
+        long count = scan.run();
+
+        // then
+        assertThat(count).isEqualTo(100);
+        assertThat(reading.get(5, TimeUnit.SECONDS)).hasSize(100);
+    }
+
+    @Test
+    void consumersFailWhenTheSourceFails() {
+        // given
+        ItemReader<ImportLine> failing = () -> {
+            throw new IllegalStateException("connection lost");
+        };
+        SharedImportLineScan scan = new SharedImportLineScan(failing, List.of("a"), 10);
+
+        // when
+        scan.run();
+
+        // then
+        assertThatThrownBy(() -> scan.readerFor("a").read())
+                .isInstanceOf(ItemStreamException.class)
+                .hasRootCauseMessage("connection lost");
+    }
+
+    @Test
+    void consumersFailWhenTheScanIsInterruptedOnAFullQueue() throws Exception {
+        // given a consumer that has not read yet, so its queue of 2 lines fills up
+        SharedImportLineScan scan = new SharedImportLineScan(new ListItemReader<>(lines(100)), List.of("a"), 2);
+        Thread scanThread = new Thread(scan::run);
+        scanThread.start();
+        ItemReader<ImportLine> reader = scan.readerFor("a");
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        // when
+        scanThread.interrupt();
+        scanThread.join(5000);
+
+        // then the consumer reads the queued lines, then fails instead of waiting for more
+        assertThat(scanThread.isAlive()).isFalse();
+        assertThat(reader.read().getImlNumb()).isEqualTo(1);
+        assertThat(reader.read().getImlNumb()).isEqualTo(2);
+        assertThatThrownBy(reader::read)
+                .isInstanceOf(ItemStreamException.class)
+                .hasRootCauseInstanceOf(InterruptedException.class);
+    }
+
+    private static List<ImportLine> readAll(ItemReader<ImportLine> reader) {
+        List<ImportLine> read = new ArrayList<>();
+        try {
+            ImportLine line;
+            while ((line = reader.read()) != null) {
+                read.add(line);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return read;
+    }
+
+    private static List<ImportLine> lines(int count) {
+        List<ImportLine> lines = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ImportLine line = new ImportLine();
+            line.setImlIden(i);
+            line.setImlNumb(i);
+            line.setImlText("line " + i);
+            lines.add(line);
+        }
+        return lines;
+    }
+}
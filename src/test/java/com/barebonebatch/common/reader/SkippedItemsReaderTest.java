@@ -0,0 +1,71 @@
+package com.barebonebatch.common.reader;
+
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.service.SkippedItemStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkippedItemsReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsTheSpillFileOfTheContextOnRestartInAnotherJvm() throws Exception {
+        // given 3 lines kept for the restart by the node that ran the failed execution
+        Path spillFile = failedExecution(tempDir.resolve("failed"), 1L, 3);
+        SkippedItemStore restartStore = new SkippedItemStore(Files.createDirectory(tempDir.resolve("restart")).toString(), 2);
+        SkippedItemsReader reader = new SkippedItemsReader(restartStore, 1L, 3L, spillFile.toString());
+
+        // when
+        List<ImportLine> lines = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        for (ImportLine line = reader.read(); line != null; line = reader.read()) {
+            lines.add(line);
+        }
+        reader.close();
+
+        // then
+        assertThat(lines).extracting(ImportLine::getImlIden).containsExactly(1, 2, 3);
+        restartStore.release(1L, true);
+    }
+
+    @Test
+    void failsWhenLinesAreMissing() throws Exception {
+        // given
+        Path spillFile = failedExecution(tempDir.resolve("failed"), 1L, 3);
+        SkippedItemStore restartStore = new SkippedItemStore(tempDir.toString(), 2);
+        SkippedItemsReader reader = new SkippedItemsReader(restartStore, 1L, 5L, spillFile.toString());
+
+        // when / then
+        assertThatThrownBy(() -> reader.open(new ExecutionContext()))
+                .isInstanceOf(ItemStreamException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasStackTraceContaining("5 skipped lines were recorded for job instance 1, only 3 are left");
+        restartStore.release(1L, true);
+    }
+
+    private static Path failedExecution(Path spillDirectory, Long jobInstanceId, int count) throws Exception {
+        SkippedItemStore store = new SkippedItemStore(Files.createDirectory(spillDirectory).toString(), 2);
+        for (int i = 1; i <= count; i++) {
+            ImportLine line = new ImportLine();
+            line.setImlIden(i);
+            line.setImlNumb(i);
+            line.setImlErroText("Unparseable number in line " + i);
+            store.sinkFor(jobInstanceId).add(line);
+        }
+        Path spillFile = store.sinkFor(jobInstanceId).getSpillFile();
+        store.release(jobInstanceId, false);
+        return spillFile;
+    }
+}
@@ -0,0 +1,86 @@
+package com.barebonebatch.common.scheduler;
+
+import com.barebonebatch.common.config.JobIdentifier;
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.Work;
+import com.barebonebatch.common.exception.JobNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobRouterTest {
+
+    @Configuration
+    static class Jobs {
+
+        @Bean
+        @JobIdentifier(value = "DEV_IMPORT", uatIdf = "UAT_IMPORT", prodIdf = "")
+        Job importJob() {
+            return mock(Job.class);
+        }
+
+        @Bean
+        Job exportJob() {
+            return mock(Job.class);
+        }
+    }
+
+    @Test
+    void routesBeanNamesAndEnvironmentIdentifiers() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Jobs.class)) {
+            // given
+            JobRouter uat = router(context, mock(JobDao.class), "uat", 60_000);
+            JobRouter prod = router(context, mock(JobDao.class), "prod", 60_000);
+            Job importJob = context.getBean("importJob", Job.class);
+
+            // when / then
+            assertThat(uat.jobFor("UAT_IMPORT")).isSameAs(importJob);
+            assertThat(uat.jobFor("importJob")).isSameAs(importJob);
+            assertThat(uat.jobFor("exportJob")).isSameAs(context.getBean("exportJob", Job.class));
+            assertThatThrownBy(() -> uat.jobFor("DEV_IMPORT")).isInstanceOf(JobNotFoundException.class);
+            // A blank identifier only routes by bean name
+            assertThat(prod.jobFor("importJob")).isSameAs(importJob);
+            assertThatThrownBy(() -> prod.jobFor("")).isInstanceOf(JobNotFoundException.class);
+        }
+    }
+
+    @Test
+    void cachesWorksUntilTheirTtlExpires() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Jobs.class)) {
+            // given
+            JobDao jobDao = mock(JobDao.class);
+            when(jobDao.getWorkByFileIden("FILE")).thenReturn(List.of(new Work()));
+            JobRouter cached = router(context, jobDao, "dev", 60_000);
+            JobRouter uncached = router(context, jobDao, "dev", 0);
+
+            // when
+            cached.worksFor("FILE");
+            // Rows younger than the TTL survive the eviction
+            cached.evictExpiredWorks();
+            List<Work> works = cached.worksFor("FILE");
+            uncached.worksFor("FILE");
+            uncached.worksFor("FILE");
+
+            // then
+            assertThat(works).hasSize(1);
+            verify(jobDao, times(3)).getWorkByFileIden("FILE");
+        }
+    }
+
+    private static JobRouter router(AnnotationConfigApplicationContext context, JobDao jobDao, String environment, long ttl) {
+        JobRouter router = new JobRouter(context, jobDao, environment, ttl);
+        router.afterSingletonsInstantiated();
+        return router;
+    }
+}
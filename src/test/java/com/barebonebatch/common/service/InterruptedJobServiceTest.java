@@ -0,0 +1,121 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.util.Constants;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.DefaultJobKeyGenerator;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InterruptedJobServiceTest {
+
+    private static final String JOB_NAME = "databaseProcessingJob";
+
+    @Mock
+    private JobExplorer jobExplorer;
+
+    @Mock
+    private JobRepository jobRepository;
+
+    @InjectMocks
+    private InterruptedJobService interruptedJobService;
+
+    @Test
+    void restartsTheInstanceACrashedNodeLeftRunningFromItsCheckpoint() {
+        // given: node-a crashed after committing a chunk, and its lease on work status 7 expired
+        JobParameters crashedParameters = parameters(7L, "node-a").toJobParameters();
+        JobExecution crashed = execution(1L, crashedParameters);
+        StepExecution committed = crashed.createStepExecution("databaseProcessingStep");
+        committed.setStatus(BatchStatus.COMPLETED);
+        StepExecution interrupted = crashed.createStepExecution("databaseProcessingStep:partition0");
+        interrupted.setStatus(BatchStatus.STARTED);
+        interrupted.getExecutionContext().putInt("last.imlNumb", 500);
+        when(jobExplorer.findRunningJobExecutions(JOB_NAME)).thenReturn(Set.of(crashed));
+
+        // when: node-b claims the recovered row and launches its job
+        Optional<JobParameters> restart = interruptedJobService.recover(JOB_NAME, 7L, "node-b");
+
+        // then
+        assertThat(crashed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(crashed.getEndTime()).isNotNull();
+        assertThat(interrupted.getStatus()).isEqualTo(BatchStatus.FAILED);
+        assertThat(interrupted.getExecutionContext().getInt("last.imlNumb")).isEqualTo(500);
+        assertThat(committed.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+        verify(jobRepository).update(interrupted);
+        verify(jobRepository, never()).update(committed);
+        verify(jobRepository).update(crashed);
+
+        assertThat(restart).hasValueSatisfying(parameters -> {
+            assertThat(parameters.getString(Constants.NODE_IDEN)).isEqualTo("node-b");
+            assertThat(parameters.getIdentifyingParameters()).isEqualTo(crashedParameters.getIdentifyingParameters());
+            DefaultJobKeyGenerator keyGenerator = new DefaultJobKeyGenerator();
+            assertThat(keyGenerator.generateKey(parameters)).isEqualTo(keyGenerator.generateKey(crashedParameters));
+        });
+    }
+
+    @Test
+    void ignoresExecutionsOfOtherWorkStatuses() {
+        // given
+        JobExecution running = execution(1L, parameters(8L, "node-a").toJobParameters());
+        running.setStatus(BatchStatus.STARTED);
+        when(jobExplorer.findRunningJobExecutions(JOB_NAME)).thenReturn(Set.of(running));
+
+        // when
+        Optional<JobParameters> restart = interruptedJobService.recover(JOB_NAME, 7L, "node-b");
+
+        // then
+        assertThat(restart).isEmpty();
+        assertThat(running.getStatus()).isEqualTo(BatchStatus.STARTED);
+        verify(jobRepository, never()).update(any(JobExecution.class));
+    }
+
+    @Test
+    void failsButDoesNotRestartASharedScanConsumer() {
+        // given
+        JobParameters crashedParameters = parameters(7L, "node-a")
+                .addString(SharedScanService.CONSUMER, "7.0.DatabaseProcessingJobConfig")
+                .toJobParameters();
+        JobExecution crashed = execution(1L, crashedParameters);
+        when(jobExplorer.findRunningJobExecutions(JOB_NAME)).thenReturn(Set.of(crashed));
+
+        // when
+        Optional<JobParameters> restart = interruptedJobService.recover(JOB_NAME, 7L, "node-b");
+
+        // then
+        assertThat(restart).isEmpty();
+        assertThat(crashed.getStatus()).isEqualTo(BatchStatus.FAILED);
+        verify(jobRepository).update(crashed);
+    }
+
+    private static JobParametersBuilder parameters(Long wstIden, String nodeIden) {
+        return new JobParametersBuilder()
+                .addLong(Constants.WST_IDEN, wstIden)
+                .addLong(Constants.START_DATE, 1_700_000_000_000L)
+                .addString(Constants.NODE_IDEN, nodeIden, false);
+    }
+
+    private static JobExecution execution(Long id, JobParameters parameters) {
+        JobExecution execution = new JobExecution(new JobInstance(id, JOB_NAME), id, parameters);
+        execution.setStatus(BatchStatus.STARTED);
+        return execution;
+    }
+}
@@ -0,0 +1,210 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.domain.Mapping;
+import com.barebonebatch.common.domain.MappingFields;
+import com.barebonebatch.common.processor.ImportLineProcessor;
+import com.barebonebatch.dbprocessing.Dummy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MappingRegistryTest {
+
+    @Test
+    void compilesOneProcessorPerMappingAndType() throws Exception {
+        // given
+        JobDao jobDao = mock(JobDao.class);
+        when(jobDao.getMappingById("mapping_1")).thenReturn(mapping("mapping_1", 1));
+        MappingRegistry registry = registry(jobDao);
+
+        // when
+        ImportLineProcessor<Dummy> first = registry.getProcessor("mapping_1", Dummy.class);
+        ImportLineProcessor<Dummy> second = registry.getProcessor("mapping_1", Dummy.class);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.process(line("first     second    ")).getText2()).isEqualTo("second");
+        verify(jobDao, times(1)).getMappingById("mapping_1");
+    }
+
+    @Test
+    void refreshEvictsOnlyChangedMappings() {
+        // given
+        JobDao jobDao = mock(JobDao.class);
+        when(jobDao.getMappingById("mapping_1")).thenReturn(mapping("mapping_1", 1), mapping("mapping_1", 2));
+        when(jobDao.getMappingById("mapping_2")).thenReturn(mapping("mapping_2", 1));
+        when(jobDao.getMappingVersions(any())).thenReturn(List.of(mapping("mapping_1", 2), mapping("mapping_2", 1)));
+        MappingRegistry registry = registry(jobDao);
+        ImportLineProcessor<Dummy> stale = registry.getProcessor("mapping_1", Dummy.class);
+        ImportLineProcessor<Dummy> current = registry.getProcessor("mapping_2", Dummy.class);
+
+        // when
+        registry.refresh();
+
+        // then
+        assertThat(registry.getProcessor("mapping_1", Dummy.class)).isNotSameAs(stale);
+        assertThat(registry.getMapping("mapping_1").getVersion()).isEqualTo(2);
+        assertThat(registry.getProcessor("mapping_2", Dummy.class)).isSameAs(current);
+        verify(jobDao, times(2)).getMappingById("mapping_1");
+        verify(jobDao, times(1)).getMappingById("mapping_2");
+    }
+
+    @Test
+    void transformerGaugesFollowTheRecompiledProcessor() throws Exception {
+        // given a mapping that gains a transformer in its second version
+        JobDao jobDao = mock(JobDao.class);
+        Mapping changed = mapping("mapping_1", 2);
+        changed.getFields().get(0).setTransformer("#value.toUpperCase()");
+        when(jobDao.getMappingById("mapping_1")).thenReturn(mapping("mapping_1", 1), changed);
+        when(jobDao.getMappingVersions(any())).thenReturn(List.of(changed));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MappingRegistry registry = new MappingRegistry(jobDao, new BaseBatchMetricsService(meterRegistry), true, false);
+        registry.getProcessor("mapping_1", Dummy.class);
+
+        // when
+        registry.refresh();
+        registry.getProcessor("mapping_1", Dummy.class).process(line("first     second    "));
+
+        // then
+        assertThat(meterRegistry.get("batch.transformers.compiled").tag("mappingId", "mapping_1").gauges()).hasSize(1);
+        assertThat(meterRegistry.get("batch.transformers.compiled").tag("mappingId", "mapping_1").gauge().value()
+                + meterRegistry.get("batch.transformers.interpreted").tag("mappingId", "mapping_1").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void loadsMappingsOutsideTheCacheLocks() throws Exception {
+        // given a database query that needs another mapping of the registry while it runs
+        JobDao jobDao = mock(JobDao.class);
+        MappingRegistry registry = registry(jobDao);
+        when(jobDao.getMappingById("mapping_2")).thenReturn(mapping("mapping_2", 1));
+        when(jobDao.getMappingById("mapping_1")).thenAnswer(invocation -> {
+            registry.getProcessor("mapping_2", Dummy.class);
+            return mapping("mapping_1", 1);
+        });
+
+        // when
+        ImportLineProcessor<Dummy> processor = registry.getProcessor("mapping_1", Dummy.class);
+
+        // then
+        assertThat(processor.process(line("first     second    ")).getText1()).isEqualTo("first");
+        assertThat(registry.getProcessor("mapping_1", Dummy.class)).isSameAs(processor);
+        assertThat(registry.getMapping("mapping_2").getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void stepScopedViewsShareTheCachedProcessorWithoutInitializingItAgain() throws Exception {
+        // given a mapping with a transformer, used by a step-scoped processor as the job configurations do
+        JobDao jobDao = mock(JobDao.class);
+        Mapping mapping = mapping("mapping_1", 1);
+        mapping.getFields().get(0).setTransformer("#value.toUpperCase()");
+        when(jobDao.getMappingById("mapping_1")).thenReturn(mapping);
+        MappingRegistry registry = registry(jobDao);
+        JobExecution jobExecution = new JobExecution(1L, new JobParameters());
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(MappingRegistry.class, () -> registry);
+            context.registerBean(org.springframework.batch.core.scope.StepScope.class);
+            context.register(StepScopedProcessorConfig.class);
+            context.refresh();
+
+            // when two steps run one after the other
+            Dummy first = processInStep(context, jobExecution.createStepExecution("firstStep"), "first     second    ");
+            Dummy second = processInStep(context, jobExecution.createStepExecution("secondStep"), "third     fourth    ");
+
+            // then
+            ImportLineProcessor<Dummy> processor = registry.getProcessor("mapping_1", Dummy.class);
+            assertThat(first.getText1()).isEqualTo("FIRST");
+            assertThat(second.getText1()).isEqualTo("THIRD");
+            assertThat(processor.getCompiledTransformerCount() + processor.getInterpretedTransformerCount()).isEqualTo(1);
+            verify(jobDao, times(1)).getMappingById("mapping_1");
+        }
+    }
+
+    @Test
+    void rejectsUnknownMapping() {
+        // given
+        MappingRegistry registry = registry(mock(JobDao.class));
+
+        // when / then
+        assertThatThrownBy(() -> registry.getMapping("missing"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Dummy processInStep(AnnotationConfigApplicationContext context, StepExecution stepExecution, String text) throws Exception {
+        StepSynchronizationManager.register(stepExecution);
+        try {
+            return ((ItemProcessor<ImportLine, Dummy>) context.getBean("dummyProcessor")).process(line(text));
+        } finally {
+            StepSynchronizationManager.close();
+        }
+    }
+
+    private static MappingRegistry registry(JobDao jobDao) {
+        return new MappingRegistry(jobDao, new BaseBatchMetricsService(new SimpleMeterRegistry()), true, false);
+    }
+
+    private static Mapping mapping(String id, int version) {
+        Mapping mapping = new Mapping();
+        mapping.setId(id);
+        mapping.setVersion(version);
+        mapping.setFields(List.of(field("text1", 0, 10), field("text2", 10, 10)));
+        return mapping;
+    }
+
+    private static MappingFields field(String property, int offset, int length) {
+        MappingFields field = new MappingFields();
+        field.setProperty(property);
+        field.setType("string");
+        field.setOffset(offset);
+        field.setLength(length);
+        field.setMandatory("Y");
+        field.setEnable("Y");
+        field.setTransformer("");
+        field.setPattern("");
+        return field;
+    }
+
+    private static ImportLine line(String text) {
+        ImportLine line = new ImportLine();
+        line.setImlText(text);
+        return line;
+    }
+
+    @Configuration
+    static class StepScopedProcessorConfig {
+
+        @Autowired
+        private MappingRegistry mappingRegistry;
+
+        @Bean
+        @StepScope
+        public ItemProcessor<ImportLine, Dummy> dummyProcessor() {
+            ImportLineProcessor<Dummy> processor = mappingRegistry.getProcessor("mapping_1", Dummy.class);
+            return processor::process;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.barebonebatch.common.service;
+
+import com.barebonebatch.common.domain.ImportLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SkippedItemSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamsSpilledAndBufferedItemsInOrder() {
+        // given
+        SkippedItemSink sink = new SkippedItemSink(tempDir.resolve("skipped.bin"), 2);
+        for (int i = 1; i <= 5; i++) {
+            sink.add(line(i, "error " + i));
+        }
+
+        // when
+        List<ImportLine> read = readAll(sink);
+
+        // then
+        assertThat(sink.size()).isEqualTo(5);
+        assertThat(sink.getSpilledCount()).isEqualTo(4);
+        assertThat(read).extracting(ImportLine::getImlIden).containsExactly(1, 2, 3, 4, 5);
+        assertThat(read).extracting(ImportLine::getImlErroText).containsExactly("error 1", "error 2", "error 3", "error 4", "error 5");
+        assertThat(read.get(0).getImlText()).isNull();
+    }
+
+    @Test
+    void keepsNullFieldsAndDeletesSpillFileOnClose() {
+        // given
+        Path spillFile = tempDir.resolve("skipped.bin");
+        SkippedItemSink sink = new SkippedItemSink(spillFile, 1);
+        sink.add(line(7, null));
+
+        // when
+        List<ImportLine> read = readAll(sink);
+        sink.close();
+
+        // then
+        assertThat(read).singleElement().satisfies(line -> {
+            assertThat(line.getImlIden()).isEqualTo(7);
+            assertThat(line.getImlErroText()).isNull();
+            assertThat(line.getImlNumb()).isNull();
+        });
+        assertThat(Files.exists(spillFile)).isFalse();
+    }
+
+    @Test
+    void reopensSuspendedSpillFile() {
+        // given 3 lines, one of them still buffered, when the job fails
+        Path spillFile = tempDir.resolve("skipped.bin");
+        SkippedItemSink failed = new SkippedItemSink(spillFile, 2);
+        for (int i = 1; i <= 3; i++) {
+            failed.add(line(i, "error " + i));
+        }
+        failed.suspend();
+
+        // when the restart adds a fourth line
+        SkippedItemSink restarted = new SkippedItemSink(spillFile, 2);
+        restarted.add(line(4, "error 4"));
+
+        // then
+        assertThat(restarted.size()).isEqualTo(4);
+        assertThat(readAll(restarted)).extracting(ImportLine::getImlIden).containsExactly(1, 2, 3, 4);
+        restarted.close();
+        assertThat(Files.exists(spillFile)).isFalse();
+    }
+
+    @Test
+    void dropsIncompleteLastRecordOnReopen() throws Exception {
+        // given a spill file cut in the middle of its second record
+        Path spillFile = tempDir.resolve("skipped.bin");
+        SkippedItemSink first = new SkippedItemSink(spillFile, 1);
+        first.add(line(1, "error 1"));
+        first.suspend();
+        int firstRecordSize = (int) Files.size(spillFile);
+        SkippedItemSink second = new SkippedItemSink(spillFile, 1);
+        second.add(line(2, "error 2"));
+        second.suspend();
+        Files.write(spillFile, Arrays.copyOf(Files.readAllBytes(spillFile), firstRecordSize + 3));
+
+        // when
+        SkippedItemSink restarted = new SkippedItemSink(spillFile, 1);
+        restarted.add(line(3, "error 3"));
+
+        // then
+        assertThat(readAll(restarted)).extracting(ImportLine::getImlIden).containsExactly(1, 3);
+        restarted.close();
+    }
+
+    private static List<ImportLine> readAll(SkippedItemSink sink) {
+        List<ImportLine> lines = new ArrayList<>();
+        try (SkippedItemSink.Cursor cursor = sink.openCursor()) {
+            ImportLine line;
+            while ((line = cursor.next()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static ImportLine line(int imlIden, String error) {
+        ImportLine line = new ImportLine();
+        line.setImlIden(imlIden);
+        line.setImlText("text " + imlIden);
+        line.setImlErroText(error);
+        return line;
+    }
+}
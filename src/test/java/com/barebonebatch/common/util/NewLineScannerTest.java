@@ -0,0 +1,63 @@
+package com.barebonebatch.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NewLineScannerTest {
+
+    @Test
+    void findsNewLineInAnyByteOfWord() {
+        for (int index = 0; index < 20; index++) {
+            // given
+            byte[] bytes = new byte[20];
+            Arrays.fill(bytes, (byte) 0x0B);
+            bytes[index] = '\n';
+
+            // when
+            int found = NewLineScanner.indexOf(buffer(bytes), 0, bytes.length);
+
+            // then
+            assertThat(found).isEqualTo(index);
+        }
+    }
+
+    @Test
+    void findsNothingOutsideRange() {
+        // given
+        byte[] bytes = "abc\ndefghijklmnop\n".getBytes(StandardCharsets.UTF_8);
+
+        // when
+        int found = NewLineScanner.indexOf(buffer(bytes), 4, 17);
+
+        // then
+        assertThat(found).isEqualTo(-1);
+    }
+
+    @Test
+    void countsAdjacentNewLinesExactly() {
+        // given: 0x0B right after '\n' is where the fast zero-byte test gives false positives
+        byte[] bytes = "\n\u000B\n\n\u000B\u000B\nx\n\n\n\n\n\n\n\n\u000B\n".getBytes(StandardCharsets.ISO_8859_1);
+        long expected = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                expected++;
+            }
+        }
+
+        // when
+        long count = NewLineScanner.count(buffer(bytes), 0, bytes.length);
+
+        // then
+        assertThat(count).isEqualTo(expected);
+    }
+
+    private static ByteBuffer buffer(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,75 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.dbprocessing.Dummy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.barebonebatch.common.writer.FixedWidthRecordFormatterTest.field;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixedWidthFileItemWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesOneRecordPerItemThroughSmallBuffer() throws Exception {
+        // given
+        Path file = directory.resolve("output.txt");
+        FixedWidthFileItemWriter<Dummy> writer = writer(file);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        writer.open(executionContext);
+        writer.write(Chunk.of(new Dummy("first", "a", null), new Dummy("second", "b", null), new Dummy("çà", null, null)));
+        writer.update(executionContext);
+        writer.close();
+
+        // then
+        assertThat(Files.readAllLines(file)).containsExactly("first a", "secondb", "çà     ");
+    }
+
+    @Test
+    void discardsFailedChunkAndRestartsFromLastCheckpoint() throws Exception {
+        // given
+        Path file = directory.resolve("output.txt");
+        FixedWidthFileItemWriter<Dummy> writer = writer(file);
+        ExecutionContext executionContext = new ExecutionContext();
+        writer.open(executionContext);
+        writer.write(Chunk.of(new Dummy("first", "a", null)));
+        writer.update(executionContext);
+        writer.write(Chunk.of(new Dummy("failed", "x", null)));
+        writer.afterChunkError(null);
+        writer.write(Chunk.of(new Dummy("second", "b", null)));
+        writer.update(executionContext);
+        writer.write(Chunk.of(new Dummy("lost", "y", null)));
+        writer.close();
+
+        // when
+        FixedWidthFileItemWriter<Dummy> restarted = writer(file);
+        restarted.open(executionContext);
+        restarted.write(Chunk.of(new Dummy("third", "c", null)));
+        restarted.update(executionContext);
+        restarted.close();
+
+        // then
+        assertThat(Files.readAllLines(file)).containsExactly("first a", "secondb", "third c");
+    }
+
+    private static FixedWidthFileItemWriter<Dummy> writer(Path file) throws Exception {
+        FixedWidthFileItemWriter<Dummy> writer = new FixedWidthFileItemWriter<>();
+        writer.setFile(file);
+        writer.setBufferSize(4);
+        writer.setFormatter(new FixedWidthRecordFormatter<>(Dummy.class, List.of(
+                field("text1", "string", 0, 6, "Y"),
+                field("text2", "string", 6, 1, "N"))));
+        writer.afterPropertiesSet();
+        return writer;
+    }
+}
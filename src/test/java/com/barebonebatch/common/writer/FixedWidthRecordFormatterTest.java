@@ -0,0 +1,78 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.domain.MappingFields;
+import com.barebonebatch.cryptoimport.CryptoTransaction;
+import com.barebonebatch.dbprocessing.Dummy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedWidthRecordFormatterTest {
+
+    @Test
+    void formatsStringsLeftAndNumbersRight() throws Exception {
+        // given
+        FixedWidthRecordFormatter<CryptoTransaction> formatter = new FixedWidthRecordFormatter<>(CryptoTransaction.class, List.of(
+                field("pair", "string", 0, 8, "Y"),
+                field("price", "bigdecimal", 8, 10, "Y"),
+                field("executedAmount", "bigdecimal", 18, 8, "Y"),
+                field("feeAmount", "bigdecimal", 26, 6, "N")));
+        CryptoTransaction transaction = new CryptoTransaction();
+        transaction.setPair("BTCEUR");
+        transaction.setPrice(new BigDecimal("-1234.50"));
+        transaction.setExecutedAmount(new BigDecimal("0.05"));
+        char[] record = new char[formatter.getRecordLength()];
+
+        // when
+        formatter.format(transaction, record);
+
+        // then
+        assertThat(new String(record)).isEqualTo("BTCEUR    -1234.50    0.05      ");
+    }
+
+    @Test
+    void reusesTheRecordBuffer() throws Exception {
+        // given
+        FixedWidthRecordFormatter<Dummy> formatter = new FixedWidthRecordFormatter<>(Dummy.class, List.of(
+                field("text1", "string", 0, 10, "N"),
+                field("text2", "string", 10, 5, "N")));
+        char[] record = new char[formatter.getRecordLength()];
+        formatter.format(new Dummy("a long one", "xyz", null), record);
+
+        // when
+        formatter.format(new Dummy("short", null, null), record);
+
+        // then
+        assertThat(new String(record)).isEqualTo("short          ");
+    }
+
+    @Test
+    void rejectsValueLongerThanItsField() throws Exception {
+        // given
+        FixedWidthRecordFormatter<CryptoTransaction> formatter = new FixedWidthRecordFormatter<>(CryptoTransaction.class, List.of(
+                field("price", "bigdecimal", 0, 4, "Y")));
+        CryptoTransaction transaction = new CryptoTransaction();
+        transaction.setPrice(new BigDecimal("12.50"));
+
+        // when / then
+        assertThatThrownBy(() -> formatter.format(transaction, new char[4]))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not fit in 4 characters");
+    }
+
+    static MappingFields field(String property, String type, int offset, int length, String mandatory) {
+        MappingFields field = new MappingFields();
+        field.setProperty(property);
+        field.setType(type);
+        field.setOffset(offset);
+        field.setLength(length);
+        field.setMandatory(mandatory);
+        field.setEnable("Y");
+        field.setPattern("");
+        return field;
+    }
+}
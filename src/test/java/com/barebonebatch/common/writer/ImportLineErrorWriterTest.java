@@ -0,0 +1,91 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.dao.JobDao;
+import com.barebonebatch.common.domain.ImportLine;
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ImportLineErrorWriterTest {
+
+    @ParameterizedTest
+    @CsvSource({"10000, 20", "100000, 200"})
+    void updatesManyLinesPerRoundTrip(int errorLines, int expectedRoundTrips) {
+        // given
+        JobDao jobDao = mock(JobDao.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ImportLineErrorWriter writer = new ImportLineErrorWriter(jobDao, new BaseBatchMetricsService(registry), 500);
+
+        // when
+        writer.write(lines(errorLines));
+
+        // then
+        verify(jobDao, times(expectedRoundTrips)).updateImportLinesWithError(anyList(), eq(false));
+        assertThat(registry.get("batch.errors.update.roundtrips").counter().count()).isEqualTo(expectedRoundTrips);
+        assertThat(registry.get("batch.errors.update.rows").summary().totalAmount()).isEqualTo(errorLines);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsLastErrorOfDuplicatedLine() {
+        // given
+        JobDao jobDao = mock(JobDao.class);
+        ImportLineErrorWriter writer = new ImportLineErrorWriter(jobDao, new BaseBatchMetricsService(new SimpleMeterRegistry()), 500);
+        ImportLine first = line(1, "first");
+        ImportLine second = line(1, "second");
+
+        // when
+        writer.write(List.of(first, second));
+
+        // then
+        ArgumentCaptor<List<ImportLine>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jobDao).updateImportLinesWithError(captor.capture(), eq(false));
+        assertThat(captor.getValue()).extracting(ImportLine::getImlErroText).containsExactly("second");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appendsErrorsPrefixedWithTheLabel() {
+        // given
+        JobDao jobDao = mock(JobDao.class);
+        ImportLineErrorWriter writer = new ImportLineErrorWriter(jobDao, new BaseBatchMetricsService(new SimpleMeterRegistry()), 500, "cryptoImportJob");
+        ImportLine line = line(1, "Unparseable number");
+
+        // when
+        writer.write(List.of(line));
+
+        // then
+        ArgumentCaptor<List<ImportLine>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jobDao).updateImportLinesWithError(captor.capture(), eq(true));
+        assertThat(captor.getValue()).extracting(ImportLine::getImlErroText).containsExactly("cryptoImportJob: Unparseable number");
+        assertThat(line.getImlErroText()).isEqualTo("Unparseable number");
+    }
+
+    private static List<ImportLine> lines(int count) {
+        List<ImportLine> lines = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            lines.add(line(i, "error " + i));
+        }
+        return lines;
+    }
+
+    private static ImportLine line(int imlIden, String error) {
+        ImportLine line = new ImportLine();
+        line.setImlIden(imlIden);
+        line.setImlErroText(error);
+        return line;
+    }
+}
@@ -0,0 +1,107 @@
+package com.barebonebatch.common.writer;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.batch.item.Chunk;
+import org.springframework.dao.IncorrectUpdateSemanticsDataAccessException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MultiRowInsertItemWriterTest {
+
+    private static final String STATEMENT = "insertRows";
+
+    private SqlSession sqlSession;
+    private SimpleMeterRegistry registry;
+    private MultiRowInsertItemWriter<String> writer;
+
+    @BeforeEach
+    void setUp() {
+        SqlSessionFactory sqlSessionFactory = mock(SqlSessionFactory.class, RETURNS_DEEP_STUBS);
+        sqlSession = mock(SqlSession.class);
+        when(sqlSessionFactory.openSession(ExecutorType.BATCH)).thenReturn(sqlSession);
+        registry = new SimpleMeterRegistry();
+
+        writer = new MultiRowInsertItemWriter<>();
+        writer.setSqlSessionFactory(sqlSessionFactory);
+        writer.setStatementId(STATEMENT);
+        writer.setMetricsService(new BaseBatchMetricsService(registry));
+    }
+
+    @Test
+    void splitsChunkByRowLimit() {
+        // given
+        writer.setMaxRowsPerStatement(3);
+        writer.afterPropertiesSet();
+        when(sqlSession.flushStatements()).thenReturn(List.of(result(3, 3), result(1)));
+
+        // when
+        writer.write(Chunk.of("a", "b", "c", "d", "e", "f", "g"));
+
+        // then
+        assertThat(insertedGroups(3)).containsExactly(List.of("a", "b", "c"), List.of("d", "e", "f"), List.of("g"));
+        assertThat(registry.get("batch.writer.statements.per.chunk").summary().totalAmount()).isEqualTo(3);
+        assertThat(registry.get("batch.writer.rows.per.statement").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void splitsChunkByByteLimit() {
+        // given
+        writer.setMaxBytesPerStatement(10);
+        writer.setRowSizeEstimator(String::length);
+        writer.afterPropertiesSet();
+        when(sqlSession.flushStatements()).thenReturn(List.of(result(2, 1)));
+
+        // when
+        writer.write(Chunk.of("12345", "12345", "123456789012"));
+
+        // then
+        assertThat(insertedGroups(2)).containsExactly(List.of("12345", "12345"), List.of("123456789012"));
+    }
+
+    @Test
+    void failsWhenRowsAreMissing() {
+        // given
+        writer.afterPropertiesSet();
+        when(sqlSession.flushStatements()).thenReturn(List.of(result(1)));
+
+        // when / then
+        assertThatThrownBy(() -> writer.write(Chunk.of("a", "b")))
+                .isInstanceOf(IncorrectUpdateSemanticsDataAccessException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> insertedGroups(int statements) {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(sqlSession, times(statements)).insert(eq(STATEMENT), captor.capture());
+        List<List<String>> groups = new ArrayList<>();
+        for (Object parameter : captor.getAllValues()) {
+            groups.add(List.copyOf((List<String>) ((Map<String, Object>) parameter).get(MultiRowInsertItemWriter.ITEMS_PARAMETER)));
+        }
+        return groups;
+    }
+
+    private static BatchResult result(int... updateCounts) {
+        BatchResult result = new BatchResult(null, STATEMENT);
+        result.setUpdateCounts(updateCounts);
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.barebonebatch.common.writer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindPipelineTest {
+
+    @Test
+    void writesQueuedChunksAndSkipsFailingItems() throws Exception {
+        // given
+        List<String> written = new CopyOnWriteArrayList<>();
+        Map<String, Throwable> skipped = new HashMap<>();
+        ItemWriter<String> writer = chunk -> {
+            if (chunk.getItems().contains("bad")) {
+                throw new IllegalStateException("bad item");
+            }
+            written.addAll(chunk.getItems());
+        };
+        WriteBehindPipeline<String, String> pipeline = new WriteBehindPipeline<>(reader("a", "b", "bad", "c"), writer,
+                new ResourcelessTransactionManager(), skipped::put, 2, 10);
+        StepExecution stepExecution = new StepExecution("step", null);
+        ExecutionContext executionContext = new ExecutionContext();
+
+        // when
+        pipeline.beforeStep(stepExecution);
+        pipeline.open(executionContext);
+        int chunks = 0;
+        String item;
+        Chunk<ProcessedItem<String, String>> chunk = new Chunk<>();
+        while ((item = pipeline.read()) != null) {
+            chunk.add(new ProcessedItem<>(item, item));
+            if (chunk.size() == 2) {
+                pipeline.write(chunk);
+                pipeline.update(executionContext);
+                stepExecution.setWriteCount(stepExecution.getWriteCount() + chunk.size());
+                chunk = new Chunk<>();
+                chunks++;
+            }
+        }
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        ExitStatus exitStatus = pipeline.afterStep(stepExecution);
+        pipeline.close();
+
+        // then
+        assertThat(chunks).isEqualTo(2);
+        assertThat(written).containsExactly("a", "b", "c");
+        assertThat(skipped).containsOnlyKeys("bad");
+        assertThat(stepExecution.getWriteCount()).isEqualTo(3);
+        assertThat(stepExecution.getWriteSkipCount()).isEqualTo(1);
+        assertThat(stepExecution.getExecutionContext().getInt("test.read.count")).isEqualTo(4);
+        assertThat(exitStatus.getExitCode()).isEqualTo(ExitStatus.EXECUTING.getExitCode());
+    }
+
+    @Test
+    void failsStepWhenSkipLimitIsExceeded() throws Exception {
+        // given
+        ItemWriter<String> writer = chunk -> {
+            throw new IllegalStateException("down");
+        };
+        WriteBehindPipeline<String, String> pipeline = new WriteBehindPipeline<>(reader("a"), writer,
+                new ResourcelessTransactionManager(), (source, e) -> { }, 1, 0);
+        StepExecution stepExecution = new StepExecution("step", null);
+
+        // when
+        pipeline.beforeStep(stepExecution);
+        pipeline.open(new ExecutionContext());
+        pipeline.write(Chunk.of(new ProcessedItem<>("a", "a")));
+        stepExecution.setStatus(BatchStatus.COMPLETED);
+        ExitStatus exitStatus = pipeline.afterStep(stepExecution);
+        pipeline.close();
+
+        // then
+        assertThat(exitStatus.getExitCode()).isEqualTo(ExitStatus.FAILED.getExitCode());
+        assertThat(stepExecution.getStatus()).isEqualTo(BatchStatus.FAILED);
+    }
+
+    private static AbstractItemCountingItemStreamItemReader<String> reader(String... items) {
+        AbstractItemCountingItemStreamItemReader<String> reader = new AbstractItemCountingItemStreamItemReader<>() {
+            @Override
+            protected String doRead() {
+                return getCurrentItemCount() <= items.length ? items[getCurrentItemCount() - 1] : null;
+            }
+
+            @Override
+            protected void doOpen() {
+            }
+
+            @Override
+            protected void doClose() {
+            }
+        };
+        reader.setName("test");
+        return reader;
+    }
+}
@@ -0,0 +1,109 @@
+package com.barebonebatch.cryptoimport;
+
+import com.barebonebatch.common.service.BaseBatchMetricsService;
+import com.barebonebatch.common.writer.MultiRowInsertItemWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.item.Chunk;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CryptoTransactionWriterTest {
+
+    private static final String STATEMENT = "insertIgnore";
+
+    private MultiRowInsertItemWriter<CryptoTransaction> delegate;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        delegate = mock(MultiRowInsertItemWriter.class);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void dropsDuplicatesWithinChunk() {
+        // given
+        CryptoTransactionWriter writer = writer(true);
+        CryptoTransaction first = transaction("1.5", "0.1");
+        CryptoTransaction sameValue = transaction("1.50", "0.10");
+        CryptoTransaction other = transaction("2", "0.1");
+
+        // when
+        List<CryptoTransaction> unique = writer.deduplicate(List.of(first, sameValue, other));
+
+        // then
+        assertThat(unique).containsExactly(first, other);
+    }
+
+    @Test
+    void keepsRowsWithNullsWhenNullsAreDistinct() {
+        // given
+        CryptoTransaction withNull = transaction("1.5", null);
+        CryptoTransaction sameWithNull = transaction("1.5", null);
+
+        // when
+        List<CryptoTransaction> mysql = writer(true).deduplicate(List.of(withNull, sameWithNull));
+        List<CryptoTransaction> oracle = writer(false).deduplicate(List.of(withNull, sameWithNull));
+
+        // then
+        assertThat(mysql).hasSize(2);
+        assertThat(oracle).containsExactly(withNull);
+    }
+
+    @Test
+    void countsRowsIgnoredByDatabaseAsDuplicates() {
+        // given
+        CryptoTransactionWriter writer = writer(true);
+        StepExecution stepExecution = new StepExecution("importCryptoStep", null);
+        writer.beforeStep(stepExecution);
+        when(delegate.insert(anyList())).thenReturn(1L);
+
+        // when
+        writer.beforeChunk(null);
+        writer.write(Chunk.of(transaction("1", "1"), transaction("1", "1"), transaction("2", "1")));
+        writer.afterChunk(null);
+        writer.afterStep(stepExecution);
+
+        // then
+        assertThat(stepExecution.getExecutionContext().getLong(CryptoTransactionWriter.INSERTED_COUNT)).isEqualTo(1);
+        assertThat(stepExecution.getExecutionContext().getLong(CryptoTransactionWriter.DUPLICATE_COUNT)).isEqualTo(2);
+        assertThat(registry.get("batch.writer.rows.duplicate").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void forgetsCountsOfRolledBackChunk() {
+        // given
+        CryptoTransactionWriter writer = writer(true);
+        writer.beforeStep(new StepExecution("importCryptoStep", null));
+        when(delegate.insert(anyList())).thenReturn(2L);
+
+        // when
+        writer.beforeChunk(null);
+        writer.write(Chunk.of(transaction("1", "1"), transaction("2", "1")));
+        writer.afterChunkError(null);
+
+        // then
+        assertThat(writer.getInserted()).isZero();
+        assertThat(writer.getDuplicates()).isZero();
+    }
+
+    private CryptoTransactionWriter writer(boolean nullsDistinct) {
+        return new CryptoTransactionWriter(delegate, STATEMENT, new BaseBatchMetricsService(registry), nullsDistinct);
+    }
+
+    private static CryptoTransaction transaction(String price, String fee) {
+        return new CryptoTransaction(new Date(1_700_000_000_000L), "BTCUSDT", "BUY", new BigDecimal(price),
+                BigDecimal.ONE, "BTC", BigDecimal.TEN, "USDT", fee == null ? null : new BigDecimal(fee), "USDT");
+    }
+}